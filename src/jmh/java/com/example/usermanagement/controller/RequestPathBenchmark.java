@@ -0,0 +1,113 @@
+package com.example.usermanagement.controller;
+
+import com.example.usermanagement.aspect.LoggingAspect;
+import com.example.usermanagement.config.ListingProperties;
+import com.example.usermanagement.config.LookupProperties;
+import com.example.usermanagement.config.NotificationProperties;
+import com.example.usermanagement.config.PayloadLoggingProperties;
+import com.example.usermanagement.config.RegistrationProperties;
+import com.example.usermanagement.config.StorageProperties;
+import com.example.usermanagement.config.UserCacheProperties;
+import com.example.usermanagement.dto.UserRegistrationDTO;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.InMemoryUserRepository;
+import com.example.usermanagement.service.EmailBloomFilter;
+import com.example.usermanagement.service.UserCache;
+import com.example.usermanagement.service.UserService;
+import com.example.usermanagement.validation.CountryFranceValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the per-request work done around {@link UserController}:
+ * bean validation of {@link UserRegistrationDTO} (including {@link CountryFranceValidator}),
+ * {@link UserController#convertToUser}, Jackson serialization of {@link User}, and the overhead
+ * of {@link LoggingAspect} on a cached {@code getUserById} call.
+ *
+ * Run with {@code mvn -Pjmh test -Djmh.args=RequestPathBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestPathBenchmark {
+
+    private Validator validator;
+    private CountryFranceValidator countryFranceValidator;
+    private UserRegistrationDTO validRegistration;
+    private UserRegistrationDTO invalidRegistration;
+    private ObjectMapper objectMapper;
+    private User user;
+    private UserController controller;
+    private UserController advisedController;
+
+    @Setup
+    public void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        countryFranceValidator = new CountryFranceValidator();
+        validRegistration = new UserRegistrationDTO("John Doe", 25, "France", "john@example.com", "1234567890");
+        invalidRegistration = new UserRegistrationDTO("", 15, "USA", "invalidemail", "");
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        InMemoryUserRepository repository = new InMemoryUserRepository(new StorageProperties());
+        UserService userService = new UserService(repository,
+                new UserCache(new UserCacheProperties(), new SimpleMeterRegistry()),
+                new EmailBloomFilter(new RegistrationProperties(), repository, new SimpleMeterRegistry()),
+                new RegistrationProperties(), new LookupProperties(), new NotificationProperties(), event -> { });
+        user = userService.registerUser(UserController.convertToUser(validRegistration));
+        userService.getUserById(user.getId());
+
+        controller = new UserController(userService, new ListingProperties(), new LookupProperties());
+        AspectJProxyFactory factory = new AspectJProxyFactory(controller);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new LoggingAspect(new SimpleMeterRegistry(), new PayloadLoggingProperties()));
+        advisedController = factory.getProxy();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserRegistrationDTO>> validateValidRegistration() {
+        return validator.validate(validRegistration);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserRegistrationDTO>> validateInvalidRegistration() {
+        return validator.validate(invalidRegistration);
+    }
+
+    @Benchmark
+    public boolean countryFranceValidator() {
+        return countryFranceValidator.isValid(validRegistration.getCountry(), null);
+    }
+
+    @Benchmark
+    public User convertToUser() {
+        return UserController.convertToUser(validRegistration);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws Exception {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> getUserByIdWithoutAspect() {
+        return controller.getUserById(user.getId(), null, null, null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> getUserByIdWithAspect() {
+        return advisedController.getUserById(user.getId(), null, null, null, null);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.usermanagement.dto;
+
+import com.example.usermanagement.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks comparing the JSON and CBOR wire formats for the bodies of
+ * {@link com.example.usermanagement.controller.UserController}: serializing a {@link User} and
+ * deserializing a {@link UserRegistrationDTO}, plus the reverse of each.
+ *
+ * The encoded size of both payloads in each format is printed once during setup; the
+ * {@code -prof gc} output added by the profile gives the allocation per operation.
+ *
+ * Run with {@code mvn -Pjmh test -Djmh.args=WireFormatBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private User user;
+    private UserRegistrationDTO registration;
+    private byte[] userBytes;
+    private byte[] registrationBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if ("cbor".equals(format)) {
+            builder.factory(new CBORFactory());
+        }
+        objectMapper = builder.build();
+
+        user = new User();
+        user.setId("65f1c2a9e4b0a1b2c3d4e5f6");
+        user.setName("Jeanne Dupont");
+        user.setAge(34);
+        user.setCountry("France");
+        user.setEmail("jeanne.dupont@example.com");
+        user.setPhone("0612345678");
+        user.setRegistrationDate(LocalDateTime.of(2024, 3, 13, 9, 41, 27));
+        registration = new UserRegistrationDTO("Jeanne Dupont", 34, "France", "jeanne.dupont@example.com", "0612345678");
+
+        userBytes = objectMapper.writeValueAsBytes(user);
+        registrationBytes = objectMapper.writeValueAsBytes(registration);
+        System.out.printf("%n%s payload size: User=%d bytes, UserRegistrationDTO=%d bytes%n",
+                format, userBytes.length, registrationBytes.length);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws Exception {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public User deserializeUser() throws Exception {
+        return objectMapper.readValue(userBytes, User.class);
+    }
+
+    @Benchmark
+    public byte[] serializeRegistration() throws Exception {
+        return objectMapper.writeValueAsBytes(registration);
+    }
+
+    @Benchmark
+    public UserRegistrationDTO deserializeRegistration() throws Exception {
+        return objectMapper.readValue(registrationBytes, UserRegistrationDTO.class);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.usermanagement.exception;
+
+import com.example.usermanagement.controller.UserController;
+import com.example.usermanagement.dto.ApiError;
+import com.example.usermanagement.dto.UserRegistrationDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the rejected-request path through {@link GlobalExceptionHandler}:
+ * throwing and handling a not-found and a duplicate-email error, handling validation errors, and
+ * serializing the error body.
+ *
+ * The {@code stackTrace} variants throw an otherwise identical exception that captures its stack
+ * trace, as the domain exceptions did before, for comparison. Exceptions are thrown {@code depth}
+ * frames deep, since a request handled by Spring MVC is typically around a hundred frames deep.
+ *
+ * Run with {@code mvn -Pjmh test -Djmh.args=ErrorPathBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    @Param({"10", "100"})
+    private int depth;
+
+    private GlobalExceptionHandler handler;
+    private ObjectMapper objectMapper;
+    private MethodArgumentNotValidException validationException;
+    private ResponseEntity<ApiError> notFoundResponse;
+
+    @Setup
+    public void setUp() throws Exception {
+        handler = new GlobalExceptionHandler();
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        UserRegistrationDTO invalid = new UserRegistrationDTO("", 15, "USA", "invalidemail", "");
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(invalid, "userRegistrationDTO");
+        bindingResult.rejectValue("name", "NotBlank", "Name is required");
+        bindingResult.rejectValue("age", "Min", "Age must be at least 18");
+        bindingResult.rejectValue("country", "CountryFrance", "Country must be France");
+        bindingResult.rejectValue("email", "Email", "Email should be valid");
+        MethodParameter parameter = new MethodParameter(UserController.class.getMethod(
+                "registerUser", UserRegistrationDTO.class, String.class), 0);
+        validationException = new MethodArgumentNotValidException(parameter, bindingResult);
+
+        notFoundResponse = handler.handleUserNotFound(new UserNotFoundException("User not found with ID: 42"));
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> userNotFound() {
+        try {
+            throwAt(depth, () -> new UserNotFoundException("User not found with ID: 42"));
+            return null;
+        } catch (UserNotFoundException e) {
+            return handler.handleUserNotFound(e);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> userNotFoundWithStackTrace() {
+        try {
+            throwAt(depth, () -> new StackTraceException("User not found with ID: 42"));
+            return null;
+        } catch (StackTraceException e) {
+            return handler.handleUserNotFound(new UserNotFoundException(e.getMessage()));
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> duplicateEmail() {
+        try {
+            throwAt(depth, () -> new DuplicateEmailException("Email already exists: john@example.com"));
+            return null;
+        } catch (DuplicateEmailException e) {
+            return handler.handleDuplicateEmail(e);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, String>> validationErrors() {
+        return handler.handleValidationExceptions(validationException);
+    }
+
+    @Benchmark
+    public byte[] serializeNotFound() throws Exception {
+        return objectMapper.writeValueAsBytes(notFoundResponse.getBody());
+    }
+
+    private static void throwAt(int depth, java.util.function.Supplier<? extends RuntimeException> exception) {
+        if (depth == 0) {
+            throw exception.get();
+        }
+        throwAt(depth - 1, exception);
+    }
+
+    /**
+     * A runtime exception with a regular, captured stack trace.
+     */
+    private static final class StackTraceException extends RuntimeException {
+
+        StackTraceException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.config.LookupProperties;
+import com.example.usermanagement.config.NotificationProperties;
+import com.example.usermanagement.config.RegistrationProperties;
+import com.example.usermanagement.config.StorageProperties;
+import com.example.usermanagement.config.UserCacheProperties;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.InMemoryUserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of {@link UserService#registerUser} and {@link UserService#getUserById}
+ * against the {@link InMemoryUserRepository} with no simulated latency, so that only the
+ * service's own cost (duplicate handling, caching, coalescing) is measured.
+ *
+ * Run with {@code mvn -Pjmh test -Djmh.args=UserServiceBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private UserService cachedService;
+    private UserService uncachedService;
+    private String userId;
+    private long sequence;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        InMemoryUserRepository repository = new InMemoryUserRepository(new StorageProperties());
+        UserCacheProperties disabledCache = new UserCacheProperties();
+        disabledCache.setEnabled(false);
+        EmailBloomFilter emailFilter = new EmailBloomFilter(new RegistrationProperties(), repository, new SimpleMeterRegistry());
+        cachedService = new UserService(repository, new UserCache(new UserCacheProperties(), new SimpleMeterRegistry()),
+                emailFilter, new RegistrationProperties(), new LookupProperties(), new NotificationProperties(), event -> { });
+        uncachedService = new UserService(repository, new UserCache(disabledCache, new SimpleMeterRegistry()),
+                emailFilter, new RegistrationProperties(), new LookupProperties(), new NotificationProperties(), event -> { });
+        userId = cachedService.registerUser(user("existing@example.com")).getId();
+    }
+
+    @Benchmark
+    public User registerUser() {
+        return cachedService.registerUser(user("user-" + sequence++ + "@example.com"));
+    }
+
+    @Benchmark
+    public User getUserByIdCached() {
+        return cachedService.getUserById(userId);
+    }
+
+    @Benchmark
+    public User getUserByIdUncached() {
+        return uncachedService.getUserById(userId);
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setName("John Doe");
+        user.setAge(25);
+        user.setCountry("France");
+        user.setEmail(email);
+        user.setPhone("1234567890");
+        return user;
+    }
+}
@@ -2,6 +2,8 @@ package com.example.usermanagement;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * The main entry point for the User Management Service application.
@@ -15,9 +17,15 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  *     <li>@ComponentScan - Tells Spring to scan the current package and sub-packages for annotated components like controllers, services, etc.</li>
  * </ul>
  *
+ * {@link ConfigurationPropertiesScan} registers the {@code @ConfigurationProperties} classes
+ * of the {@code config} package, which bind the {@code user.*} keys of {@code application.properties}.
+ * {@link EnableScheduling} runs the periodic background tasks, such as the notification outbox sweep.
+ *
  * The {@link SpringApplication#run} method is invoked to start the application.
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class UserManagementServiceApplication {
 
 	/**
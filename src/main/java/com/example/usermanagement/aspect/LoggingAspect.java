@@ -1,24 +1,65 @@
 package com.example.usermanagement.aspect;
 
+import com.example.usermanagement.config.PayloadLoggingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Aspect for logging execution time, input arguments, and responses of REST controller methods.
+ * Aspect for recording the execution time of REST controller methods.
+ *
+ * Every call is timed with {@link System#nanoTime()} into the {@value #TIMER_NAME} timer, tagged with
+ * the endpoint and the outcome ({@code success} or {@code error}). The timer counts act as the
+ * success and error counters, and its percentile histogram is exported through {@code /actuator/prometheus}.
+ * Timers are resolved once per controller method and then recorded into without locking.
+ *
+ * Input arguments and responses are only logged when {@code user.logging.payload.enabled} is set,
+ * for a sampled fraction of calls and at DEBUG level, as configured by the {@code dev} profile.
+ *
+ * The aspect is only active in the servlet mode: reactive controller methods return before the
+ * request is processed, so their latency is recorded by the {@code http.server.requests} metric instead.
  */
 @Aspect
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class LoggingAspect {
 
+    static final String TIMER_NAME = "user.controller.requests";
+
     private static final Logger logger = LoggerFactory.getLogger(LoggingAspect.class);
 
+    private final MeterRegistry meterRegistry;
+    private final boolean payloadLoggingEnabled;
+    private final double payloadSampleRate;
+    private final ConcurrentMap<Method, EndpointTimers> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the aspect.
+     *
+     * @param meterRegistry the registry the endpoint timers are published to
+     * @param properties    the payload logging settings
+     */
+    public LoggingAspect(MeterRegistry meterRegistry, PayloadLoggingProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.payloadLoggingEnabled = properties.isEnabled();
+        this.payloadSampleRate = properties.getSampleRate();
+    }
+
     /**
      * Pointcut that matches all methods within classes annotated with {@link org.springframework.web.bind.annotation.RestController}.
      */
@@ -26,7 +67,8 @@ public class LoggingAspect {
     public void controllerMethods() {}
 
     /**
-     * Logs the execution time, method name, input arguments, and response for all REST controller methods.
+     * Records the execution time and outcome of all REST controller methods,
+     * and logs input arguments and responses for sampled calls when payload logging is enabled.
      *
      * @param joinPoint the join point representing the method execution.
      * @return the result of the method execution.
@@ -34,21 +76,60 @@ public class LoggingAspect {
      */
     @Around("controllerMethods()")
     public Object logExecutionTime(ProceedingJoinPoint joinPoint) throws Throwable {
-        long startTime = System.currentTimeMillis();
-
-        String methodName = joinPoint.getSignature().toShortString();
-        Object[] args = joinPoint.getArgs();
-        logger.info("Executing {} with arguments: {}", methodName, Arrays.toString(args));
+        EndpointTimers endpoint = timers.computeIfAbsent(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), this::registerTimers);
+        boolean logPayload = shouldLogPayload();
+        if (logPayload) {
+            logger.debug("Executing {} with arguments: {}", endpoint.name, Arrays.toString(joinPoint.getArgs()));
+        }
 
+        long startTime = System.nanoTime();
         try {
             Object result = joinPoint.proceed();
-            long executionTime = System.currentTimeMillis() - startTime;
-            logger.info("Completed {} in {} ms | Response: {}", methodName, executionTime, result);
+            long executionTime = System.nanoTime() - startTime;
+            endpoint.success.record(executionTime, TimeUnit.NANOSECONDS);
+            if (logPayload) {
+                logger.debug("Completed {} in {} ns | Response: {}", endpoint.name, executionTime, result);
+            }
             return result;
-        } catch (Exception e) {
-            long executionTime = System.currentTimeMillis() - startTime;
-            logger.error("Error in {} | Execution time: {} ms", methodName, executionTime, e);
+        } catch (Throwable e) {
+            long executionTime = System.nanoTime() - startTime;
+            endpoint.error.record(executionTime, TimeUnit.NANOSECONDS);
+            if (logPayload) {
+                logger.debug("Error in {} after {} ns", endpoint.name, executionTime, e);
+            }
             throw e;
         }
     }
+
+    /**
+     * Decides whether the current call is sampled for payload logging.
+     */
+    private boolean shouldLogPayload() {
+        return payloadLoggingEnabled
+                && logger.isDebugEnabled()
+                && ThreadLocalRandom.current().nextDouble() < payloadSampleRate;
+    }
+
+    /**
+     * Registers the success and error timers of a controller method.
+     */
+    private EndpointTimers registerTimers(Method method) {
+        String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        return new EndpointTimers(name, timer(name, "success"), timer(name, "error"));
+    }
+
+    private Timer timer(String endpoint, String outcome) {
+        return Timer.builder(TIMER_NAME)
+                .description("Execution time of REST controller methods")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * The timers of one controller method.
+     */
+    private record EndpointTimers(String name, Timer success, Timer error) {}
 }
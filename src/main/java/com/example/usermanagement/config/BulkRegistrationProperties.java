@@ -0,0 +1,24 @@
+package com.example.usermanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the bulk registration endpoint.
+ * Bound from the {@code user.bulk.*} keys in {@code application.properties}.
+ */
+@Data
+@ConfigurationProperties(prefix = "user.bulk")
+public class BulkRegistrationProperties {
+
+    /**
+     * Number of registrations checked for duplicates and inserted per database round trip.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Maximum number of items per request. Larger JSON arrays are rejected with 400 (Bad Request);
+     * NDJSON streams are registered up to the limit and the rest of the body is not read.
+     */
+    private int maxItems = 10_000;
+}
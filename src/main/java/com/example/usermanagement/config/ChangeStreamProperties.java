@@ -0,0 +1,48 @@
+package com.example.usermanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the change stream that invalidates local caches when users are
+ * modified through another instance.
+ * Bound from the {@code user.change-stream.*} keys in {@code application.properties}.
+ */
+@Data
+@ConfigurationProperties(prefix = "user.change-stream")
+public class ChangeStreamProperties {
+
+    /**
+     * Whether the {@code users} collection is watched. Change streams require a replica set or sharded cluster.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Identifies this instance in the resume token collection, so that it resumes its own stream after a
+     * restart. Empty to use the host name.
+     */
+    private String nodeId = "";
+
+    /**
+     * Maximum time the server waits for new changes before answering an empty batch.
+     */
+    private Duration maxAwaitTime = Duration.ofSeconds(1);
+
+    /**
+     * Number of changes fetched per batch.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Minimum interval between two saves of the resume token while changes keep arriving.
+     * The token is also saved whenever the stream is idle.
+     */
+    private Duration tokenSaveInterval = Duration.ofSeconds(5);
+
+    /**
+     * Delay before the stream is reopened after an error.
+     */
+    private Duration retryBackoff = Duration.ofSeconds(5);
+}
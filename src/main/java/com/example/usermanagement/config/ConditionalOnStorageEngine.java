@@ -0,0 +1,26 @@
+package com.example.usermanagement.config;
+
+import org.springframework.context.annotation.Conditional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Registers the annotated bean only with the given storage engine, read from {@code user.storage.engine}
+ * like {@link StorageProperties#getEngine()}, so that the value is case-insensitive and defaults to
+ * {@link StorageProperties.Engine#MONGO}.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Conditional(OnStorageEngineCondition.class)
+public @interface ConditionalOnStorageEngine {
+
+    /**
+     * The storage engine the bean needs.
+     */
+    StorageProperties.Engine value();
+}
@@ -0,0 +1,23 @@
+package com.example.usermanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the NDJSON user export.
+ * Bound from the {@code user.export.*} keys in {@code application.properties}.
+ */
+@Data
+@ConfigurationProperties(prefix = "user.export")
+public class ExportProperties {
+
+    /**
+     * Number of documents fetched per MongoDB cursor batch when the request does not specify one.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Largest cursor batch size a request may ask for.
+     */
+    private int maxBatchSize = 10_000;
+}
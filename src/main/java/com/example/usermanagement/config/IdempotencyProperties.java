@@ -0,0 +1,36 @@
+package com.example.usermanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for {@code Idempotency-Key} handling on registration.
+ * Bound from the {@code user.idempotency.*} keys in {@code application.properties}.
+ */
+@Data
+@ConfigurationProperties(prefix = "user.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Whether requests carrying an {@code Idempotency-Key} header are deduplicated.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long a key and its response are remembered.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Maximum number of keys held in memory; older keys are still found in MongoDB.
+     */
+    private long maxEntries = 100_000;
+
+    /**
+     * How long a key may stay claimed by an unfinished request before another request may take it over,
+     * e.g. because the instance handling the first request stopped.
+     */
+    private Duration lockTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,23 @@
+package com.example.usermanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the user listing.
+ * Bound from the {@code user.listing.*} keys in {@code application.properties}.
+ */
+@Data
+@ConfigurationProperties(prefix = "user.listing")
+public class ListingProperties {
+
+    /**
+     * Page size used when the request does not specify one.
+     */
+    private int defaultPageSize = 50;
+
+    /**
+     * Largest page size a request may ask for.
+     */
+    private int maxPageSize = 500;
+}
@@ -0,0 +1,40 @@
+package com.example.usermanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for load shedding of the user API.
+ * Bound from the {@code user.load-shedding.*} keys in {@code application.properties}.
+ */
+@Data
+@ConfigurationProperties(prefix = "user.load-shedding")
+public class LoadSheddingProperties {
+
+    /**
+     * Whether requests to {@code /users} are rejected early when the service is overloaded.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of requests processed concurrently.
+     */
+    private int maxInFlight = 200;
+
+    /**
+     * Maximum number of requests waiting for a MongoDB connection.
+     */
+    private int maxPoolWaiters = 50;
+
+    /**
+     * Maximum recent average time to get a MongoDB connection.
+     */
+    private Duration maxPoolWait = Duration.ofMillis(250);
+
+    /**
+     * The delay suggested to rejected clients in the {@code Retry-After} header.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
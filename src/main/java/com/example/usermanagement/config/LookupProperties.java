@@ -0,0 +1,37 @@
+package com.example.usermanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for user lookups.
+ * Bound from the {@code user.lookup.*} keys in {@code application.properties}.
+ */
+@Data
+@ConfigurationProperties(prefix = "user.lookup")
+public class LookupProperties {
+
+    /**
+     * Whether concurrent lookups of the same id share a single database query.
+     */
+    private boolean coalesce = true;
+
+    /**
+     * Read preference for lookups by id, e.g. {@code secondaryPreferred} or {@code nearest}.
+     * Empty to use the client default ({@code user.mongo.read-preference}).
+     */
+    private String readPreference = "";
+
+    /**
+     * How long after a registration lookups of the new user are sent to the primary,
+     * so that the registering client reads its own write. Only used with a {@link #readPreference}.
+     */
+    private Duration primaryReadWindow = Duration.ofSeconds(5);
+
+    /**
+     * Maximum number of ids accepted by a single batch lookup.
+     */
+    private int maxBatchSize = 500;
+}
@@ -0,0 +1,44 @@
+package com.example.usermanagement.config;
+
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the {@link MongoClientProperties} to the MongoDB clients created by Spring Boot
+ * (both the blocking and the reactive one) and registers the {@link MongoPoolMonitor}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MongoClientConfig {
+
+    @Bean
+    public MongoPoolMonitor mongoPoolMonitor(MeterRegistry registry) {
+        return new MongoPoolMonitor(registry);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoClientSettingsCustomizer(MongoClientProperties properties,
+                                                                            MongoPoolMonitor poolMonitor) {
+        MongoClientProperties.Pool pool = properties.getPool();
+        // Parsed eagerly so that an invalid name fails at startup
+        ReadPreference readPreference = ReadPreference.valueOf(properties.getReadPreference());
+        return builder -> builder
+                .readPreference(readPreference)
+                .applyToConnectionPoolSettings(settings -> settings
+                        .maxSize(pool.getMaxSize())
+                        .minSize(pool.getMinSize())
+                        .maxWaitTime(pool.getMaxWaitTime().toMillis(), TimeUnit.MILLISECONDS)
+                        .maxConnectionIdleTime(pool.getMaxConnectionIdleTime().toMillis(), TimeUnit.MILLISECONDS)
+                        .maxConnecting(pool.getMaxConnecting())
+                        .addConnectionPoolListener(poolMonitor))
+                .applyToSocketSettings(settings -> settings
+                        .connectTimeout((int) properties.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                        .readTimeout((int) properties.getSocketTimeout().toMillis(), TimeUnit.MILLISECONDS))
+                .applyToClusterSettings(settings -> settings
+                        .serverSelectionTimeout(properties.getServerSelectionTimeout().toMillis(), TimeUnit.MILLISECONDS));
+    }
+}
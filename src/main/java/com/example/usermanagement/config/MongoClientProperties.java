@@ -0,0 +1,81 @@
+package com.example.usermanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the MongoDB client.
+ * Bound from the {@code user.mongo.*} keys in {@code application.properties}.
+ *
+ * These settings are applied after {@code spring.data.mongodb.uri}, so they take precedence
+ * over the same options given in the connection string.
+ */
+@Data
+@ConfigurationProperties(prefix = "user.mongo")
+public class MongoClientProperties {
+
+    /**
+     * Whether the indexes declared on the documents are created at startup.
+     */
+    private boolean ensureIndexes = true;
+
+    /**
+     * Connection pool settings, applied to every server the client connects to.
+     */
+    private Pool pool = new Pool();
+
+    /**
+     * Maximum time to establish a new connection.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Maximum time to wait for a response on an established connection. Zero means no limit.
+     */
+    private Duration socketTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Maximum time to wait for a suitable server to become available.
+     */
+    private Duration serverSelectionTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Default read preference, e.g. {@code primary}, {@code primaryPreferred}, {@code secondaryPreferred}
+     * or {@code nearest}.
+     */
+    private String readPreference = "primary";
+
+    /**
+     * Connection pool settings.
+     */
+    @Data
+    public static class Pool {
+
+        /**
+         * Maximum number of connections per server, in use or idle.
+         */
+        private int maxSize = 100;
+
+        /**
+         * Minimum number of connections per server kept open.
+         */
+        private int minSize = 0;
+
+        /**
+         * Maximum time a request waits for a connection before failing.
+         */
+        private Duration maxWaitTime = Duration.ofSeconds(2);
+
+        /**
+         * Maximum time a connection may stay idle before it is closed. Zero means no limit.
+         */
+        private Duration maxConnectionIdleTime = Duration.ofMinutes(1);
+
+        /**
+         * Maximum number of connections a pool may be establishing concurrently.
+         */
+        private int maxConnecting = 2;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.usermanagement.config;
+
+import com.example.usermanagement.model.User;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Creates the indexes declared on the {@link org.springframework.data.mongodb.core.mapping.Document} classes
+ * (for example the unique email index on {@link User}) while the application starts, before the web server
+ * accepts requests.
+ *
+ * Users stored before the normalized email was introduced are migrated first: their {@code normalizedEmail}
+ * is derived from their email, so that duplicate checks and the unique index cover them. If two of them
+ * only differ in letter case, the unique index cannot be built until one is changed; registrations then
+ * look emails up instead of relying on the index, see {@code UserService}.
+ *
+ * Both run on the {@link MongoTemplate} in the servlet mode and on the {@link ReactiveMongoTemplate} in the reactive
+ * mode, which only has the reactive driver; startup waits for them in both.
+ *
+ * The migration and index creation are idempotent, so they run on every startup. They can be turned off with
+ * {@code user.mongo.ensure-indexes=false}, for example when indexes are managed by migrations, which must then
+ * backfill {@code normalizedEmail} as well.
+ */
+@Component
+@ConditionalOnProperty(name = "user.mongo.ensure-indexes", havingValue = "true", matchIfMissing = true)
+@ConditionalOnStorageEngine(StorageProperties.Engine.MONGO)
+public class MongoIndexInitializer implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    /**
+     * Number of users updated per bulk write of the migration.
+     */
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    /**
+     * Constructs the initializer.
+     *
+     * @param mongoTemplate         the template used in the servlet mode
+     * @param reactiveMongoTemplate the template used in the reactive mode
+     * @param mappingContext        the mapping context holding the persistent entities
+     */
+    public MongoIndexInitializer(ObjectProvider<MongoTemplate> mongoTemplate,
+                                 ObjectProvider<ReactiveMongoTemplate> reactiveMongoTemplate,
+                                 MongoMappingContext mappingContext) {
+        this.mongoTemplate = mongoTemplate.getIfAvailable();
+        this.reactiveMongoTemplate = reactiveMongoTemplate.getIfAvailable();
+        this.mappingContext = mappingContext;
+    }
+
+    /**
+     * Migrates the users, then ensures the indexes exist, once all singletons are created.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        backfillNormalizedEmails();
+        ensureIndexes();
+    }
+
+    /**
+     * Sets the normalized email of the users that have an email but no normalized email.
+     * Failures are logged rather than thrown, so that the application still starts when MongoDB is unavailable.
+     */
+    public void backfillNormalizedEmails() {
+        if (mongoTemplate == null) {
+            backfillNormalizedEmailsReactive();
+            return;
+        }
+        String collection = mongoTemplate.getCollectionName(User.class);
+        Query legacy = Query.query(Criteria.where("normalizedEmail").exists(false).and("email").exists(true))
+                .cursorBatchSize(BACKFILL_BATCH_SIZE);
+        legacy.fields().include("email");
+        long updated = 0;
+        try (Stream<Document> documents = mongoTemplate.stream(legacy, Document.class, collection)) {
+            BulkOperations operations = null;
+            int pending = 0;
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                if (!(document.get("email") instanceof String email)) {
+                    continue;
+                }
+                if (operations == null) {
+                    operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                }
+                operations.updateOne(Query.query(Criteria.where("_id").is(document.get("_id"))),
+                        Update.update("normalizedEmail", User.normalizeEmail(email)));
+                if (++pending == BACKFILL_BATCH_SIZE) {
+                    updated += operations.execute().getModifiedCount();
+                    operations = null;
+                    pending = 0;
+                }
+            }
+            if (operations != null) {
+                updated += operations.execute().getModifiedCount();
+            }
+            if (updated > 0) {
+                logger.info("Set the normalized email of {} users of collection {}", updated, collection);
+            }
+        } catch (DataAccessException e) {
+            logger.error("Could not set the normalized email of the users of collection {} ({} updated)",
+                    collection, updated, e);
+        }
+    }
+
+    private void backfillNormalizedEmailsReactive() {
+        String collection = reactiveMongoTemplate.getCollectionName(User.class);
+        Query legacy = Query.query(Criteria.where("normalizedEmail").exists(false).and("email").exists(true))
+                .cursorBatchSize(BACKFILL_BATCH_SIZE);
+        legacy.fields().include("email");
+        try {
+            Long updated = reactiveMongoTemplate.find(legacy, Document.class, collection)
+                    .filter(document -> document.get("email") instanceof String)
+                    .buffer(BACKFILL_BATCH_SIZE)
+                    .concatMap(documents -> {
+                        ReactiveBulkOperations operations =
+                                reactiveMongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                        documents.forEach(document -> operations.updateOne(
+                                Query.query(Criteria.where("_id").is(document.get("_id"))),
+                                Update.update("normalizedEmail", User.normalizeEmail(document.getString("email")))));
+                        return operations.execute();
+                    })
+                    .map(result -> (long) result.getModifiedCount())
+                    .reduce(0L, Long::sum)
+                    .block();
+            if (updated != null && updated > 0) {
+                logger.info("Set the normalized email of {} users of collection {}", updated, collection);
+            }
+        } catch (DataAccessException e) {
+            logger.error("Could not set the normalized email of the users of collection {}", collection, e);
+        }
+    }
+
+    /**
+     * Ensures the declared indexes of every persistent entity exist.
+     * Failures are logged rather than thrown, so that the application still starts when MongoDB is unavailable.
+     */
+    public void ensureIndexes() {
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                continue;
+            }
+            try {
+                List<IndexDefinition> indexes = new ArrayList<>();
+                resolver.resolveIndexFor(entity.getTypeInformation()).forEach(indexes::add);
+                if (mongoTemplate != null) {
+                    IndexOperations indexOps = mongoTemplate.indexOps(entity.getType());
+                    indexes.forEach(indexOps::ensureIndex);
+                } else {
+                    Flux.fromIterable(indexes)
+                            .concatMap(reactiveMongoTemplate.indexOps(entity.getType())::ensureIndex)
+                            .blockLast();
+                }
+                logger.info("Ensured indexes for collection {}", entity.getCollection());
+            } catch (DataAccessException e) {
+                logger.error("Could not ensure indexes for collection {}", entity.getCollection(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.usermanagement.config;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection pool listener that measures how long requests wait for a MongoDB connection.
+ *
+ * The wait time is recorded in the {@code mongodb.driver.pool.checkout} timer, tagged with the
+ * outcome ({@code success}, {@code timeout} or {@code failed}). The per-server pool size,
+ * checked-out and wait queue gauges are published by Spring Boot's own pool listener; this
+ * listener also keeps the totals across all servers so they can be read by the application,
+ * together with a moving average of recent wait times.
+ */
+public class MongoPoolMonitor implements ConnectionPoolListener {
+
+    static final String CHECKOUT_TIMER = "mongodb.driver.pool.checkout";
+
+    /**
+     * Wait times older than this no longer count as recent, so that the average recovers once checkouts stop.
+     */
+    private static final long RECENT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger checkedOut = new AtomicInteger();
+    private final AtomicLong averageWaitNanos = new AtomicLong();
+    private volatile long lastCheckoutNanos = System.nanoTime() - RECENT_NANOS;
+    private final Timer checkoutSuccess;
+    private final Timer checkoutTimeout;
+    private final Timer checkoutFailed;
+
+    public MongoPoolMonitor(MeterRegistry registry) {
+        this.checkoutSuccess = checkoutTimer(registry, "success");
+        this.checkoutTimeout = checkoutTimer(registry, "timeout");
+        this.checkoutFailed = checkoutTimer(registry, "failed");
+    }
+
+    private static Timer checkoutTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder(CHECKOUT_TIMER)
+                .description("Time spent waiting for a connection from the MongoDB connection pool")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        waiting.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        waiting.decrementAndGet();
+        checkedOut.incrementAndGet();
+        long elapsed = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        checkoutSuccess.record(elapsed, TimeUnit.NANOSECONDS);
+        recordWait(elapsed);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        waiting.decrementAndGet();
+        Timer timer = event.getReason() == ConnectionCheckOutFailedEvent.Reason.TIMEOUT ? checkoutTimeout : checkoutFailed;
+        long elapsed = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        timer.record(elapsed, TimeUnit.NANOSECONDS);
+        recordWait(elapsed);
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        checkedOut.decrementAndGet();
+    }
+
+    /**
+     * Returns the number of requests currently waiting for a connection, across all pools.
+     *
+     * @return the number of waiting requests
+     */
+    public int waitingCount() {
+        return waiting.get();
+    }
+
+    /**
+     * Returns the moving average of the time recent checkouts waited for a connection,
+     * or 0 if there has been no checkout within the last second.
+     *
+     * @return the average wait time in nanoseconds
+     */
+    public long recentWaitNanos() {
+        return System.nanoTime() - lastCheckoutNanos > RECENT_NANOS ? 0 : averageWaitNanos.get();
+    }
+
+    /**
+     * Returns the number of connections currently in use, across all pools.
+     *
+     * @return the number of checked-out connections
+     */
+    public int checkedOutCount() {
+        return checkedOut.get();
+    }
+
+    private void recordWait(long elapsedNanos) {
+        // Exponentially weighted, each checkout contributing an eighth
+        averageWaitNanos.accumulateAndGet(elapsedNanos, (average, sample) -> average + (sample - average) / 8);
+        lastCheckoutNanos = System.nanoTime();
+    }
+}
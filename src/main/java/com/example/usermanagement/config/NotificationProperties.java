@@ -0,0 +1,58 @@
+package com.example.usermanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for welcome notifications.
+ * Bound from the {@code user.notifications.*} keys in {@code application.properties}.
+ */
+@Data
+@ConfigurationProperties(prefix = "user.notifications")
+public class NotificationProperties {
+
+    /**
+     * Whether a welcome notification is sent to every registered user.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of notifications queued in memory, both for writing to the outbox and for delivery.
+     * When a queue is full, notifications are picked up by a later sweep.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * Number of worker threads delivering notifications.
+     */
+    private int workers = 2;
+
+    /**
+     * Maximum number of notifications handed to a sender at once.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Number of delivery attempts before a notification is marked as failed.
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * Delay before the first retry, doubled for every further attempt.
+     */
+    private Duration initialBackoff = Duration.ofSeconds(5);
+
+    /**
+     * How long a queued notification is reserved before a sweep may pick it up again,
+     * e.g. because the instance that queued it stopped. Also how long after a registration a sweep
+     * recovers a notification that was not written to the outbox.
+     */
+    private Duration lease = Duration.ofMinutes(1);
+
+    /**
+     * Interval between sweeps of the outbox for due notifications.
+     */
+    private Duration sweepInterval = Duration.ofSeconds(30);
+}
@@ -0,0 +1,24 @@
+package com.example.usermanagement.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionMessage;
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * Condition of {@link ConditionalOnStorageEngine}.
+ */
+class OnStorageEngineCondition extends SpringBootCondition {
+
+    @Override
+    public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        StorageProperties.Engine required = metadata.getAnnotations().get(ConditionalOnStorageEngine.class)
+                .getEnum("value", StorageProperties.Engine.class);
+        StorageProperties.Engine engine = StorageProperties.engine(context.getEnvironment());
+        ConditionMessage.Builder message = ConditionMessage.forCondition(ConditionalOnStorageEngine.class, required);
+        return engine == required
+                ? ConditionOutcome.match(message.foundExactly(engine))
+                : ConditionOutcome.noMatch(message.found("storage engine").items(engine));
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.usermanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the opt-in request/response payload logging of
+ * {@link com.example.usermanagement.aspect.LoggingAspect}.
+ * Bound from the {@code user.logging.payload.*} keys in {@code application.properties}.
+ */
+@Data
+@ConfigurationProperties(prefix = "user.logging.payload")
+public class PayloadLoggingProperties {
+
+    /**
+     * Whether arguments and responses of controller methods are logged at DEBUG level.
+     * Payloads contain personal data, so this is meant for troubleshooting only.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Fraction of calls, between 0 and 1, whose payloads are logged when enabled.
+     */
+    private double sampleRate = 0.01;
+}
@@ -0,0 +1,73 @@
+package com.example.usermanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Configuration properties for per-client rate limiting of the user API.
+ * Bound from the {@code user.rate-limit.*} keys in {@code application.properties}.
+ */
+@Data
+@ConfigurationProperties(prefix = "user.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Whether requests to {@code /users} are rate limited.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Header identifying the client by API key. Clients without a known key are identified by their IP address.
+     */
+    private String apiKeyHeader = "X-API-Key";
+
+    /**
+     * The API keys issued to clients. Only these identify a client, so that a client cannot escape its limit by
+     * sending a new key with every request; other keys are ignored.
+     */
+    private Set<String> apiKeys = new LinkedHashSet<>();
+
+    /**
+     * Maximum number of clients tracked per limit; the least recently seen are forgotten first.
+     */
+    private long maxClients = 100_000;
+
+    /**
+     * The limit of requests that no endpoint limit applies to.
+     */
+    private Limit defaultLimit = new Limit();
+
+    /**
+     * Stricter or looser limits by name, applied to the requests under their {@link Limit#getPath() path}.
+     * When several match, the one with the longest path applies.
+     */
+    private Map<String, Limit> endpoints = new LinkedHashMap<>();
+
+    /**
+     * A token bucket: a client may send {@code capacity} requests at once, and one more every
+     * {@code 1 / refillPerSecond} seconds.
+     */
+    @Data
+    public static class Limit {
+
+        /**
+         * The path prefix the limit applies to, e.g. {@code /users/createUser}. Unused for the default limit.
+         */
+        private String path;
+
+        /**
+         * The burst size.
+         */
+        private int capacity = 100;
+
+        /**
+         * The sustained number of requests per second.
+         */
+        private double refillPerSecond = 50;
+    }
+}
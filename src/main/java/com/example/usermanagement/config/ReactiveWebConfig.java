@@ -0,0 +1,23 @@
+package com.example.usermanagement.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Web server configuration for the reactive mode.
+ *
+ * Tomcat is on the classpath for the servlet mode and would otherwise be picked for the reactive
+ * mode too. Declaring the Netty factory runs the reactive stack on Reactor Netty's small, fixed set
+ * of event-loop threads instead.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
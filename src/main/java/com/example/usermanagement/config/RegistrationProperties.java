@@ -0,0 +1,73 @@
+package com.example.usermanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for single-user registration.
+ * Bound from the {@code user.registration.*} keys in {@code application.properties}.
+ */
+@Data
+@ConfigurationProperties(prefix = "user.registration")
+public class RegistrationProperties {
+
+    /**
+     * Strategies for detecting an already registered email address.
+     */
+    public enum DuplicateCheck {
+        /**
+         * Look the email up before inserting. Costs an extra read per registration;
+         * the unique index still catches concurrent registrations.
+         */
+        QUERY,
+        /**
+         * Insert directly and let the unique email index reject duplicates.
+         */
+        INDEX
+    }
+
+    /**
+     * How duplicate email addresses are detected during registration.
+     */
+    private DuplicateCheck duplicateCheck = DuplicateCheck.INDEX;
+
+    /**
+     * Bloom filter of registered emails, which lets duplicate checks skip the query for new emails.
+     */
+    private EmailFilter emailFilter = new EmailFilter();
+
+    /**
+     * Settings of the Bloom filter of registered emails.
+     */
+    @Data
+    public static class EmailFilter {
+
+        /**
+         * Whether duplicate checks consult the filter before querying MongoDB.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of registered emails the filter is sized for.
+         */
+        private long expectedEmails = 1_000_000;
+
+        /**
+         * False-positive rate of the filter once it holds {@link #expectedEmails} emails.
+         */
+        private double falsePositiveRate = 0.01;
+
+        /**
+         * Interval between two rebuilds from the {@code users} collection, which pick up emails registered
+         * through other instances and drop deleted ones. The first build runs at startup.
+         */
+        private Duration rebuildInterval = Duration.ofHours(6);
+
+        /**
+         * Number of emails fetched per cursor batch while building the filter.
+         */
+        private int scanBatchSize = 5000;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.usermanagement.config;
+
+import com.example.usermanagement.controller.ReactiveUserController;
+import com.example.usermanagement.controller.UserController;
+import com.example.usermanagement.service.NotificationDispatcher;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Keeps the beans that must not wait for their first use eager when {@code spring.main.lazy-initialization}
+ * is enabled, as it is by the {@code fast-startup} profile.
+ *
+ * The user controllers are created at startup with their dependencies, from the {@code UserService} and
+ * its caches to the repository, so that the first lookup is not slowed down by creating them. The
+ * {@link NotificationDispatcher} starts its workers and sweeps the outbox without waiting for a registration,
+ * and the {@link MongoIndexInitializer} builds the indexes before requests are accepted.
+ * Everything else, e.g. the bulk registration and export endpoints, is created on first use.
+ */
+@Configuration(proxyBeanMethods = false)
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(UserController.class, ReactiveUserController.class,
+                NotificationDispatcher.class, MongoIndexInitializer.class);
+    }
+}
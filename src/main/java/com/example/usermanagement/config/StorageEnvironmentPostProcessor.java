@@ -0,0 +1,49 @@
+package com.example.usermanagement.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Leaves MongoDB out of the application with the in-memory storage engine: its auto-configurations are
+ * added to {@code spring.autoconfigure.exclude}, so that no MongoDB client, template or repository is
+ * created and nothing tries to connect to a server. The beans that need MongoDB, such as the idempotency
+ * store or the notification outbox, are {@link ConditionalOnStorageEngine conditional on} the MongoDB engine.
+ *
+ * Registered in {@code META-INF/spring.factories}, as exclusions must be known before the auto-configurations
+ * are imported.
+ */
+public class StorageEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    private static final String EXCLUDE = "spring.autoconfigure.exclude";
+
+    private static final List<String> MONGO_AUTO_CONFIGURATIONS = List.of(
+            "org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.mongo.MongoRepositoriesAutoConfiguration",
+            "org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration");
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (StorageProperties.engine(environment) != StorageProperties.Engine.MEMORY) {
+            return;
+        }
+        // Replaces the property, so the exclusions already configured are kept
+        Set<String> excluded = new LinkedHashSet<>(Binder.get(environment)
+                .bind(EXCLUDE, Bindable.listOf(String.class))
+                .orElse(List.of()));
+        excluded.addAll(MONGO_AUTO_CONFIGURATIONS);
+        environment.getPropertySources().addFirst(new MapPropertySource("inMemoryStorage",
+                Map.of(EXCLUDE, String.join(",", excluded))));
+    }
+}
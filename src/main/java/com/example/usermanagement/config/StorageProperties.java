@@ -0,0 +1,59 @@
+package com.example.usermanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the storage engine of users.
+ * Bound from the {@code user.storage.*} keys in {@code application.properties}.
+ */
+@Data
+@ConfigurationProperties(prefix = "user.storage")
+public class StorageProperties {
+
+    /**
+     * The storage engines of users.
+     */
+    public enum Engine {
+        /**
+         * Users are stored in the MongoDB {@code users} collection.
+         */
+        MONGO,
+        /**
+         * Users are held in memory by the {@link com.example.usermanagement.repository.InMemoryUserRepository},
+         * optionally persisted to a snapshot file.
+         */
+        MEMORY
+    }
+
+    /**
+     * The storage engine, selected at startup.
+     */
+    private Engine engine = Engine.MONGO;
+
+    /**
+     * File the in-memory engine loads its users from at startup and writes them to periodically and
+     * on shutdown. Empty to keep users in memory only.
+     */
+    private String snapshotPath = "";
+
+    /**
+     * Interval between two snapshots of the in-memory engine. A snapshot is only written when users changed.
+     */
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+
+    /**
+     * Reads the storage engine from the environment before the properties are bound, e.g. in bean conditions.
+     * Like the binding of {@link #engine}, the value is case-insensitive.
+     *
+     * @param environment the environment holding {@code user.storage.engine}
+     * @return the configured engine, {@link Engine#MONGO} if none is
+     */
+    public static Engine engine(Environment environment) {
+        return Binder.get(environment).bind("user.storage.engine", Engine.class).orElse(Engine.MONGO);
+    }
+}
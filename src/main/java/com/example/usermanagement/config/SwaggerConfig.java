@@ -3,10 +3,16 @@ package com.example.usermanagement.config;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+/**
+ * Describes the API in the OpenAPI documentation served by springdoc. Skipped, like springdoc itself,
+ * when {@code springdoc.api-docs.enabled} is false, as in the {@code fast-startup} profile.
+ */
 @Configuration
+@ConditionalOnProperty(name = "springdoc.api-docs.enabled", matchIfMissing = true)
 public class SwaggerConfig {
 
     @Bean
@@ -0,0 +1,35 @@
+package com.example.usermanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the in-process user lookup cache.
+ * Bound from the {@code user.cache.*} keys in {@code application.properties}.
+ */
+@Data
+@ConfigurationProperties(prefix = "user.cache")
+public class UserCacheProperties {
+
+    /**
+     * Whether lookups by id are served from the cache.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of cached entries, found and not found combined.
+     */
+    private long maxEntries = 10_000;
+
+    /**
+     * How long a found user stays cached after it was loaded.
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /**
+     * How long an id that did not match any user stays cached.
+     */
+    private Duration negativeTtl = Duration.ofSeconds(10);
+}
@@ -0,0 +1,62 @@
+package com.example.usermanagement.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Adds CBOR as a binary alternative to JSON for request and response bodies.
+ *
+ * Clients opt in with {@code Content-Type: application/cbor} and {@code Accept: application/cbor};
+ * the CBOR converter is placed after the JSON converter, so JSON stays the default for any other
+ * {@code Accept} header. Its object mapper is built from the application's Jackson settings, so
+ * both formats map the same properties.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    /**
+     * Constructs the configuration.
+     *
+     * @param objectMapperBuilder the builder of the application's object mappers
+     */
+    @Autowired
+    public WireFormatConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        MappingJackson2CborHttpMessageConverter cbor = new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.getIfAvailable(Jackson2ObjectMapperBuilder::new).factory(new CBORFactory()).build());
+        // Spring MVC registers a CBOR converter with a default object mapper when CBOR is on the classpath
+        int existing = indexOf(converters, MappingJackson2CborHttpMessageConverter.class);
+        if (existing >= 0) {
+            converters.set(existing, cbor);
+            return;
+        }
+        int json = indexOf(converters, MappingJackson2HttpMessageConverter.class);
+        converters.add(json >= 0 ? json + 1 : converters.size(), cbor);
+    }
+
+    private static int indexOf(List<HttpMessageConverter<?>> converters, Class<?> type) {
+        for (int i = 0; i < converters.size(); i++) {
+            if (type.isInstance(converters.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.usermanagement.controller;
+
+import com.example.usermanagement.dto.UserRegistrationDTO;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.service.ReactiveUserService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive REST controller exposing the single-user {@code /users} routes of {@link UserController}:
+ * {@code POST /users/createUser} and {@code GET /users/getUserById/{id}}, the latter without conditional
+ * requests or field selection. The lookup by ids ({@code POST /users/getUsersByIds}), the listing
+ * ({@code GET /users}), bulk registration ({@code POST /users/bulkCreateUsers}) and the export
+ * ({@code GET /users/export}) are only served in the servlet mode.
+ * It is active when the application runs as a reactive web application
+ * ({@code spring.main.web-application-type=reactive}), in which case {@link UserController} is not.
+ * Validation and error mapping are shared with the servlet stack through
+ * {@link com.example.usermanagement.exception.GlobalExceptionHandler}.
+ */
+@RestController
+@RequestMapping("/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+
+    /**
+     * Constructs a ReactiveUserController with the given ReactiveUserService.
+     *
+     * @param userService The ReactiveUserService instance to manage user-related operations.
+     */
+    @Autowired
+    public ReactiveUserController(ReactiveUserService userService) {
+        this.userService = userService;
+    }
+
+    /**
+     * Registers a new user with the provided registration data.
+     *
+     * @param userDTO      The UserRegistrationDTO containing user details.
+     * @param notification The notification preference (default is "email").
+     * @return A Mono emitting a ResponseEntity with the created User object and a status of 201 (CREATED).
+     */
+    @PostMapping("/createUser")
+    public Mono<ResponseEntity<User>> registerUser(
+            @Valid @RequestBody UserRegistrationDTO userDTO,
+            @RequestParam(name = "notification", defaultValue = "email") String notification) {
+
+        User user = UserController.convertToUser(userDTO);
+        user.setNotificationPreference(notification);
+        return userService.registerUser(user)
+                .map(savedUser -> ResponseEntity.status(HttpStatus.CREATED).body(savedUser));
+    }
+
+    /**
+     * Retrieves a user by their ID.
+     *
+     * @param id The ID of the user to retrieve.
+     * @return A Mono emitting a ResponseEntity with the user object; a missing user is mapped to 404 (NOT FOUND).
+     */
+    @GetMapping("/getUserById/{id}")
+    public Mono<ResponseEntity<User>> getUserById(@PathVariable String id) {
+        return userService.getUserById(id).map(ResponseEntity::ok);
+    }
+}
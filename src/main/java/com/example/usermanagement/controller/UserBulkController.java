@@ -0,0 +1,227 @@
+package com.example.usermanagement.controller;
+
+import com.example.usermanagement.config.BulkRegistrationProperties;
+import com.example.usermanagement.dto.BulkRegistrationResponse;
+import com.example.usermanagement.dto.BulkRegistrationResult;
+import com.example.usermanagement.dto.UserRegistrationDTO;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.service.UserService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * REST controller for registering many users in a single request.
+ * Items are validated one by one and registered in chunks, so that duplicate checks and inserts
+ * cost two database round trips per chunk instead of two per user.
+ */
+@RestController
+@RequestMapping("/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserBulkController {
+
+    private final UserService userService;
+    private final Validator validator;
+    private final ObjectReader itemReader;
+    private final int chunkSize;
+    private final int maxItems;
+
+    /**
+     * Constructs a UserBulkController.
+     *
+     * @param userService  The UserService instance to register users with.
+     * @param validator    The bean validator applied to each registration item.
+     * @param objectMapper The ObjectMapper used to read request bodies.
+     * @param properties   The bulk registration settings.
+     */
+    @Autowired
+    public UserBulkController(UserService userService, Validator validator, ObjectMapper objectMapper,
+                              BulkRegistrationProperties properties) {
+        this.userService = userService;
+        this.validator = validator;
+        this.itemReader = objectMapper.readerFor(UserRegistrationDTO.class);
+        this.chunkSize = Math.max(1, properties.getChunkSize());
+        this.maxItems = Math.max(1, properties.getMaxItems());
+    }
+
+    /**
+     * Registers the users contained in a JSON array.
+     * The array is read item by item and rejected as soon as it exceeds {@code user.bulk.max-items} items,
+     * so an oversized body is not parsed in full. Nothing is registered unless the whole array is readable.
+     *
+     * @param body         The request body, a JSON array of registration items.
+     * @param notification The notification preference applied to every user (default is "email").
+     * @return A ResponseEntity containing one result per item and a status of 200 (OK).
+     * @throws ResponseStatusException with status 400 (Bad Request) if the body is not a JSON array of registration
+     *                                 items or has more than {@code user.bulk.max-items} items.
+     * @throws IOException If the body cannot be read.
+     */
+    @PostMapping(value = "/bulkCreateUsers", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkRegistrationResponse> registerUsers(
+            InputStream body,
+            @RequestParam(name = "notification", defaultValue = "email") String notification) throws IOException {
+        List<UserRegistrationDTO> userDTOs = new ArrayList<>();
+        try (JsonParser parser = itemReader.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Expected a JSON array of users");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (userDTOs.size() == maxItems) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "At most " + maxItems + " users can be registered per request");
+                }
+                userDTOs.add(itemReader.readValue(parser));
+            }
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed JSON: " + e.getOriginalMessage());
+        }
+        Registration registration = new Registration(notification);
+        userDTOs.forEach(registration::add);
+        return ResponseEntity.ok(registration.finish());
+    }
+
+    /**
+     * Registers the users contained in a newline-delimited JSON stream.
+     * The body is read incrementally, so only one chunk of items is held in memory at a time.
+     *
+     * Reading stops at a malformed line, which is reported as an invalid item, or after {@code user.bulk.max-items}
+     * items. The chunks before that point are registered and reported as usual, and the response is marked truncated.
+     *
+     * @param body         The request body, one registration item per line.
+     * @param notification The notification preference applied to every user (default is "email").
+     * @return A ResponseEntity containing one result per item read and a status of 200 (OK).
+     * @throws IOException If the body cannot be read.
+     */
+    @PostMapping(value = "/bulkCreateUsers", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkRegistrationResponse> registerUsersStream(
+            InputStream body,
+            @RequestParam(name = "notification", defaultValue = "email") String notification) throws IOException {
+        Registration registration = new Registration(notification);
+        try (MappingIterator<UserRegistrationDTO> userDTOs = itemReader.readValues(body)) {
+            while (userDTOs.hasNextValue()) {
+                if (registration.count() == maxItems) {
+                    registration.truncate(Map.of("body", "At most " + maxItems + " users can be registered per request"));
+                    break;
+                }
+                registration.add(userDTOs.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            registration.truncate(Map.of("body", "Malformed JSON: " + e.getOriginalMessage()));
+        }
+        return ResponseEntity.ok(registration.finish());
+    }
+
+    /**
+     * Validates items one by one and registers the valid ones chunk by chunk.
+     */
+    private final class Registration {
+
+        private final String notification;
+        private final BulkRegistrationResponse response = new BulkRegistrationResponse();
+        private List<User> chunk = new ArrayList<>(chunkSize);
+        private List<Integer> chunkIndexes = new ArrayList<>(chunkSize);
+        private int index;
+
+        Registration(String notification) {
+            this.notification = notification;
+        }
+
+        /**
+         * Returns the number of items added so far.
+         */
+        int count() {
+            return index;
+        }
+
+        /**
+         * Validates an item and queues it for registration, registering the chunk once it is full.
+         */
+        void add(UserRegistrationDTO dto) {
+            if (dto == null) {
+                reject(null, Map.of("item", "must not be null"));
+                return;
+            }
+            Set<ConstraintViolation<UserRegistrationDTO>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                reject(dto.getEmail(), toErrors(violations));
+                return;
+            }
+            User user = UserController.convertToUser(dto);
+            user.setNotificationPreference(notification);
+            chunk.add(user);
+            chunkIndexes.add(index++);
+            if (chunk.size() == chunkSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Records the item at the current position as unreadable and marks the response truncated.
+         */
+        void truncate(Map<String, String> errors) {
+            reject(null, errors);
+            response.setTruncated(true);
+        }
+
+        /**
+         * Registers the last chunk and returns the results in request order.
+         */
+        BulkRegistrationResponse finish() {
+            flush();
+            response.getResults().sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+            return response;
+        }
+
+        private void reject(String email, Map<String, String> errors) {
+            BulkRegistrationResult result = BulkRegistrationResult.invalid(email, errors);
+            result.setIndex(index++);
+            response.add(result);
+        }
+
+        /**
+         * Registers the pending chunk and records its results.
+         */
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<BulkRegistrationResult> results = userService.registerUsers(chunk);
+            for (int i = 0; i < results.size(); i++) {
+                BulkRegistrationResult result = results.get(i);
+                result.setIndex(chunkIndexes.get(i));
+                response.add(result);
+            }
+            chunk = new ArrayList<>(chunkSize);
+            chunkIndexes = new ArrayList<>(chunkSize);
+        }
+    }
+
+    /**
+     * Collects validation messages keyed by field name.
+     */
+    private static Map<String, String> toErrors(Set<ConstraintViolation<UserRegistrationDTO>> violations) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        violations.forEach(violation -> errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+        return errors;
+    }
+}
@@ -1,34 +1,68 @@
 package com.example.usermanagement.controller;
 
+import com.example.usermanagement.config.ListingProperties;
+import com.example.usermanagement.config.LookupProperties;
+import com.example.usermanagement.dto.ApiError;
+import com.example.usermanagement.dto.UserBatch;
+import com.example.usermanagement.dto.UserCursor;
+import com.example.usermanagement.dto.UserPage;
 import com.example.usermanagement.dto.UserRegistrationDTO;
+import com.example.usermanagement.dto.UserSearchCriteria;
+import com.example.usermanagement.dto.UserView;
 import com.example.usermanagement.model.User;
 import com.example.usermanagement.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * REST controller for managing user-related operations such as registration and retrieval.
  * This controller provides endpoints to register a new user and retrieve a user by their ID.
+ * It is active in the servlet mode; in the reactive mode {@link ReactiveUserController} serves only the registration
+ * and the lookup by ID, and the routes of this controller, {@link UserBulkController} and {@link UserExportController}
+ * are not available.
  */
 @RestController
 @RequestMapping("/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserController {
 
+    /**
+     * Clients may keep a user, but must revalidate it with its ETag before every use.
+     */
+    private static final CacheControl USER_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private static final ResponseEntity<ApiError> USER_NOT_FOUND = ApiError.response(HttpStatus.NOT_FOUND, "User not found");
+
     private final UserService userService;
+    private final ListingProperties listingProperties;
+    private final LookupProperties lookupProperties;
 
     /**
      * Constructs a UserController with the given UserService.
      *
-     * @param userService The UserService instance to manage user-related operations.
+     * @param userService       The UserService instance to manage user-related operations.
+     * @param listingProperties The page size settings of the user listing.
+     * @param lookupProperties  The batch size settings of batch lookups.
      */
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ListingProperties listingProperties,
+                          LookupProperties lookupProperties) {
         this.userService = userService;
+        this.listingProperties = listingProperties;
+        this.lookupProperties = lookupProperties;
     }
 
     /**
@@ -51,17 +85,113 @@ public class UserController {
 
     /**
      * Retrieves a user by their ID.
+     * The returned fields can be restricted with a comma-separated {@code fields} list
+     * and/or the named {@code view=summary} projection (id, name and notification preference).
+     *
+     * The full user is returned with a strong {@code ETag} derived from its id, its version and the wire format
+     * (JSON or CBOR) negotiated from the {@code Accept} header, with {@code Vary: Accept}. A request whose
+     * {@code If-None-Match} header matches the current tag is answered with 304 (NOT MODIFIED),
+     * checking only the version rather than loading and serializing the user.
      *
-     * @param id The ID of the user to retrieve.
+     * @param id          The ID of the user to retrieve.
+     * @param fields      The optional comma-separated list of fields to return.
+     * @param view        The optional name of a named projection.
+     * @param ifNoneMatch The optional entity tags the client already holds.
+     * @param accept      The optional media types the client accepts.
      * @return A ResponseEntity containing the user object if found, otherwise returns a 404 (NOT FOUND) with an error message.
      */
     @GetMapping("/getUserById/{id}")
-    public ResponseEntity<?> getUserById(@PathVariable String id) {
+    public ResponseEntity<?> getUserById(
+            @PathVariable String id,
+            @RequestParam(name = "fields", required = false) String fields,
+            @RequestParam(name = "view", required = false) String view,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        Set<String> selectedFields;
+        try {
+            selectedFields = UserView.resolveFields(fields, view);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (selectedFields != null) {
+            return ResponseEntity.ok(userService.getUserView(id, selectedFields));
+        }
+
+        MediaType format = wireFormat(accept);
+        if (ifNoneMatch != null) {
+            String eTag = eTag(id, userService.getUserVersion(id), format);
+            if (matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(eTag)
+                        .cacheControl(USER_CACHE_CONTROL)
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .build();
+            }
+        }
         Optional<User> user = Optional.ofNullable(userService.getUserById(id));
         if (user.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
+            return USER_NOT_FOUND;
+        }
+        Long version = user.get().getVersion();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(eTag(id, version == null ? 0L : version, format))
+                .cacheControl(USER_CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT);
+        if (format != null) {
+            // Fixed, so that the body is always written in the format its entity tag names
+            response.contentType(format);
+        }
+        return response.body(user.get());
+    }
+
+    /**
+     * Retrieves many users by their IDs in one call, e.g. to resolve the authors of a page of content.
+     * The users are returned in the order of the requested ids; ids that do not match any user are
+     * listed in {@code missingIds} instead of failing the request.
+     *
+     * @param ids The IDs of the users to retrieve, at most {@code user.lookup.max-batch-size}.
+     * @return A ResponseEntity containing the users found and the missing ids.
+     */
+    @PostMapping("/getUsersByIds")
+    public ResponseEntity<UserBatch> getUsersByIds(@RequestBody List<String> ids) {
+        if (ids.size() > lookupProperties.getMaxBatchSize()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + lookupProperties.getMaxBatchSize() + " ids can be requested at once");
+        }
+        for (String id : ids) {
+            if (id == null || id.isBlank()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids must not be blank");
+            }
+        }
+        return ResponseEntity.ok(userService.getUsersByIds(ids));
+    }
+
+    /**
+     * Lists users matching the optional filters, newest registration first.
+     * Pages are chained through the opaque {@code cursor} returned with each page.
+     *
+     * @param criteria The optional filters (country, notificationPreference, minAge, maxAge, registeredFrom, registeredTo).
+     * @param cursor   The cursor returned with the previous page, omitted for the first page.
+     * @param limit    The page size, capped by {@code user.listing.max-page-size}.
+     * @return A ResponseEntity containing the page and the cursor of the next page.
+     */
+    @GetMapping
+    public ResponseEntity<UserPage> listUsers(
+            @ModelAttribute UserSearchCriteria criteria,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", required = false) Integer limit) {
+        UserCursor after;
+        try {
+            after = cursor == null ? null : UserCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        int pageSize = limit == null ? listingProperties.getDefaultPageSize() : limit;
+        if (pageSize < 1 || pageSize > listingProperties.getMaxPageSize()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + listingProperties.getMaxPageSize());
         }
-        return ResponseEntity.ok(user.get());
+        return ResponseEntity.ok(userService.listUsers(criteria, after, pageSize));
     }
 
     /**
@@ -70,7 +200,7 @@ public class UserController {
      * @param dto The UserRegistrationDTO to convert.
      * @return A User entity with the corresponding details from the DTO.
      */
-    private User convertToUser(UserRegistrationDTO dto) {
+    static User convertToUser(UserRegistrationDTO dto) {
         User user = new User();
         user.setName(dto.getName());
         user.setAge(dto.getAge());
@@ -79,4 +209,71 @@ public class UserController {
         user.setPhone(dto.getPhone());
         return user;
     }
+
+    /**
+     * Builds the strong entity tag of a user representation.
+     *
+     * @param id      The ID of the user.
+     * @param version The version of the user.
+     * @param format  The wire format of the representation, {@code null} standing for JSON.
+     * @return The quoted entity tag.
+     */
+    static String eTag(String id, long version, MediaType format) {
+        String suffix = MediaType.APPLICATION_CBOR.equals(format) ? "cbor" : "json";
+        return "\"" + id + "-" + version + "-" + suffix + "\"";
+    }
+
+    /**
+     * Chooses the wire format of a user the way content negotiation does with the JSON converter ahead of
+     * the CBOR one: CBOR only if the client prefers it to JSON.
+     *
+     * @param accept The {@code Accept} header, may be {@code null}.
+     * @return JSON or CBOR, or {@code null} if the client accepts neither, which content negotiation rejects.
+     */
+    static MediaType wireFormat(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        double json = 0;
+        double cbor = 0;
+        for (MediaType type : accepted) {
+            if (type.includes(MediaType.APPLICATION_JSON)) {
+                json = Math.max(json, type.getQualityValue());
+            }
+            if (type.includes(MediaType.APPLICATION_CBOR)) {
+                cbor = Math.max(cbor, type.getQualityValue());
+            }
+        }
+        if (cbor > json) {
+            return MediaType.APPLICATION_CBOR;
+        }
+        return json > 0 ? MediaType.APPLICATION_JSON : null;
+    }
+
+    /**
+     * Tells whether an {@code If-None-Match} header matches an entity tag, using the weak comparison
+     * required for that header.
+     *
+     * @param ifNoneMatch The header value: {@code *} or a comma-separated list of entity tags.
+     * @param eTag        The current entity tag.
+     * @return {@code true} if the client's copy is current.
+     */
+    static boolean matches(String ifNoneMatch, String eTag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
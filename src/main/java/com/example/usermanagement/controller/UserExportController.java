@@ -0,0 +1,88 @@
+package com.example.usermanagement.controller;
+
+import com.example.usermanagement.config.ExportProperties;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * REST controller exporting the whole user collection as newline-delimited JSON.
+ *
+ * Users are read from a MongoDB cursor and written straight to the response output stream, one
+ * JSON document per line, so heap use does not grow with the size of the collection. Users are
+ * exported in ascending id order; an interrupted export is resumed by passing the id of the last
+ * received line as {@code afterId}.
+ */
+@RestController
+@RequestMapping("/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserExportController {
+
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final ExportProperties exportProperties;
+
+    /**
+     * Constructs a UserExportController.
+     *
+     * @param userService      The UserService instance to read users from.
+     * @param objectMapper     The ObjectMapper used to write each user.
+     * @param exportProperties The export settings.
+     */
+    @Autowired
+    public UserExportController(UserService userService, ObjectMapper objectMapper, ExportProperties exportProperties) {
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.exportProperties = exportProperties;
+    }
+
+    /**
+     * Streams all users as NDJSON.
+     *
+     * @param afterId   Resume after this user id, omitted to export from the beginning.
+     * @param batchSize The MongoDB cursor batch size, capped by {@code user.export.max-batch-size}.
+     * @param gzip      Whether to gzip-compress the response body.
+     * @param response  The servlet response the users are written to.
+     * @throws IOException If writing to the client fails.
+     */
+    @GetMapping("/export")
+    public void exportUsers(
+            @RequestParam(name = "afterId", required = false) String afterId,
+            @RequestParam(name = "batchSize", required = false) Integer batchSize,
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        int cursorBatchSize = batchSize == null ? exportProperties.getBatchSize() : batchSize;
+        if (cursorBatchSize < 1 || cursorBatchSize > exportProperties.getMaxBatchSize()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "batchSize must be between 1 and " + exportProperties.getMaxBatchSize());
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        OutputStream body = gzip ? new GZIPOutputStream(response.getOutputStream(), 8192) : response.getOutputStream();
+        try (Stream<User> users = userService.streamUsers(afterId, cursorBatchSize);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(body)) {
+            for (User user : (Iterable<User>) users::iterator) {
+                generator.writeObject(user);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.usermanagement.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Body of an error response, e.g. {@code {"status":404,"error":"Not Found","message":"User not found with ID: 42"}}.
+ *
+ * Errors whose message does not vary are built once with {@link #response(HttpStatus, String)}
+ * and returned as they are on every occurrence.
+ *
+ * @param status  the HTTP status code
+ * @param error   the reason phrase of the status
+ * @param message the description of the error
+ */
+public record ApiError(int status, String error, String message) {
+
+    /**
+     * Creates the error body for a status.
+     *
+     * @param status  the HTTP status
+     * @param message the description of the error
+     * @return the error body
+     */
+    public static ApiError of(HttpStatus status, String message) {
+        return new ApiError(status.value(), status.getReasonPhrase(), message);
+    }
+
+    /**
+     * Creates a complete error response, typically kept in a constant.
+     *
+     * @param status  the HTTP status
+     * @param message the description of the error
+     * @return the error response
+     */
+    public static ResponseEntity<ApiError> response(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(of(status, message));
+    }
+}
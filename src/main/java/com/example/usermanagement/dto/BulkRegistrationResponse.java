@@ -0,0 +1,40 @@
+package com.example.usermanagement.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response body of the bulk registration endpoint.
+ * Holds the per-item results in request order together with summary counters.
+ * When an NDJSON body could not be read to the end, because of a malformed line or because it has
+ * more items than allowed, {@code truncated} is set and the results cover the items up to that point.
+ */
+@Data
+public class BulkRegistrationResponse {
+
+    private int created;
+
+    private int duplicates;
+
+    private int invalid;
+
+    private boolean truncated;
+
+    private List<BulkRegistrationResult> results = new ArrayList<>();
+
+    /**
+     * Appends an item result and updates the summary counters.
+     *
+     * @param result The result to append.
+     */
+    public void add(BulkRegistrationResult result) {
+        switch (result.getStatus()) {
+            case CREATED -> created++;
+            case DUPLICATE -> duplicates++;
+            case INVALID -> invalid++;
+        }
+        results.add(result);
+    }
+}
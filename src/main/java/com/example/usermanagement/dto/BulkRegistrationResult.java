@@ -0,0 +1,84 @@
+package com.example.usermanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Outcome of a single item of a bulk registration request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkRegistrationResult {
+
+    /**
+     * Possible outcomes of a bulk registration item.
+     */
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+
+    /**
+     * Zero-based position of the item in the request body.
+     */
+    private int index;
+
+    /**
+     * The outcome of the registration.
+     */
+    private Status status;
+
+    /**
+     * The identifier of the created user, present only when the status is {@link Status#CREATED}.
+     */
+    private String id;
+
+    /**
+     * The email address submitted for this item.
+     */
+    private String email;
+
+    /**
+     * Field-specific validation errors, present only when the status is {@link Status#INVALID}.
+     */
+    private Map<String, String> errors;
+
+    /**
+     * Creates a result for a user that was stored successfully.
+     *
+     * @param id    The identifier of the created user.
+     * @param email The email address of the created user.
+     * @return The created result.
+     */
+    public static BulkRegistrationResult created(String id, String email) {
+        return new BulkRegistrationResult(0, Status.CREATED, id, email, null);
+    }
+
+    /**
+     * Creates a result for a user whose email is already registered or repeated in the request.
+     *
+     * @param email The conflicting email address.
+     * @return The duplicate result.
+     */
+    public static BulkRegistrationResult duplicate(String email) {
+        return new BulkRegistrationResult(0, Status.DUPLICATE, null, email, null);
+    }
+
+    /**
+     * Creates a result for an item that failed bean validation.
+     *
+     * @param email  The submitted email address.
+     * @param errors The field-specific validation errors.
+     * @return The invalid result.
+     */
+    public static BulkRegistrationResult invalid(String email, Map<String, String> errors) {
+        return new BulkRegistrationResult(0, Status.INVALID, null, email, errors);
+    }
+}
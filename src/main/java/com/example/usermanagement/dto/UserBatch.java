@@ -0,0 +1,27 @@
+package com.example.usermanagement.dto;
+
+import com.example.usermanagement.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of a batch lookup of users by id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatch {
+
+    /**
+     * The users found, in the order their ids were requested.
+     */
+    private List<User> users;
+
+    /**
+     * The requested ids that did not match any user, in request order.
+     */
+    private List<String> missingIds;
+}
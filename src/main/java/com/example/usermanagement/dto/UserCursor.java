@@ -0,0 +1,59 @@
+package com.example.usermanagement.dto;
+
+import com.example.usermanagement.model.User;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the user listing, i.e. the sort key of the last user of a page.
+ * The listing is ordered by {@code registrationDate} and then {@code id}, both descending,
+ * and the next page starts strictly after this position.
+ *
+ * @param registrationDate the registration date of the last user of the page
+ * @param id               the identifier of the last user of the page
+ */
+public record UserCursor(LocalDateTime registrationDate, String id) {
+
+    /**
+     * Creates the cursor pointing after the given user.
+     *
+     * @param user the last user of a page
+     * @return the cursor
+     */
+    public static UserCursor after(User user) {
+        return new UserCursor(user.getRegistrationDate(), user.getId());
+    }
+
+    /**
+     * Encodes the cursor as an opaque, URL-safe token.
+     *
+     * @return the token
+     */
+    public String encode() {
+        String raw = registrationDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token created by {@link #encode()}.
+     *
+     * @param token the token
+     * @return the cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static UserCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new UserCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.usermanagement.dto;
+
+import com.example.usermanagement.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the user listing.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPage {
+
+    /**
+     * The users of this page, newest registration first.
+     */
+    private List<User> items;
+
+    /**
+     * The cursor to pass to fetch the next page, or {@code null} if this is the last page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,48 @@
+package com.example.usermanagement.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters of the user listing. All filters are optional and combined with AND.
+ * Ranges are inclusive.
+ */
+@Data
+@NoArgsConstructor
+public class UserSearchCriteria {
+
+    /**
+     * Exact country match.
+     */
+    private String country;
+
+    /**
+     * Exact notification preference match.
+     */
+    private String notificationPreference;
+
+    /**
+     * Minimum age.
+     */
+    private Integer minAge;
+
+    /**
+     * Maximum age.
+     */
+    private Integer maxAge;
+
+    /**
+     * Earliest registration date, in ISO-8601 format.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime registeredFrom;
+
+    /**
+     * Latest registration date, in ISO-8601 format.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime registeredTo;
+}
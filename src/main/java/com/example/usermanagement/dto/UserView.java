@@ -0,0 +1,99 @@
+package com.example.usermanagement.dto;
+
+import com.example.usermanagement.model.User;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A partial view of a {@link User}, holding only the fields selected by the caller.
+ * Fields that were not selected stay {@code null} and are omitted from the JSON output.
+ *
+ * It is also the target type of the MongoDB projection queries, so that unselected fields are
+ * neither transferred from the database nor given the defaults that {@link User} assigns.
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserView {
+
+    /**
+     * The fields that can be selected, by their {@link User} property name.
+     */
+    public static final Set<String> FIELDS = Set.of(
+            "id", "name", "age", "country", "email", "phone", "notificationPreference", "registrationDate");
+
+    /**
+     * The fields of the named {@code summary} projection.
+     */
+    public static final Set<String> SUMMARY = Set.of("id", "name", "notificationPreference");
+
+    private String id;
+    private String name;
+    private Integer age;
+    private String country;
+    private String email;
+    private String phone;
+    private String notificationPreference;
+    private LocalDateTime registrationDate;
+
+    /**
+     * Resolves the selected fields from the request parameters.
+     *
+     * @param fields a comma-separated list of field names, may be {@code null}
+     * @param view   the name of a named projection (only {@code summary} is defined), may be {@code null}
+     * @return the selected fields, or {@code null} if neither parameter was given
+     * @throws IllegalArgumentException if a field or view name is unknown, or {@code fields} names no field
+     */
+    public static Set<String> resolveFields(String fields, String view) {
+        Set<String> selected = null;
+        if (view != null) {
+            if (!"summary".equals(view)) {
+                throw new IllegalArgumentException("Unknown view: " + view);
+            }
+            selected = new LinkedHashSet<>(SUMMARY);
+        }
+        if (fields != null) {
+            List<String> names = Arrays.stream(fields.split(",")).map(String::trim).filter(name -> !name.isEmpty()).toList();
+            if (names.isEmpty()) {
+                throw new IllegalArgumentException("No fields selected");
+            }
+            for (String name : names) {
+                if (!FIELDS.contains(name)) {
+                    throw new IllegalArgumentException("Unknown field: " + name);
+                }
+            }
+            if (selected == null) {
+                selected = new LinkedHashSet<>();
+            }
+            selected.addAll(names);
+        }
+        return selected;
+    }
+
+    /**
+     * Copies the selected fields of a fully loaded user.
+     *
+     * @param user   the user to copy from
+     * @param fields the fields to copy
+     * @return the view
+     */
+    public static UserView of(User user, Set<String> fields) {
+        UserView view = new UserView();
+        if (fields.contains("id")) view.setId(user.getId());
+        if (fields.contains("name")) view.setName(user.getName());
+        if (fields.contains("age")) view.setAge(user.getAge());
+        if (fields.contains("country")) view.setCountry(user.getCountry());
+        if (fields.contains("email")) view.setEmail(user.getEmail());
+        if (fields.contains("phone")) view.setPhone(user.getPhone());
+        if (fields.contains("notificationPreference")) view.setNotificationPreference(user.getNotificationPreference());
+        if (fields.contains("registrationDate")) view.setRegistrationDate(user.getRegistrationDate());
+        return view;
+    }
+}
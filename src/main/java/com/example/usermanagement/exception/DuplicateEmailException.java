@@ -3,6 +3,8 @@ package com.example.usermanagement.exception;
 /**
  * Exception thrown when attempting to register a user with an email
  * that already exists in the system.
+ *
+ * A taken email is an expected outcome, so the exception does not capture a stack trace.
  */
 public class DuplicateEmailException extends RuntimeException {
 
@@ -12,6 +14,6 @@ public class DuplicateEmailException extends RuntimeException {
      * @param message The detail message indicating the email conflict.
      */
     public DuplicateEmailException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
\ No newline at end of file
@@ -1,22 +1,62 @@
 package com.example.usermanagement.exception;
 
+import com.example.usermanagement.dto.ApiError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Global exception handler to manage exceptions across the application.
  * This class uses @ControllerAdvice to handle various types of exceptions
  * globally and provide appropriate error responses to the client.
+ * The same handlers apply to the servlet and to the reactive controllers.
+ *
+ * Errors are reported as an {@link ApiError}, except validation errors, which map each field to its message.
+ * The handlers avoid per-request work that rejected traffic does not need: the domain exceptions are
+ * created without stack traces, and fixed responses are built once. Malformed requests rejected by Spring MVC
+ * itself, e.g. unreadable JSON or an unsupported content type, get their 4xx status and are not logged as errors.
  */
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    private static final ResponseEntity<ApiError> UNEXPECTED_ERROR =
+            ApiError.response(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred");
+    private static final ResponseEntity<ApiError> MALFORMED_BODY =
+            ApiError.response(HttpStatus.BAD_REQUEST, "Malformed request body");
+    private static final ResponseEntity<ApiError> INVALID_PARAMETER =
+            ApiError.response(HttpStatus.BAD_REQUEST, "Invalid request parameter");
+    private static final ResponseEntity<ApiError> UNSUPPORTED_MEDIA_TYPE =
+            ApiError.response(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Unsupported content type");
+    private static final ResponseEntity<ApiError> NOT_ACCEPTABLE =
+            ApiError.response(HttpStatus.NOT_ACCEPTABLE, "No acceptable representation");
+
+    /**
+     * Responses to the other request errors raised by Spring MVC, by status, built on first use.
+     */
+    private static final Map<Integer, ResponseEntity<ApiError>> REQUEST_ERRORS = new ConcurrentHashMap<>();
+
     /**
      * Handles validation exceptions when input data is not valid.
      * This handler captures errors that occur during the validation of request parameters or bodies.
@@ -27,12 +67,20 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(
             MethodArgumentNotValidException ex) {
-        Map<String, String> errors = new HashMap<>();
-        // Collecting field-specific validation error messages
-        ex.getBindingResult().getFieldErrors().forEach(error ->
-                errors.put(error.getField(), error.getDefaultMessage()));
-        // Returning a bad request response with the validation errors
-        return ResponseEntity.badRequest().body(errors);
+        return validationErrors(ex.getBindingResult());
+    }
+
+    /**
+     * Handles validation exceptions raised by the reactive controllers.
+     * The response has the same shape as for {@link MethodArgumentNotValidException}.
+     *
+     * @param ex The exception containing validation errors.
+     * @return A ResponseEntity with a map of field names and validation error messages.
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, String>> handleReactiveValidationExceptions(
+            WebExchangeBindException ex) {
+        return validationErrors(ex.getBindingResult());
     }
 
     /**
@@ -43,22 +91,131 @@ public class GlobalExceptionHandler {
      * @return A ResponseEntity with a NOT_FOUND status and the exception message.
      */
     @ExceptionHandler(UserNotFoundException.class)
-    public ResponseEntity<String> handleUserNotFound(UserNotFoundException ex) {
-        // Returning a not found response with the user not found message
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    public ResponseEntity<ApiError> handleUserNotFound(UserNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiError.of(HttpStatus.NOT_FOUND, ex.getMessage()));
+    }
+
+    /**
+     * Handles registrations with an email that is already taken.
+     *
+     * @param ex The exception containing the error message.
+     * @return A ResponseEntity with a CONFLICT status and the exception message.
+     */
+    @ExceptionHandler(DuplicateEmailException.class)
+    public ResponseEntity<ApiError> handleDuplicateEmail(DuplicateEmailException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiError.of(HttpStatus.CONFLICT, ex.getMessage()));
+    }
+
+    /**
+     * Handles exceptions that carry their own HTTP status, such as rejected request parameters.
+     *
+     * @param ex The exception carrying the status and reason.
+     * @return A ResponseEntity with the exception's status and reason.
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ApiError> handleResponseStatusException(ResponseStatusException ex) {
+        HttpStatus status = HttpStatus.resolve(ex.getStatusCode().value());
+        ApiError body = status != null
+                ? ApiError.of(status, ex.getReason())
+                : new ApiError(ex.getStatusCode().value(), null, ex.getReason());
+        return ResponseEntity.status(ex.getStatusCode()).body(body);
+    }
+
+    /**
+     * Handles request bodies that cannot be read, e.g. malformed JSON.
+     *
+     * @param ex The exception raised by the message converter.
+     * @return A ResponseEntity with a BAD_REQUEST status.
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ApiError> handleMessageNotReadable(HttpMessageNotReadableException ex) {
+        log.debug("Rejected an unreadable request body: {}", ex.getMessage());
+        return MALFORMED_BODY;
+    }
+
+    /**
+     * Handles path variables and request parameters that cannot be converted to their type.
+     *
+     * @param ex The exception raised by the conversion.
+     * @return A ResponseEntity with a BAD_REQUEST status.
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ApiError> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        return INVALID_PARAMETER;
+    }
+
+    /**
+     * Handles request bodies of a content type that the endpoint does not consume.
+     *
+     * @param ex The exception listing the supported media types.
+     * @return A ResponseEntity with an UNSUPPORTED_MEDIA_TYPE status and the {@code Accept} header of the supported types.
+     */
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<ApiError> handleMediaTypeNotSupported(HttpMediaTypeNotSupportedException ex) {
+        return withHeaders(UNSUPPORTED_MEDIA_TYPE, ex.getHeaders());
+    }
+
+    /**
+     * Handles requests whose {@code Accept} header matches none of the representations of the endpoint.
+     *
+     * @param ex The exception raised by the content negotiation.
+     * @return A ResponseEntity with a NOT_ACCEPTABLE status.
+     */
+    @ExceptionHandler(HttpMediaTypeNotAcceptableException.class)
+    public ResponseEntity<ApiError> handleMediaTypeNotAcceptable(HttpMediaTypeNotAcceptableException ex) {
+        return NOT_ACCEPTABLE;
     }
 
     /**
      * Handles generic exceptions that are not caught by other specific handlers.
-     * This handler ensures that an unexpected exception will still return a response to the client.
+     * The other request errors raised by Spring MVC, e.g. an unsupported method or an unknown path, are answered
+     * with their own status and without logging a stack trace. Any other exception is logged with its stack trace;
+     * the client gets a fixed response that does not expose its details.
      *
      * @param ex The generic exception that was thrown.
-     * @return A ResponseEntity with an INTERNAL_SERVER_ERROR status and a generic error message.
+     * @return A ResponseEntity with the status of a request error, otherwise INTERNAL_SERVER_ERROR and a generic error message.
      */
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<String> handleGenericException(Exception ex) {
-        // Returning a generic error response with the exception message
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body("An unexpected error occurred: " + ex.getMessage());
+    public ResponseEntity<ApiError> handleGenericException(Exception ex) {
+        if (ex instanceof ErrorResponse errorResponse && errorResponse.getStatusCode().is4xxClientError()) {
+            HttpStatusCode statusCode = errorResponse.getStatusCode();
+            ResponseEntity<ApiError> response = REQUEST_ERRORS.computeIfAbsent(statusCode.value(), status -> {
+                HttpStatus resolved = HttpStatus.resolve(status);
+                return ResponseEntity.status(statusCode).body(resolved != null
+                        ? ApiError.of(resolved, resolved.getReasonPhrase())
+                        : new ApiError(status, null, null));
+            });
+            return withHeaders(response, errorResponse.getHeaders());
+        }
+        log.error("Unexpected error while handling a request", ex);
+        return UNEXPECTED_ERROR;
+    }
+
+    /**
+     * Adds headers, such as {@code Allow} or {@code Accept}, to a prebuilt response.
+     */
+    private static ResponseEntity<ApiError> withHeaders(ResponseEntity<ApiError> response, HttpHeaders headers) {
+        if (headers.isEmpty()) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode()).headers(headers).body(response.getBody());
+    }
+
+    /**
+     * Builds a bad request response from the field errors of a binding result.
+     *
+     * @param bindingResult The binding result holding the validation errors.
+     * @return A ResponseEntity with a map of field names and validation error messages.
+     */
+    private ResponseEntity<Map<String, String>> validationErrors(BindingResult bindingResult) {
+        List<FieldError> fieldErrors = bindingResult.getFieldErrors();
+        // Sized up front so that the map never rehashes
+        Map<String, String> errors = new HashMap<>((int) (fieldErrors.size() / 0.75f) + 1);
+        // Collecting field-specific validation error messages
+        for (FieldError error : fieldErrors) {
+            errors.put(error.getField(), error.getDefaultMessage());
+        }
+        // Returning a bad request response with the validation errors
+        return ResponseEntity.badRequest().body(errors);
     }
 }
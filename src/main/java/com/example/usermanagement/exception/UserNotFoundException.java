@@ -4,6 +4,9 @@ package com.example.usermanagement.exception;
  * Custom exception class to represent the scenario when a user is not found.
  * This exception is thrown when a user could not be located in the system
  * based on the provided identifier (e.g., user ID).
+ *
+ * Not finding a user is an expected outcome, so the exception does not capture a stack trace,
+ * which would dominate its cost.
  */
 public class UserNotFoundException extends RuntimeException {
 
@@ -14,6 +17,6 @@ public class UserNotFoundException extends RuntimeException {
      * @param message The error message that provides details about the exception.
      */
     public UserNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
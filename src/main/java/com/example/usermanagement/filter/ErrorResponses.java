@@ -0,0 +1,52 @@
+package com.example.usermanagement.filter;
+
+import com.example.usermanagement.dto.ApiError;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link ApiError} responses from filters, which run outside of the exception handlers.
+ * Bodies are serialized once, when a filter is loaded, and then written as bytes.
+ */
+final class ErrorResponses {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ErrorResponses() {
+    }
+
+    /**
+     * Serializes an error body.
+     *
+     * @param status  the HTTP status
+     * @param message the description of the error
+     * @return the JSON body
+     */
+    static byte[] body(HttpStatus status, String message) {
+        try {
+            return MAPPER.writeValueAsBytes(ApiError.of(status, message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes an error response.
+     *
+     * @param response the response to write to
+     * @param status   the HTTP status
+     * @param body     the JSON body, see {@link #body(HttpStatus, String)}
+     * @throws IOException if the body cannot be written
+     */
+    static void write(HttpServletResponse response, HttpStatus status, byte[] body) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.usermanagement.filter;
+
+import com.example.usermanagement.config.ConditionalOnStorageEngine;
+import com.example.usermanagement.config.StorageProperties;
+import com.example.usermanagement.model.IdempotencyRecord;
+import com.example.usermanagement.service.IdempotencyStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Deduplicates retried registrations that carry an {@code Idempotency-Key} header.
+ *
+ * The first request with a key is processed normally and its response is recorded in the
+ * {@link IdempotencyStore}. Later requests with the same key get the recorded response replayed,
+ * marked with an {@code Idempotent-Replayed} header, without parsing, validating or storing the
+ * request again. Server errors are not recorded, so a request that failed with one can be retried.
+ *
+ * A key that is still being processed is answered with 409 Conflict, and a key reused for a
+ * different request (method, path, query or body) with 422 Unprocessable Entity.
+ */
+@Component
+@ConditionalOnProperty(name = "user.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnStorageEngine(StorageProperties.Engine.MONGO)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    /**
+     * The request header carrying the idempotency key.
+     */
+    public static final String HEADER = "Idempotency-Key";
+
+    /**
+     * The response header marking a replayed response.
+     */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String PATH = "/users/createUser";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final byte[] INVALID_KEY = ErrorResponses.body(HttpStatus.BAD_REQUEST,
+            HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+    private static final byte[] KEY_REUSED = ErrorResponses.body(HttpStatus.UNPROCESSABLE_ENTITY,
+            HEADER + " was already used for a different request");
+    private static final byte[] IN_PROGRESS = ErrorResponses.body(HttpStatus.CONFLICT,
+            "A request with this " + HEADER + " is still in progress");
+
+    private final IdempotencyStore store;
+
+    /**
+     * Constructs the filter.
+     *
+     * @param store the store remembering keys and responses
+     */
+    @Autowired
+    public IdempotencyFilter(IdempotencyStore store) {
+        this.store = store;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER) == null
+                // Decoded and without ; parameters, as dispatched: /users/%63reateUser is createUser as well
+                || !PATH.equals(UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            ErrorResponses.write(response, HttpStatus.BAD_REQUEST, INVALID_KEY);
+            return;
+        }
+        byte[] body = request.getInputStream().readAllBytes();
+        String requestHash = hash(request, body);
+
+        Optional<IdempotencyRecord> existing;
+        try {
+            existing = store.claim(key, requestHash);
+        } catch (DuplicateKeyException e) {
+            // Claimed by a concurrent request on another instance while this one resolved the key
+            ErrorResponses.write(response, HttpStatus.CONFLICT, IN_PROGRESS);
+            return;
+        }
+        if (existing.isPresent()) {
+            IdempotencyRecord record = existing.get();
+            if (!record.getRequestHash().equals(requestHash)) {
+                ErrorResponses.write(response, HttpStatus.UNPROCESSABLE_ENTITY, KEY_REUSED);
+            } else if (!record.isCompleted()) {
+                ErrorResponses.write(response, HttpStatus.CONFLICT, IN_PROGRESS);
+            } else {
+                replay(response, record);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper recording = new ContentCachingResponseWrapper(response);
+        boolean recorded = false;
+        try {
+            chain.doFilter(new CachedBodyRequest(request, body), recording);
+            if (recording.getStatus() < 500) {
+                store.complete(key, requestHash, recording.getStatus(), recording.getContentType(), recording.getContentAsByteArray());
+                recorded = true;
+            }
+        } finally {
+            if (!recorded) {
+                store.release(key);
+            }
+            recording.copyBodyToResponse();
+        }
+    }
+
+    private static void replay(HttpServletResponse response, IdempotencyRecord record) throws IOException {
+        response.setStatus(record.getStatus());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (record.getContentType() != null) {
+            response.setContentType(record.getContentType());
+        }
+        if (record.getBody() != null) {
+            response.setContentLength(record.getBody().length);
+            response.getOutputStream().write(record.getBody());
+        }
+    }
+
+    private static String hash(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            // Every filtered request is dispatched to PATH, however its URI is spelled
+            digest.update(PATH.getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Request whose body has already been read, serving it again to the controller.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * The body is already in memory, so all of it is available at once.
+                 */
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
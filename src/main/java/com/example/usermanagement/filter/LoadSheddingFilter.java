@@ -0,0 +1,98 @@
+package com.example.usermanagement.filter;
+
+import com.example.usermanagement.config.LoadSheddingProperties;
+import com.example.usermanagement.config.MongoPoolMonitor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rejects requests to the user API with 503 Service Unavailable while the service is overloaded,
+ * so that the requests it does accept keep a bounded latency instead of all of them queueing.
+ *
+ * The service counts as overloaded when too many requests are in flight, when too many requests
+ * wait for a MongoDB connection, or when getting a connection has recently taken too long
+ * (see {@link MongoPoolMonitor}). Rejected requests get a {@code Retry-After} header.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 100)
+@ConditionalOnProperty(name = "user.load-shedding.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private static final String PATH_PREFIX = "/users";
+    private static final byte[] OVERLOADED = ErrorResponses.body(HttpStatus.SERVICE_UNAVAILABLE,
+            "The service is overloaded, please retry later");
+
+    private final MongoPoolMonitor poolMonitor;
+    private final int maxInFlight;
+    private final int maxPoolWaiters;
+    private final long maxPoolWaitNanos;
+    private final String retryAfter;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+
+    /**
+     * Constructs the filter.
+     *
+     * @param properties  the load shedding settings
+     * @param poolMonitor the source of the MongoDB connection pool state
+     * @param registry    the registry the rejections and in-flight requests are published to
+     */
+    @Autowired
+    public LoadSheddingFilter(LoadSheddingProperties properties, MongoPoolMonitor poolMonitor, MeterRegistry registry) {
+        this.poolMonitor = poolMonitor;
+        this.maxInFlight = properties.getMaxInFlight();
+        this.maxPoolWaiters = properties.getMaxPoolWaiters();
+        this.maxPoolWaitNanos = properties.getMaxPoolWait().toNanos();
+        this.retryAfter = Long.toString(Math.max(1, properties.getRetryAfter().toSeconds()));
+        this.rejected = Counter.builder("user.requests.rejected")
+                .description("Requests rejected before reaching the controllers")
+                .tag("reason", "overloaded")
+                .tag("limit", "load-shedding")
+                .register(registry);
+        registry.gauge("user.requests.in-flight", inFlight);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !UrlPathHelper.defaultInstance.getPathWithinApplication(request).startsWith(PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (inFlight.incrementAndGet() > maxInFlight || poolOverloaded()) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            ErrorResponses.write(response, HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private boolean poolOverloaded() {
+        return poolMonitor.waitingCount() > maxPoolWaiters || poolMonitor.recentWaitNanos() > maxPoolWaitNanos;
+    }
+}
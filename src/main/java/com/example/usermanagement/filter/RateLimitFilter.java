@@ -0,0 +1,144 @@
+package com.example.usermanagement.filter;
+
+import com.example.usermanagement.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the request rate of every client of the user API with a {@link TokenBucket} per client and limit.
+ *
+ * Clients are identified by the API key header if it holds one of the configured {@code user.rate-limit.api-keys},
+ * otherwise by their IP address (as resolved by the server, see {@code server.forward-headers-strategy} behind
+ * a proxy). Unknown keys are ignored, so that made-up keys neither get fresh buckets nor evict the known clients.
+ * Requests over the limit are answered with 429 Too Many Requests and a {@code Retry-After} header,
+ * before any other work is done for them.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 200)
+@ConditionalOnProperty(name = "user.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String PATH_PREFIX = "/users";
+    private static final byte[] TOO_MANY_REQUESTS = ErrorResponses.body(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded");
+
+    private final String apiKeyHeader;
+    private final Set<String> apiKeys;
+    private final List<LimitedPath> limits;
+    private final LimitedPath defaultLimit;
+
+    /**
+     * Constructs the filter.
+     *
+     * @param properties the rate limit settings
+     * @param registry   the registry the rejections are counted in
+     */
+    @Autowired
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry registry) {
+        this.apiKeyHeader = properties.getApiKeyHeader();
+        this.apiKeys = Set.copyOf(properties.getApiKeys());
+        this.limits = new ArrayList<>();
+        properties.getEndpoints().forEach((name, limit) ->
+                limits.add(new LimitedPath(name, limit, properties.getMaxClients(), registry)));
+        // The most specific path is matched first
+        limits.sort(Comparator.comparingInt((LimitedPath limit) -> limit.path.length()).reversed());
+        this.defaultLimit = new LimitedPath("default", properties.getDefaultLimit(), properties.getMaxClients(), registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !path(request).startsWith(PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        LimitedPath limit = limitFor(path(request));
+        String client = request.getHeader(apiKeyHeader);
+        if (client == null || !apiKeys.contains(client)) {
+            client = request.getRemoteAddr();
+        }
+        long wait = limit.acquire(client);
+        if (wait > 0) {
+            limit.rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait))));
+            ErrorResponses.write(response, HttpStatus.TOO_MANY_REQUESTS, TOO_MANY_REQUESTS);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private LimitedPath limitFor(String path) {
+        for (LimitedPath limit : limits) {
+            if (path.startsWith(limit.path)) {
+                return limit;
+            }
+        }
+        return defaultLimit;
+    }
+
+    /**
+     * Returns the path the request is dispatched on: decoded, without {@code ;} parameters and within the context path,
+     * so that e.g. {@code /users/%63reateUser} gets the limit of {@code /users/createUser}.
+     */
+    private static String path(HttpServletRequest request) {
+        return UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+    }
+
+    /**
+     * A configured limit with the buckets of the clients it has seen.
+     */
+    private static final class LimitedPath {
+
+        private final String path;
+        private final long emissionInterval;
+        private final long burstAllowance;
+        private final Cache<String, TokenBucket> buckets;
+        private final Counter rejected;
+
+        LimitedPath(String name, RateLimitProperties.Limit limit, long maxClients, MeterRegistry registry) {
+            this.path = limit.getPath() == null ? PATH_PREFIX : limit.getPath();
+            this.emissionInterval = (long) (Duration.ofSeconds(1).toNanos() / limit.getRefillPerSecond());
+            this.burstAllowance = emissionInterval * limit.getCapacity();
+            // A bucket that has been idle for longer than it takes to refill completely is full again, and can be dropped
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(Duration.ofNanos(Math.max(burstAllowance, Duration.ofSeconds(1).toNanos())))
+                    .build();
+            this.rejected = Counter.builder("user.requests.rejected")
+                    .description("Requests rejected before reaching the controllers")
+                    .tag("reason", "rate_limited")
+                    .tag("limit", name)
+                    .register(registry);
+        }
+
+        long acquire(String client) {
+            long now = System.nanoTime();
+            return buckets.get(client, key -> new TokenBucket(now)).tryAcquire(now, emissionInterval, burstAllowance);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.usermanagement.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as the generic cell rate algorithm.
+ *
+ * Instead of a token count and a refill timestamp, the bucket keeps a single "theoretical arrival
+ * time": the time at which it would be full again. Each request moves it ahead by one emission
+ * interval, and a request is allowed while it stays within the burst allowance of the current time.
+ * A single compare-and-set updates it, so concurrent requests of one client never block each other.
+ */
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(long now) {
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @param now               the current {@link System#nanoTime()}
+     * @param emissionInterval  the nanoseconds it takes to refill one token
+     * @param burstAllowance    the nanoseconds the bucket may run ahead of the current time, capacity times the interval
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token will be available
+     */
+    long tryAcquire(long now, long emissionInterval, long burstAllowance) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = (current - now > 0 ? current : now) + emissionInterval;
+            long ahead = next - now;
+            if (ahead > burstAllowance) {
+                return ahead - burstAllowance;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
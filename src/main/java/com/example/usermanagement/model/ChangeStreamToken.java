@@ -0,0 +1,33 @@
+package com.example.usermanagement.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * The resume token of the last change an instance processed from a change stream, so that the
+ * stream can be resumed after a restart without missing changes.
+ * It is mapped to a MongoDB collection named "change_stream_tokens".
+ */
+@Data
+@Document(collection = "change_stream_tokens")
+public class ChangeStreamToken {
+
+    /**
+     * The watched collection and the instance, e.g. {@code users:node-1}.
+     */
+    @Id
+    private String id;
+
+    /**
+     * The resume token, as extended JSON.
+     */
+    private String resumeToken;
+
+    /**
+     * When the token was saved.
+     */
+    private LocalDateTime updatedAt;
+}
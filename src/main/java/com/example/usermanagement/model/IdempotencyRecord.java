@@ -0,0 +1,59 @@
+package com.example.usermanagement.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A request made with an {@code Idempotency-Key} header and, once it has completed, its response.
+ * It is mapped to a MongoDB collection named "idempotency_keys", where it is removed once it expires.
+ */
+@Data
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    /**
+     * The idempotency key sent by the client.
+     */
+    @Id
+    private String key;
+
+    /**
+     * A hash of the request, used to reject the reuse of a key for a different request.
+     */
+    private String requestHash;
+
+    /**
+     * Whether the response has been recorded. Until then the key is claimed by the request in progress.
+     */
+    private boolean completed;
+
+    /**
+     * The HTTP status of the response.
+     */
+    private int status;
+
+    /**
+     * The content type of the response, if it has a body.
+     */
+    private String contentType;
+
+    /**
+     * The response body.
+     */
+    private byte[] body;
+
+    /**
+     * When the key was claimed.
+     */
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    /**
+     * When the record is removed by the TTL index.
+     */
+    @Indexed(name = "expiry", expireAfter = "0s")
+    private LocalDateTime expiresAt;
+}
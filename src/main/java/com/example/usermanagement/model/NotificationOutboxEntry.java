@@ -0,0 +1,94 @@
+package com.example.usermanagement.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification waiting to be delivered, or already delivered, to a user.
+ * It is mapped to a MongoDB collection named "notification_outbox".
+ *
+ * Entries are written when a user registers and updated by the
+ * {@link com.example.usermanagement.service.NotificationDispatcher} as delivery progresses, so that
+ * pending notifications survive a restart. Delivered entries expire after seven days.
+ */
+@Data
+@Document(collection = "notification_outbox")
+@CompoundIndex(name = "status_next_attempt", def = "{ 'status': 1, 'nextAttemptAt': 1 }")
+public class NotificationOutboxEntry {
+
+    /**
+     * The delivery state of an entry.
+     */
+    public enum Status {
+        /** Not delivered yet; retried once {@code nextAttemptAt} has passed. */
+        PENDING,
+        /** Delivered. */
+        SENT,
+        /** Given up after the maximum number of attempts, or no sender handles the channel. */
+        FAILED
+    }
+
+    /**
+     * The unique identifier for the entry.
+     */
+    @Id
+    private String id;
+
+    /**
+     * The id of the user the notification is about. A user has at most one entry.
+     */
+    @Indexed(name = "user_id_unique", unique = true)
+    private String userId;
+
+    /**
+     * The delivery channel, taken from the user's notification preference, e.g. "email".
+     */
+    private String channel;
+
+    /**
+     * The address the notification is sent to, e.g. the email address or phone number.
+     */
+    private String recipient;
+
+    /**
+     * The name of the user, used to personalize the notification.
+     */
+    private String name;
+
+    /**
+     * The delivery state.
+     */
+    private Status status = Status.PENDING;
+
+    /**
+     * The number of failed delivery attempts.
+     */
+    private int attempts;
+
+    /**
+     * When the entry may next be picked up for delivery.
+     * Also set ahead while an entry is queued, so that it is only redelivered if that attempt is lost.
+     */
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * When the entry was created.
+     */
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    /**
+     * When the notification was delivered.
+     */
+    @Indexed(name = "sent_expiry", expireAfter = "7d")
+    private LocalDateTime sentAt;
+
+    /**
+     * The error of the last failed attempt.
+     */
+    private String lastError;
+}
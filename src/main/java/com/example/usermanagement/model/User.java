@@ -5,22 +5,45 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 /**
  * Represents a User entity in the system.
  * This class holds information about a user, including personal details
  * such as name, age, email, and phone number.
  * It is mapped to a MongoDB collection named "users".
+ *
+ * The compound indexes support the keyset-paginated listing, which sorts by
+ * {@code registrationDate} and {@code _id} (both descending) after optional equality filters.
  */
 @Data
 @Document(collection = "users")
+@CompoundIndexes({
+        @CompoundIndex(name = "registration_keyset", def = "{ 'registrationDate': -1, '_id': -1 }"),
+        @CompoundIndex(name = "country_registration_keyset", def = "{ 'country': 1, 'registrationDate': -1, '_id': -1 }"),
+        @CompoundIndex(name = "notification_registration_keyset",
+                def = "{ 'notificationPreference': 1, 'registrationDate': -1, '_id': -1 }")
+})
 public class User {
 
+    /**
+     * The name of the unique index on {@link #normalizedEmail}, which MongoDB reports in duplicate-key errors.
+     */
+    public static final String EMAIL_INDEX = "email_normalized_unique";
+
+
     /**
      * The unique identifier for the user.
      * This field is automatically generated by MongoDB.
@@ -58,6 +81,16 @@ public class User {
     @NotBlank(message = "Email is required")
     private String email;
 
+    /**
+     * The trimmed, lower-cased form of {@link #email}.
+     * It is maintained by {@link #setEmail(String)} and backs the unique index that
+     * enforces one account per email address regardless of letter case.
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Indexed(name = EMAIL_INDEX, unique = true, sparse = true)
+    private String normalizedEmail;
+
     /**
      * The phone number of the user.
      * This field must consist of exactly 10 digits.
@@ -76,4 +109,42 @@ public class User {
      * This field is automatically set to the current date and time when the user is created.
      */
     private LocalDateTime registrationDate = LocalDateTime.now();
+
+    /**
+     * The version of the document, set to 0 on insert and incremented by every save.
+     * It identifies the representation of the user in HTTP {@code ETag} headers.
+     */
+    @JsonIgnore
+    @Version
+    private Long version;
+
+    /**
+     * When the welcome notification of the user was requested, while it may not be in the notification outbox yet.
+     * Written together with the user on registration, so that the notification survives a failure to write the
+     * outbox entry, and removed by the sweep of the
+     * {@link com.example.usermanagement.service.NotificationDispatcher} once the entry exists.
+     */
+    @JsonIgnore
+    @Indexed(name = "welcome_pending", sparse = true)
+    private LocalDateTime welcomePendingSince;
+
+    /**
+     * Sets the email address of the user and refreshes its normalized form.
+     *
+     * @param email The email address of the user.
+     */
+    public void setEmail(String email) {
+        this.email = email;
+        this.normalizedEmail = normalizeEmail(email);
+    }
+
+    /**
+     * Normalizes an email address for uniqueness checks by trimming it and converting it to lower case.
+     *
+     * @param email The email address to normalize, may be {@code null}.
+     * @return The normalized email address, or {@code null} if {@code email} is {@code null}.
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,12 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.model.ChangeStreamToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for managing {@link ChangeStreamToken} entities, one per watched collection and instance.
+ */
+@Repository
+public interface ChangeStreamTokenRepository extends MongoRepository<ChangeStreamToken, String> {
+}
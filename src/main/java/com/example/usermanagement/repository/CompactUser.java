@@ -0,0 +1,85 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.model.User;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable in-memory form of a {@link User}, as held by the {@link InMemoryUserRepository}.
+ *
+ * Country and notification preference are interned, since few distinct values are shared by many users.
+ * Age, registration date and version are stored as primitives instead of boxed values and a
+ * {@link LocalDateTime} graph, and the normalized email is derived from the email when needed.
+ * Registration dates are kept at millisecond precision, like MongoDB dates.
+ */
+record CompactUser(String id, String name, int age, String country, String email, String phone,
+                   String notificationPreference, long registrationMillis, long version) {
+
+    /**
+     * Stands for a missing age.
+     */
+    static final int NO_AGE = Integer.MIN_VALUE;
+
+    /**
+     * Stands for a missing registration date.
+     */
+    static final long NO_DATE = Long.MIN_VALUE;
+
+    /**
+     * Converts a user to its compact form.
+     *
+     * @param user    the user, with its id assigned
+     * @param version the version to store
+     * @param intern  returns the canonical instance of a low-cardinality value
+     * @return the compact user
+     */
+    static CompactUser of(User user, long version, UnaryOperator<String> intern) {
+        return new CompactUser(user.getId(), user.getName(),
+                user.getAge() == null ? NO_AGE : user.getAge(),
+                intern.apply(user.getCountry()), user.getEmail(), user.getPhone(),
+                intern.apply(user.getNotificationPreference()),
+                toMillis(user.getRegistrationDate()), version);
+    }
+
+    /**
+     * Converts a registration date to milliseconds since the epoch, reading it as UTC.
+     *
+     * @param date the date, may be {@code null}
+     * @return the milliseconds, or {@link #NO_DATE} if {@code date} is {@code null}
+     */
+    static long toMillis(LocalDateTime date) {
+        return date == null ? NO_DATE : date.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Returns the normalized form of the email, which is the key of the email index.
+     *
+     * @return the normalized email
+     */
+    String normalizedEmail() {
+        return User.normalizeEmail(email);
+    }
+
+    /**
+     * Creates a new, mutable {@link User} holding the values of this compact user.
+     *
+     * @return the user
+     */
+    User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setAge(age == NO_AGE ? null : age);
+        user.setCountry(country);
+        user.setEmail(email);
+        user.setPhone(phone);
+        user.setNotificationPreference(notificationPreference);
+        user.setRegistrationDate(registrationMillis == NO_DATE
+                ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(registrationMillis), ZoneOffset.UTC));
+        user.setVersion(version);
+        return user;
+    }
+}
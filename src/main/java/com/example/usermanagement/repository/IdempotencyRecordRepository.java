@@ -0,0 +1,15 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.model.IdempotencyRecord;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for managing {@link IdempotencyRecord} entities.
+ * Inserting a record for a key that already exists fails with a duplicate-key error, which is how
+ * a key is claimed by one request across all application instances.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends MongoRepository<IdempotencyRecord, String>,
+        IdempotencyRecordRepositoryCustom {
+}
@@ -0,0 +1,23 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.model.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+
+/**
+ * Custom repository fragment for {@link IdempotencyRecord} operations that need atomic updates.
+ * Implemented by {@link IdempotencyRecordRepositoryCustomImpl} on top of
+ * {@link org.springframework.data.mongodb.core.MongoTemplate}.
+ */
+public interface IdempotencyRecordRepositoryCustom {
+
+    /**
+     * Takes over a key whose claim was abandoned, i.e. not completed and claimed before the given time.
+     * The claim is replaced with a single atomic update, so that only one request takes over a key.
+     *
+     * @param claim           The new claim of the key.
+     * @param abandonedBefore Claims made before this time are considered abandoned.
+     * @return {@code true} if the key was taken over, {@code false} if it is completed or still claimed.
+     */
+    boolean takeOver(IdempotencyRecord claim, LocalDateTime abandonedBefore);
+}
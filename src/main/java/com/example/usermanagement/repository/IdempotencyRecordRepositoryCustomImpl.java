@@ -0,0 +1,39 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.model.IdempotencyRecord;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@link MongoTemplate} based implementation of {@link IdempotencyRecordRepositoryCustom}.
+ */
+public class IdempotencyRecordRepositoryCustomImpl implements IdempotencyRecordRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructs the fragment with the given {@link MongoTemplate}.
+     *
+     * @param mongoTemplate the template used to talk to MongoDB
+     */
+    public IdempotencyRecordRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean takeOver(IdempotencyRecord claim, LocalDateTime abandonedBefore) {
+        Query abandoned = Query.query(Criteria.where("key").is(claim.getKey())
+                .and("completed").is(false)
+                .and("createdAt").lt(abandonedBefore));
+        Update update = Update.update("requestHash", claim.getRequestHash())
+                .set("createdAt", claim.getCreatedAt())
+                .set("expiresAt", claim.getExpiresAt());
+        return mongoTemplate.findAndModify(abandoned, update, FindAndModifyOptions.options().returnNew(true),
+                IdempotencyRecord.class) != null;
+    }
+}
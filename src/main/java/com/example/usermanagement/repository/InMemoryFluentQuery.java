@@ -0,0 +1,246 @@
+package com.example.usermanagement.repository;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.OffsetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.util.Assert;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Fluent query of the {@link InMemoryUserRepository}, as returned by {@code findBy(Example, Function)}.
+ * Queries are immutable: every option returns a new query, evaluated when a result is requested.
+ *
+ * As with Spring Data MongoDB, a projection on properties loads only those properties and the id into a
+ * new entity, and results can be read {@link #as(Class) as} a supertype, a projection interface or a DTO
+ * whose constructor parameters or properties are named like the properties of the entity.
+ *
+ * @param <S> the type of the entities
+ * @param <R> the type of the results
+ */
+final class InMemoryFluentQuery<S, R> implements FluentQuery.FetchableFluentQuery<R> {
+
+    private static final String ID = "id";
+
+    private static final ProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    private final Supplier<Stream<S>> matches;
+    private final Class<R> resultType;
+    private final Sort sort;
+    private final int limit;
+    private final Set<String> properties;
+
+    /**
+     * Constructs the query.
+     *
+     * @param matches    supplies the matching entities in their natural order, on every evaluation
+     * @param resultType the type of the results, the type of the entities for unconverted results
+     */
+    InMemoryFluentQuery(Supplier<Stream<S>> matches, Class<R> resultType) {
+        this(matches, resultType, Sort.unsorted(), 0, Set.of());
+    }
+
+    private InMemoryFluentQuery(Supplier<Stream<S>> matches, Class<R> resultType, Sort sort, int limit,
+                                Set<String> properties) {
+        this.matches = matches;
+        this.resultType = resultType;
+        this.sort = sort;
+        this.limit = limit;
+        this.properties = properties;
+    }
+
+    @Override
+    public FetchableFluentQuery<R> sortBy(Sort sort) {
+        Assert.notNull(sort, "Sort must not be null");
+        return new InMemoryFluentQuery<>(matches, resultType, this.sort.and(sort), limit, properties);
+    }
+
+    @Override
+    public FetchableFluentQuery<R> limit(int limit) {
+        Assert.isTrue(limit >= 0, "Limit must not be negative");
+        return new InMemoryFluentQuery<>(matches, resultType, sort, limit, properties);
+    }
+
+    @Override
+    public <T> FetchableFluentQuery<T> as(Class<T> resultType) {
+        Assert.notNull(resultType, "Projection target type must not be null");
+        return new InMemoryFluentQuery<>(matches, resultType, sort, limit, properties);
+    }
+
+    @Override
+    public FetchableFluentQuery<R> project(Collection<String> properties) {
+        Assert.notNull(properties, "Projection properties must not be null");
+        return new InMemoryFluentQuery<>(matches, resultType, sort, limit, Set.copyOf(properties));
+    }
+
+    /**
+     * @throws IncorrectResultSizeDataAccessException if more than one entity matches
+     */
+    @Override
+    public R oneValue() {
+        List<S> found = sorted(sort).limit(2).toList();
+        if (found.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1);
+        }
+        return found.isEmpty() ? null : convert(found.get(0));
+    }
+
+    @Override
+    public R firstValue() {
+        return sorted(sort).findFirst().map(this::convert).orElse(null);
+    }
+
+    @Override
+    public List<R> all() {
+        return stream().toList();
+    }
+
+    /**
+     * Scrolls by offset or by keyset. Keyset positions hold the values of the sort properties and the id,
+     * which is added as the last sort property if missing, so that every position is unique.
+     */
+    @Override
+    public Window<R> scroll(ScrollPosition position) {
+        Assert.notNull(position, "ScrollPosition must not be null");
+        if (position instanceof OffsetScrollPosition offset) {
+            long skip = offset.isInitial() ? 0 : offset.getOffset();
+            List<S> found = limited(sorted(sort).skip(skip), fetchSize());
+            boolean hasNext = limit > 0 && found.size() > limit;
+            return Window.from(convert(hasNext ? found.subList(0, limit) : found),
+                    OffsetScrollPosition.positionFunction(skip), hasNext);
+        }
+        KeysetScrollPosition keyset = (KeysetScrollPosition) position;
+        Sort keysetSort = sort.getOrderFor(ID) == null ? sort.and(Sort.by(ID)) : sort;
+        Sort querySort = keyset.scrollsForward() ? keysetSort : keysetSort.reverse();
+        Stream<S> after = sorted(querySort);
+        if (!keyset.isInitial()) {
+            Map<String, Object> keys = keyset.getKeys();
+            after = after.filter(entity -> InMemoryQueries.compare(querySort,
+                    path -> InMemoryQueries.propertyValue(entity, path), keys::get) > 0);
+        }
+        List<S> found = new ArrayList<>(limited(after, fetchSize()));
+        boolean hasNext = limit > 0 && found.size() > limit;
+        List<S> content = hasNext ? found.subList(0, limit) : found;
+        if (keyset.scrollsBackward()) {
+            Collections.reverse(content);
+        }
+        return Window.from(convert(content), index -> ScrollPosition.of(keys(content.get(index), keysetSort),
+                keyset.getDirection()), hasNext);
+    }
+
+    @Override
+    public Page<R> page(Pageable pageable) {
+        Assert.notNull(pageable, "Pageable must not be null");
+        Stream<S> found = sorted(sort.and(pageable.getSort()));
+        if (pageable.isPaged()) {
+            found = found.skip(pageable.getOffset()).limit(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(convert(found.toList()), pageable, () -> matches.get().count());
+    }
+
+    @Override
+    public Stream<R> stream() {
+        return limited(sorted(sort), limit).stream().map(this::convert);
+    }
+
+    @Override
+    public long count() {
+        long count = matches.get().count();
+        return limit > 0 ? Math.min(count, limit) : count;
+    }
+
+    @Override
+    public boolean exists() {
+        return matches.get().findAny().isPresent();
+    }
+
+    private Stream<S> sorted(Sort sort) {
+        Stream<S> found = matches.get();
+        return sort.isSorted() ? found.sorted(InMemoryQueries.order(sort)) : found;
+    }
+
+    /**
+     * The number of entities to read for a window: one more than the limit tells whether there is a next window.
+     */
+    private int fetchSize() {
+        return limit > 0 ? limit + 1 : 0;
+    }
+
+    private static <T> List<T> limited(Stream<T> found, int limit) {
+        return (limit > 0 ? found.limit(limit) : found).toList();
+    }
+
+    private static Map<String, Object> keys(Object entity, Sort sort) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        sort.forEach(order -> keys.put(order.getProperty(), InMemoryQueries.propertyValue(entity, order.getProperty())));
+        return keys;
+    }
+
+    private List<R> convert(List<S> entities) {
+        return entities.stream().map(this::convert).toList();
+    }
+
+    /**
+     * Converts an entity to the result type, after projecting it on the selected properties.
+     */
+    private R convert(S entity) {
+        Object source = properties.isEmpty() ? entity : project(entity);
+        if (resultType.isInstance(source)) {
+            return resultType.cast(source);
+        }
+        if (resultType.isInterface()) {
+            return PROJECTIONS.createProjection(resultType, source);
+        }
+        Constructor<R> constructor = BeanUtils.getResolvableConstructor(resultType);
+        String[] names = BeanUtils.getParameterNames(constructor);
+        Object[] arguments = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            arguments[i] = InMemoryQueries.propertyValue(source, names[i]);
+        }
+        R result = BeanUtils.instantiateClass(constructor, arguments);
+        if (names.length == 0) {
+            BeanUtils.copyProperties(source, result);
+        }
+        return result;
+    }
+
+    /**
+     * Copies the id and the selected top-level properties of an entity to a new instance, through its fields
+     * like the MongoDB mapping; the other properties keep the values of a new instance.
+     */
+    private Object project(S entity) {
+        Object projected = BeanUtils.instantiateClass(entity.getClass());
+        DirectFieldAccessor from = new DirectFieldAccessor(entity);
+        DirectFieldAccessor to = new DirectFieldAccessor(projected);
+        Set<String> fields = new LinkedHashSet<>();
+        fields.add(ID);
+        properties.forEach(property -> fields.add(property.split("\\.")[0]));
+        for (String field : fields) {
+            if (from.isReadableProperty(field)) {
+                to.setPropertyValue(field, from.getPropertyValue(field));
+            }
+        }
+        return projected;
+    }
+}
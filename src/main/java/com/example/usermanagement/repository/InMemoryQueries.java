@@ -0,0 +1,183 @@
+package com.example.usermanagement.repository;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.ExampleMatcherAccessor;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Sorting and query-by-example for the {@link InMemoryUserRepository}, following the semantics of
+ * Spring Data MongoDB so that both engines return the same users in the same order.
+ *
+ * Properties are read through their getters; a missing property reads as {@code null}, like a missing field.
+ * Sorting places {@code null} values first in ascending and last in descending order, as MongoDB does, unless
+ * the order asks for another {@link Sort.NullHandling}. Like MongoDB, case-insensitive sorting is rejected.
+ */
+final class InMemoryQueries {
+
+    private InMemoryQueries() {
+    }
+
+    /**
+     * Returns the comparator sorting beans by the given sort; unsorted compares all beans as equal.
+     *
+     * @throws IllegalArgumentException if an order ignores case
+     */
+    static Comparator<Object> order(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (order.isIgnoreCase()) {
+                throw new IllegalArgumentException("Given sort contained an Order for " + order.getProperty()
+                        + " with ignore case; MongoDB does not support sorting ignoring case currently");
+            }
+        }
+        return (left, right) -> compare(sort, path -> propertyValue(left, path), path -> propertyValue(right, path));
+    }
+
+    /**
+     * Compares two rows by the given sort, each row given by a function from property path to value.
+     */
+    static int compare(Sort sort, Function<String, Object> left, Function<String, Object> right) {
+        for (Sort.Order order : sort) {
+            Object leftValue = left.apply(order.getProperty());
+            Object rightValue = right.apply(order.getProperty());
+            int result;
+            if ((leftValue == null) != (rightValue == null)
+                    && order.getNullHandling() != Sort.NullHandling.NATIVE) {
+                boolean nullFirst = order.getNullHandling() == Sort.NullHandling.NULLS_FIRST;
+                result = (leftValue == null) == nullFirst ? -1 : 1;
+            } else {
+                result = compareValues(leftValue, rightValue);
+                result = order.isDescending() ? -result : result;
+            }
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the predicate of the beans matching the example: beans of the probe type whose properties
+     * match all, or any, of the properties set on the probe.
+     */
+    static Predicate<Object> matching(Example<?> example) {
+        Object probe = example.getProbe();
+        ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(example.getMatcher());
+        List<Predicate<Object>> criteria = new ArrayList<>();
+        addCriteria(probe, "", accessor, criteria);
+        Predicate<Object> typed = probe.getClass()::isInstance;
+        if (criteria.isEmpty()) {
+            return typed;
+        }
+        Predicate<Object> combined = example.getMatcher().isAllMatching()
+                ? bean -> criteria.stream().allMatch(criterion -> criterion.test(bean))
+                : bean -> criteria.stream().anyMatch(criterion -> criterion.test(bean));
+        return typed.and(combined);
+    }
+
+    /**
+     * Reads a property, following nested paths such as {@code address.city}.
+     *
+     * @return the value, or {@code null} if the property or one of its parents is {@code null} or does not exist
+     */
+    static Object propertyValue(Object bean, String path) {
+        Object current = bean;
+        for (String name : path.split("\\.")) {
+            if (current == null) {
+                return null;
+            }
+            BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(current);
+            if (!wrapper.isReadableProperty(name)) {
+                return null;
+            }
+            current = wrapper.getPropertyValue(name);
+        }
+        return current;
+    }
+
+    /**
+     * Adds a criterion per property of the probe that is set, or {@code null} with {@link ExampleMatcher.NullHandler#INCLUDE},
+     * descending into nested beans like MongoDB does into embedded documents.
+     */
+    private static void addCriteria(Object probe, String prefix, ExampleMatcherAccessor accessor,
+                                    List<Predicate<Object>> criteria) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(probe);
+        for (PropertyDescriptor descriptor : wrapper.getPropertyDescriptors()) {
+            if (descriptor.getReadMethod() == null || "class".equals(descriptor.getName())) {
+                continue;
+            }
+            String path = prefix + descriptor.getName();
+            if (accessor.isIgnoredPath(path)) {
+                continue;
+            }
+            Object value = accessor.getValueTransformerForPath(path)
+                    .apply(Optional.ofNullable(wrapper.getPropertyValue(descriptor.getName())))
+                    .orElse(null);
+            if (value == null) {
+                if (accessor.getNullHandler() == ExampleMatcher.NullHandler.INCLUDE) {
+                    criteria.add(bean -> propertyValue(bean, path) == null);
+                }
+            } else if (value instanceof String string) {
+                criteria.add(stringCriterion(path, string, accessor));
+            } else if (isValue(value)) {
+                criteria.add(bean -> Objects.deepEquals(propertyValue(bean, path), value));
+            } else {
+                addCriteria(value, path + ".", accessor, criteria);
+            }
+        }
+    }
+
+    private static Predicate<Object> stringCriterion(String path, String value, ExampleMatcherAccessor accessor) {
+        ExampleMatcher.StringMatcher matcher = accessor.getStringMatcherForPath(path);
+        boolean ignoreCase = accessor.isIgnoreCaseForPath(path);
+        if (!ignoreCase && (matcher == ExampleMatcher.StringMatcher.DEFAULT || matcher == ExampleMatcher.StringMatcher.EXACT)) {
+            return bean -> value.equals(propertyValue(bean, path));
+        }
+        String regex = switch (matcher) {
+            case DEFAULT, EXACT -> "^" + Pattern.quote(value) + "$";
+            case STARTING -> "^" + Pattern.quote(value);
+            case ENDING -> Pattern.quote(value) + "$";
+            case CONTAINING -> Pattern.quote(value);
+            case REGEX -> value;
+        };
+        Pattern pattern = Pattern.compile(regex, ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0);
+        return bean -> propertyValue(bean, path) instanceof String string && pattern.matcher(string).find();
+    }
+
+    /**
+     * Whether a probe value is compared as a whole rather than property by property.
+     */
+    private static boolean isValue(Object value) {
+        return BeanUtils.isSimpleValueType(value.getClass()) || value instanceof Collection || value instanceof Map
+                || value.getClass().isArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareValues(Object left, Object right) {
+        if (left == right) {
+            return 0;
+        }
+        if (left == null) {
+            return -1;
+        }
+        if (right == null) {
+            return 1;
+        }
+        return ((Comparable<Object>) left).compareTo(right);
+    }
+}
@@ -0,0 +1,593 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.config.ConditionalOnStorageEngine;
+import com.example.usermanagement.config.StorageProperties;
+import com.example.usermanagement.dto.UserCursor;
+import com.example.usermanagement.dto.UserSearchCriteria;
+import com.example.usermanagement.dto.UserView;
+import com.example.usermanagement.model.User;
+import com.mongodb.ReadPreference;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * In-memory storage engine of users, selected with {@code user.storage.engine=memory}, for example on edge
+ * nodes or in tests that run without MongoDB. It replaces the MongoDB backed {@link UserRepository} behind
+ * the same contract.
+ *
+ * Users are held in a concurrent map keyed by id, as {@link CompactUser} records. The unique index on the
+ * normalized email is a lock-striped hash map: every insert, update and delete of a user holds the stripe
+ * lock of its email, so that email uniqueness is enforced atomically, and a violation raises the same
+ * {@link DuplicateKeyException} as MongoDB, naming the violated index: {@link User#EMAIL_INDEX} or {@code _id_}. Saves are checked against the {@link User#getVersion() version},
+ * as with MongoDB. Callers always receive copies, so modifying a returned user does not modify the store.
+ *
+ * With {@code user.storage.snapshot-path} set, users are loaded from that file at startup and written back
+ * every {@code user.storage.snapshot-interval} if they changed, and on shutdown, see {@link UserSnapshot}.
+ * Sorted and paged {@code findAll} and query-by-example follow the semantics of Spring Data MongoDB, see
+ * {@link InMemoryQueries} and {@link InMemoryFluentQuery}; they scan all users.
+ */
+@Repository
+@ConditionalOnStorageEngine(StorageProperties.Engine.MEMORY)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class InMemoryUserRepository implements UserRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryUserRepository.class);
+
+    private static final int STRIPES = 64;
+
+    /**
+     * The name MongoDB gives the unique index on the id.
+     */
+    private static final String ID_INDEX = "_id_";
+
+    /**
+     * Maximum number of distinct interned values; further values are stored as they are.
+     */
+    private static final int MAX_INTERNED = 1024;
+
+    private static final Comparator<CompactUser> LISTING_ORDER = Comparator
+            .comparingLong(CompactUser::registrationMillis)
+            .thenComparing(CompactUser::id)
+            .reversed();
+
+    private final ConcurrentMap<String, CompactUser> users = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    @SuppressWarnings("unchecked")
+    private final Map<String, String>[] idsByEmail = new Map[STRIPES];
+    private final ConcurrentMap<String, String> interned = new ConcurrentHashMap<>();
+    private final AtomicLong modifications = new AtomicLong();
+    private final Path snapshotPath;
+    private long snapshotModifications;
+
+    /**
+     * Constructs the engine and loads the snapshot, if one is configured and exists.
+     *
+     * @param properties the storage settings
+     * @throws IllegalStateException if the snapshot exists but cannot be read
+     */
+    @Autowired
+    public InMemoryUserRepository(StorageProperties properties) {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+            idsByEmail[i] = new HashMap<>();
+        }
+        String path = properties.getSnapshotPath();
+        this.snapshotPath = path == null || path.isBlank() ? null : Path.of(path);
+        if (snapshotPath != null && Files.exists(snapshotPath)) {
+            load();
+        }
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return findByNormalizedEmail(User.normalizeEmail(email)).filter(user -> user.getEmail().equals(email));
+    }
+
+    @Override
+    public Optional<User> findByNormalizedEmail(String normalizedEmail) {
+        String id = idForEmail(normalizedEmail);
+        return id == null ? Optional.empty() : findById(id);
+    }
+
+    @Override
+    public List<User> findByNormalizedEmailIn(Collection<String> normalizedEmails) {
+        List<User> found = new ArrayList<>();
+        for (String email : normalizedEmails) {
+            findByNormalizedEmail(email).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    @Override
+    public List<Integer> insertAllUnordered(List<User> toInsert) {
+        List<Integer> rejected = new ArrayList<>();
+        for (int i = 0; i < toInsert.size(); i++) {
+            String violatedIndex = tryInsert(toInsert.get(i));
+            if (User.EMAIL_INDEX.equals(violatedIndex)) {
+                rejected.add(i);
+            } else if (violatedIndex != null) {
+                throw duplicateKey(violatedIndex, toInsert.get(i));
+            }
+        }
+        return rejected;
+    }
+
+    @Override
+    public Optional<User> findById(String id, ReadPreference readPreference) {
+        return findById(id);
+    }
+
+    @Override
+    public List<User> findAllById(Collection<String> ids, ReadPreference readPreference) {
+        return findAllById(ids);
+    }
+
+    @Override
+    public Optional<Long> findVersionById(String id) {
+        return Optional.ofNullable(users.get(id)).map(CompactUser::version);
+    }
+
+    @Override
+    public Optional<UserView> findViewById(String id, Collection<String> fields) {
+        return findById(id).map(user -> UserView.of(user, Set.copyOf(fields)));
+    }
+
+    @Override
+    public List<User> findPage(UserSearchCriteria criteria, UserCursor after, int limit) {
+        Predicate<CompactUser> filter = matches(criteria);
+        if (after != null) {
+            CompactUser position = new CompactUser(after.id(), null, CompactUser.NO_AGE, null, null, null, null,
+                    CompactUser.toMillis(after.registrationDate()), 0);
+            filter = filter.and(user -> LISTING_ORDER.compare(user, position) > 0);
+        }
+        return users.values().stream()
+                .filter(filter)
+                .sorted(LISTING_ORDER)
+                .limit(limit)
+                .map(CompactUser::toUser)
+                .toList();
+    }
+
+    @Override
+    public Stream<User> streamAfter(String afterId, int batchSize) {
+        return users.values().stream()
+                .filter(user -> afterId == null || user.id().compareTo(afterId) > 0)
+                .sorted(Comparator.comparing(CompactUser::id))
+                .map(CompactUser::toUser);
+    }
+
+    @Override
+    public Stream<String> streamNormalizedEmails(int batchSize) {
+        return users.values().stream().map(CompactUser::normalizedEmail).filter(Objects::nonNull);
+    }
+
+    /**
+     * Emails are unique by construction: the email index rejects a second user with the same normalized email.
+     */
+    @Override
+    public boolean hasUniqueEmailIndex() {
+        return true;
+    }
+
+    /**
+     * No user is pending: the pending welcome notification marker is not stored by this engine, as welcome
+     * notifications need the MongoDB outbox.
+     */
+    @Override
+    public List<User> findWelcomePending(LocalDateTime pendingBefore, int limit) {
+        return List.of();
+    }
+
+    @Override
+    public void clearWelcomePending(Collection<String> ids) {
+        // The marker is not stored, see findWelcomePending
+    }
+
+    @Override
+    public <S extends User> S insert(S user) {
+        String violatedIndex = tryInsert(user);
+        if (violatedIndex != null) {
+            throw duplicateKey(violatedIndex, user);
+        }
+        return user;
+    }
+
+    @Override
+    public <S extends User> List<S> insert(Iterable<S> toInsert) {
+        List<S> inserted = new ArrayList<>();
+        toInsert.forEach(user -> inserted.add(insert(user)));
+        return inserted;
+    }
+
+    /**
+     * Inserts a user without a version, and otherwise replaces the stored user if its version
+     * matches, incrementing the version of {@code user}.
+     *
+     * @throws OptimisticLockingFailureException if the user does not exist or was modified concurrently
+     * @throws DuplicateKeyException             if the new email is registered to another user
+     */
+    @Override
+    public <S extends User> S save(S user) {
+        if (user.getVersion() == null) {
+            return insert(user);
+        }
+        while (true) {
+            CompactUser current = users.get(user.getId());
+            if (current == null || current.version() != user.getVersion()) {
+                throw new OptimisticLockingFailureException("User " + user.getId() + " with version "
+                        + user.getVersion() + " does not exist or was modified concurrently");
+            }
+            String oldEmail = current.normalizedEmail();
+            String newEmail = user.getNormalizedEmail();
+            int first = Math.min(stripe(oldEmail), stripe(newEmail));
+            int second = Math.max(stripe(oldEmail), stripe(newEmail));
+            locks[first].lock();
+            locks[second].lock();
+            try {
+                if (users.get(user.getId()) != current) {
+                    continue;
+                }
+                if (!Objects.equals(oldEmail, newEmail)) {
+                    if (newEmail != null && idsByEmail[stripe(newEmail)].containsKey(newEmail)) {
+                        throw duplicateKey(User.EMAIL_INDEX, user);
+                    }
+                    unindex(oldEmail, user.getId());
+                    index(newEmail, user.getId());
+                }
+                users.put(user.getId(), CompactUser.of(user, current.version() + 1, this::intern));
+                modifications.incrementAndGet();
+            } finally {
+                locks[second].unlock();
+                locks[first].unlock();
+            }
+            user.setVersion(current.version() + 1);
+            return user;
+        }
+    }
+
+    @Override
+    public <S extends User> List<S> saveAll(Iterable<S> toSave) {
+        List<S> saved = new ArrayList<>();
+        toSave.forEach(user -> saved.add(save(user)));
+        return saved;
+    }
+
+    @Override
+    public Optional<User> findById(String id) {
+        CompactUser user = users.get(id);
+        return user == null ? Optional.empty() : Optional.of(user.toUser());
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return users.containsKey(id);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return users.values().stream().map(CompactUser::toUser).toList();
+    }
+
+    @Override
+    public List<User> findAllById(Iterable<String> ids) {
+        List<User> found = new ArrayList<>();
+        ids.forEach(id -> findById(id).ifPresent(found::add));
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return users.size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        while (true) {
+            CompactUser current = users.get(id);
+            if (current == null) {
+                return;
+            }
+            String email = current.normalizedEmail();
+            ReentrantLock lock = locks[stripe(email)];
+            lock.lock();
+            try {
+                if (users.remove(id, current)) {
+                    unindex(email, id);
+                    modifications.incrementAndGet();
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void delete(User user) {
+        deleteById(user.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends User> toDelete) {
+        toDelete.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        users.keySet().forEach(this::deleteById);
+    }
+
+    @Override
+    public List<User> findAll(Sort sort) {
+        return new InMemoryFluentQuery<>(this::naturalOrder, User.class).sortBy(sort).all();
+    }
+
+    @Override
+    public Page<User> findAll(Pageable pageable) {
+        return new InMemoryFluentQuery<>(this::naturalOrder, User.class).page(pageable);
+    }
+
+    @Override
+    public <S extends User> Optional<S> findOne(Example<S> example) {
+        return query(example).one();
+    }
+
+    @Override
+    public <S extends User> List<S> findAll(Example<S> example) {
+        return query(example).all();
+    }
+
+    @Override
+    public <S extends User> List<S> findAll(Example<S> example, Sort sort) {
+        return query(example).sortBy(sort).all();
+    }
+
+    @Override
+    public <S extends User> Page<S> findAll(Example<S> example, Pageable pageable) {
+        return query(example).page(pageable);
+    }
+
+    @Override
+    public <S extends User> long count(Example<S> example) {
+        return query(example).count();
+    }
+
+    @Override
+    public <S extends User> boolean exists(Example<S> example) {
+        return query(example).exists();
+    }
+
+    @Override
+    public <S extends User, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        return queryFunction.apply(query(example));
+    }
+
+    /**
+     * Writes the users to the snapshot file if they changed since the last snapshot.
+     * Failures are logged, so that a full disk does not stop the service; the next run retries.
+     */
+    @Scheduled(fixedDelayString = "${user.storage.snapshot-interval:5m}",
+            initialDelayString = "${user.storage.snapshot-interval:5m}")
+    public synchronized void snapshot() {
+        long pending = modifications.get();
+        if (snapshotPath == null || pending == snapshotModifications) {
+            return;
+        }
+        List<CompactUser> snapshot = new ArrayList<>(users.values());
+        try {
+            UserSnapshot.write(snapshotPath, snapshot);
+            snapshotModifications = pending;
+            logger.debug("Wrote {} users to {}", snapshot.size(), snapshotPath);
+        } catch (IOException e) {
+            logger.error("Could not write the user snapshot to {}", snapshotPath, e);
+        }
+    }
+
+    /**
+     * Writes a final snapshot on shutdown.
+     */
+    @PreDestroy
+    public void close() {
+        snapshot();
+    }
+
+    /**
+     * Loads the users of the snapshot file, rebuilding the email index.
+     */
+    private void load() {
+        List<CompactUser> loaded;
+        try {
+            loaded = UserSnapshot.read(snapshotPath, this::intern);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read the user snapshot " + snapshotPath, e);
+        }
+        for (CompactUser user : loaded) {
+            index(user.normalizedEmail(), user.id());
+            users.put(user.id(), user);
+        }
+        logger.info("Loaded {} users from {}", loaded.size(), snapshotPath);
+    }
+
+    /**
+     * Stores a new user unless its id or normalized email is taken, assigning an id and the initial
+     * version like MongoDB would.
+     *
+     * @return the name of the violated unique index, or {@code null} if the user was stored
+     */
+    private String tryInsert(User user) {
+        if (user.getId() == null) {
+            user.setId(new ObjectId().toHexString());
+        }
+        String email = user.getNormalizedEmail();
+        int stripe = stripe(email);
+        locks[stripe].lock();
+        try {
+            if (email != null && idsByEmail[stripe].containsKey(email)) {
+                return User.EMAIL_INDEX;
+            }
+            if (users.putIfAbsent(user.getId(), CompactUser.of(user, 0L, this::intern)) != null) {
+                return ID_INDEX;
+            }
+            index(email, user.getId());
+            modifications.incrementAndGet();
+        } finally {
+            locks[stripe].unlock();
+        }
+        user.setVersion(0L);
+        return null;
+    }
+
+    /**
+     * Builds the error MongoDB raises for a violated unique index, whose message names the index.
+     */
+    private static DuplicateKeyException duplicateKey(String index, User user) {
+        String key = ID_INDEX.equals(index)
+                ? "_id: \"" + user.getId() + "\""
+                : "normalizedEmail: \"" + user.getNormalizedEmail() + "\"";
+        return new DuplicateKeyException("E11000 duplicate key error collection: users index: " + index
+                + " dup key: { " + key + " }");
+    }
+
+    /**
+     * Adds an email to the index; the caller holds its stripe lock. Users without an email are not
+     * indexed, like with the sparse MongoDB index.
+     */
+    private void index(String normalizedEmail, String id) {
+        if (normalizedEmail != null) {
+            idsByEmail[stripe(normalizedEmail)].put(normalizedEmail, id);
+        }
+    }
+
+    /**
+     * Removes an email from the index; the caller holds its stripe lock.
+     */
+    private void unindex(String normalizedEmail, String id) {
+        if (normalizedEmail != null) {
+            idsByEmail[stripe(normalizedEmail)].remove(normalizedEmail, id);
+        }
+    }
+
+    private String idForEmail(String normalizedEmail) {
+        if (normalizedEmail == null) {
+            return null;
+        }
+        int stripe = stripe(normalizedEmail);
+        locks[stripe].lock();
+        try {
+            return idsByEmail[stripe].get(normalizedEmail);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    private static int stripe(String normalizedEmail) {
+        if (normalizedEmail == null) {
+            return 0;
+        }
+        int hash = normalizedEmail.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * Returns the canonical instance of a low-cardinality value such as a country.
+     */
+    private String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String canonical = interned.get(value);
+        if (canonical != null) {
+            return canonical;
+        }
+        if (interned.size() >= MAX_INTERNED) {
+            return value;
+        }
+        canonical = interned.putIfAbsent(value, value);
+        return canonical == null ? value : canonical;
+    }
+
+    /**
+     * Returns copies of all users ordered by id, which like the natural order of MongoDB is mostly the order
+     * of insertion, so that unsorted pages are stable.
+     */
+    private Stream<User> naturalOrder() {
+        return users.values().stream()
+                .sorted(Comparator.comparing(CompactUser::id))
+                .map(CompactUser::toUser);
+    }
+
+    /**
+     * Returns the query of the users matching the example.
+     */
+    @SuppressWarnings("unchecked")
+    private <S extends User> InMemoryFluentQuery<S, S> query(Example<S> example) {
+        Predicate<Object> matching = InMemoryQueries.matching(example);
+        return new InMemoryFluentQuery<>(() -> (Stream<S>) naturalOrder().filter(matching), example.getProbeType());
+    }
+
+    private static Predicate<CompactUser> matches(UserSearchCriteria criteria) {
+        Predicate<CompactUser> filter = user -> true;
+        if (criteria.getCountry() != null) {
+            filter = filter.and(user -> criteria.getCountry().equals(user.country()));
+        }
+        if (criteria.getNotificationPreference() != null) {
+            filter = filter.and(user -> criteria.getNotificationPreference().equals(user.notificationPreference()));
+        }
+        if (criteria.getMinAge() != null) {
+            int minAge = criteria.getMinAge();
+            filter = filter.and(user -> user.age() != CompactUser.NO_AGE && user.age() >= minAge);
+        }
+        if (criteria.getMaxAge() != null) {
+            int maxAge = criteria.getMaxAge();
+            filter = filter.and(user -> user.age() != CompactUser.NO_AGE && user.age() <= maxAge);
+        }
+        if (criteria.getRegisteredFrom() != null) {
+            long from = CompactUser.toMillis(criteria.getRegisteredFrom());
+            filter = filter.and(user -> user.registrationMillis() != CompactUser.NO_DATE && user.registrationMillis() >= from);
+        }
+        if (criteria.getRegisteredTo() != null) {
+            long to = CompactUser.toMillis(criteria.getRegisteredTo());
+            filter = filter.and(user -> user.registrationMillis() != CompactUser.NO_DATE && user.registrationMillis() <= to);
+        }
+        return filter;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.model.NotificationOutboxEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for managing {@link NotificationOutboxEntry} entities.
+ */
+@Repository
+public interface NotificationOutboxRepository extends MongoRepository<NotificationOutboxEntry, String>,
+        NotificationOutboxRepositoryCustom {
+}
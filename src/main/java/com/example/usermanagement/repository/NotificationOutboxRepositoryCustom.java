@@ -0,0 +1,54 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.model.NotificationOutboxEntry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Custom repository fragment for {@link NotificationOutboxEntry} operations that need atomic updates.
+ * Implemented by {@link NotificationOutboxRepositoryCustomImpl} on top of
+ * {@link org.springframework.data.mongodb.core.MongoTemplate}.
+ */
+public interface NotificationOutboxRepositoryCustom {
+
+    /**
+     * Writes the given entries, except those whose user already has an entry, e.g. because a sweep recovered
+     * the notification first. The entries are written with a single unordered bulk upsert keyed by user id.
+     *
+     * @param entries The entries to write.
+     * @return The entries that were written, with their ids assigned.
+     */
+    List<NotificationOutboxEntry> insertAbsent(List<NotificationOutboxEntry> entries);
+
+    /**
+     * Claims pending entries that are due for delivery, oldest first.
+     * Each entry is claimed with an atomic update that moves its {@code nextAttemptAt} ahead by the lease,
+     * so that an entry is only claimed by one application instance at a time.
+     *
+     * @param lease How long the claimed entries are reserved for delivery.
+     * @param limit The maximum number of entries to claim.
+     * @return The claimed entries.
+     */
+    List<NotificationOutboxEntry> claimDue(Duration lease, int limit);
+
+    /**
+     * Marks the given entries as delivered.
+     *
+     * @param ids The ids of the delivered entries.
+     */
+    void markSent(Collection<String> ids);
+
+    /**
+     * Records failed delivery attempts: the status, attempts, next attempt and last error of each entry.
+     * An entry is only updated while it is still claimed with the lease it was delivered under, so that an
+     * entry claimed again by another instance after the lease expired, or already delivered, is left alone.
+     *
+     * @param entries      The entries, holding their new state.
+     * @param claimedUntil The {@code nextAttemptAt} each entry was claimed with, in the same order as {@code entries}.
+     * @return The number of entries that were updated.
+     */
+    int recordFailures(List<NotificationOutboxEntry> entries, List<LocalDateTime> claimedUntil);
+}
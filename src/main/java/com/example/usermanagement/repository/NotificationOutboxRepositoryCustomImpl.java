@@ -0,0 +1,110 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.model.NotificationOutboxEntry;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link MongoTemplate} based implementation of {@link NotificationOutboxRepositoryCustom}.
+ */
+public class NotificationOutboxRepositoryCustomImpl implements NotificationOutboxRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructs the fragment with the given {@link MongoTemplate}.
+     *
+     * @param mongoTemplate the template used to talk to MongoDB
+     */
+    public NotificationOutboxRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<NotificationOutboxEntry> insertAbsent(List<NotificationOutboxEntry> entries) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationOutboxEntry.class);
+        for (NotificationOutboxEntry entry : entries) {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(entry, document);
+            document.remove("_id");
+            Update insert = new Update();
+            document.forEach(insert::setOnInsert);
+            operations.upsert(Query.query(Criteria.where("userId").is(entry.getUserId())), insert);
+        }
+        BulkWriteResult result = operations.execute();
+        List<NotificationOutboxEntry> written = new ArrayList<>(result.getUpserts().size());
+        for (BulkWriteUpsert upsert : result.getUpserts()) {
+            NotificationOutboxEntry entry = entries.get(upsert.getIndex());
+            entry.setId(upsert.getId().asObjectId().getValue().toHexString());
+            written.add(entry);
+        }
+        return written;
+    }
+
+    @Override
+    public List<NotificationOutboxEntry> claimDue(Duration lease, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        Query due = Query.query(Criteria.where("status").is(NotificationOutboxEntry.Status.PENDING)
+                        .and("nextAttemptAt").lte(now))
+                .with(Sort.by("nextAttemptAt"));
+        Update claim = Update.update("nextAttemptAt", now.plus(lease));
+        List<NotificationOutboxEntry> claimed = new ArrayList<>();
+        while (claimed.size() < limit) {
+            NotificationOutboxEntry entry = mongoTemplate.findAndModify(due, claim,
+                    FindAndModifyOptions.options().returnNew(true), NotificationOutboxEntry.class);
+            if (entry == null) {
+                break;
+            }
+            claimed.add(entry);
+        }
+        return claimed;
+    }
+
+    @Override
+    public void markSent(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(Query.query(Criteria.where("id").in(ids)),
+                Update.update("status", NotificationOutboxEntry.Status.SENT).set("sentAt", LocalDateTime.now()),
+                NotificationOutboxEntry.class);
+    }
+
+    @Override
+    public int recordFailures(List<NotificationOutboxEntry> entries, List<LocalDateTime> claimedUntil) {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationOutboxEntry.class);
+        for (int i = 0; i < entries.size(); i++) {
+            NotificationOutboxEntry entry = entries.get(i);
+            // MongoDB dates have millisecond precision
+            Query claimed = Query.query(Criteria.where("id").is(entry.getId())
+                    .and("status").is(NotificationOutboxEntry.Status.PENDING)
+                    .and("nextAttemptAt").is(claimedUntil.get(i).truncatedTo(ChronoUnit.MILLIS)));
+            operations.updateOne(claimed, Update.update("status", entry.getStatus())
+                    .set("attempts", entry.getAttempts())
+                    .set("nextAttemptAt", entry.getNextAttemptAt())
+                    .set("lastError", entry.getLastError()));
+        }
+        return operations.execute().getModifiedCount();
+    }
+}
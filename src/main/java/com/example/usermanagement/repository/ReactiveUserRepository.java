@@ -0,0 +1,23 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.model.User;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive repository interface for managing {@link User} entities.
+ * This is the non-blocking counterpart of {@link UserRepository}, used when the application
+ * runs as a reactive web application.
+ */
+@Repository
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String>, ReactiveUserRepositoryCustom {
+
+    /**
+     * Finds a user by the normalized form of their email address.
+     *
+     * @param normalizedEmail The normalized email address, see {@link User#normalizeEmail(String)}.
+     * @return A Mono emitting the User if found, otherwise empty.
+     */
+    Mono<User> findByNormalizedEmail(String normalizedEmail);
+}
@@ -0,0 +1,19 @@
+package com.example.usermanagement.repository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom repository fragment for {@link ReactiveUserRepository} operations that cannot be expressed
+ * through derived queries. Implemented by {@link ReactiveUserRepositoryCustomImpl} on top of
+ * {@link org.springframework.data.mongodb.core.ReactiveMongoTemplate}.
+ */
+public interface ReactiveUserRepositoryCustom {
+
+    /**
+     * Tells whether the unique {@code email_normalized_unique} index exists, which registrations
+     * with {@code user.registration.duplicate-check=index} rely on to reject duplicate emails.
+     *
+     * @return A Mono emitting {@code true} if duplicate normalized emails are rejected by the storage
+     */
+    Mono<Boolean> hasUniqueEmailIndex();
+}
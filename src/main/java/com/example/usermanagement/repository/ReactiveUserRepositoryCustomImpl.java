@@ -0,0 +1,28 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.model.User;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ReactiveMongoTemplate} based implementation of {@link ReactiveUserRepositoryCustom}.
+ */
+public class ReactiveUserRepositoryCustomImpl implements ReactiveUserRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * Constructs the fragment with the given {@link ReactiveMongoTemplate}.
+     *
+     * @param mongoTemplate the template used to talk to MongoDB
+     */
+    public ReactiveUserRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Boolean> hasUniqueEmailIndex() {
+        return mongoTemplate.indexOps(User.class).getIndexInfo()
+                .any(index -> index.isUnique() && User.EMAIL_INDEX.equals(index.getName()));
+    }
+}
@@ -4,8 +4,11 @@ import com.example.usermanagement.model.User;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -14,7 +17,7 @@ import java.util.Optional;
  * using Spring Data MongoDB's {@link MongoRepository}.
  */
 @Repository
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
 
     /**
      * Finds a user by their email address.
@@ -24,6 +27,25 @@ public interface UserRepository extends MongoRepository<User, String> {
      */
     Optional<User> findByEmail( String email);
 
+    /**
+     * Finds a user by the normalized form of their email address.
+     * This lookup is served by the unique {@code email_normalized_unique} index.
+     *
+     * @param normalizedEmail The normalized email address, see {@link User#normalizeEmail(String)}.
+     * @return An Optional containing the User if found, otherwise empty.
+     */
+    Optional<User> findByNormalizedEmail(String normalizedEmail);
+
+    /**
+     * Finds all users whose normalized email address is contained in the given collection, using a single {@code $in} query.
+     * Only the email fields are loaded, which is all that duplicate checks need.
+     *
+     * @param normalizedEmails The normalized email addresses to search for.
+     * @return The users already registered with one of the given email addresses.
+     */
+    @Query(value = "{ 'normalizedEmail': { $in: ?0 } }", fields = "{ 'email': 1, 'normalizedEmail': 1 }")
+    List<User> findByNormalizedEmailIn(Collection<String> normalizedEmails);
+
     /**
      * Finds a user by their ID.
      *
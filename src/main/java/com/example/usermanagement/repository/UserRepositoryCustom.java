@@ -0,0 +1,139 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.dto.UserCursor;
+import com.example.usermanagement.dto.UserSearchCriteria;
+import com.example.usermanagement.dto.UserView;
+import com.example.usermanagement.model.User;
+import com.mongodb.ReadPreference;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Custom repository fragment for {@link User} operations that cannot be expressed
+ * through derived queries. Implemented by {@link UserRepositoryCustomImpl} on top of
+ * {@link org.springframework.data.mongodb.core.MongoTemplate}.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Tells whether a duplicate-key error was raised by the unique email index rather than by another unique
+     * index, such as the one on the id. MongoDB names the violated index in the error message.
+     *
+     * @param e The duplicate-key error.
+     * @return {@code true} if the email is already registered.
+     */
+    static boolean isDuplicateEmail(DuplicateKeyException e) {
+        return e.getMessage() != null && e.getMessage().contains(User.EMAIL_INDEX);
+    }
+
+    /**
+     * Inserts the given users with a single unordered bulk write.
+     * Documents that violate the unique email index are skipped without aborting the rest of the batch.
+     *
+     * @param users The users to insert. Their identifiers must already be assigned.
+     * @return The positions in {@code users} that were rejected as duplicate emails.
+     * @throws org.springframework.dao.DataAccessException if another write error occurred, such as a duplicate id,
+     *                                                     after the other documents were written
+     */
+    List<Integer> insertAllUnordered(List<User> users);
+
+    /**
+     * Finds a user by their ID, reading from the members selected by the given read preference
+     * instead of the client default.
+     *
+     * @param id             The unique identifier of the user.
+     * @param readPreference The replica set members to read from.
+     * @return An Optional containing the user if found, otherwise empty.
+     */
+    Optional<User> findById(String id, ReadPreference readPreference);
+
+    /**
+     * Finds the users with the given IDs with a single {@code $in} query, reading from the members
+     * selected by the given read preference instead of the client default.
+     *
+     * @param ids            The unique identifiers of the users.
+     * @param readPreference The replica set members to read from.
+     * @return The users found, in no particular order.
+     */
+    List<User> findAllById(Collection<String> ids, ReadPreference readPreference);
+
+    /**
+     * Finds the version of a user without loading the rest of the document.
+     *
+     * @param id The unique identifier of the user.
+     * @return An Optional containing the version if the user exists (0 for documents written before
+     * versioning), otherwise empty.
+     */
+    Optional<Long> findVersionById(String id);
+
+    /**
+     * Finds a user by their ID, loading only the given fields.
+     * The selection is sent to MongoDB as a projection, so other fields are not transferred.
+     *
+     * @param id     The unique identifier of the user.
+     * @param fields The {@link User} property names to load, see {@link UserView#FIELDS}.
+     * @return An Optional containing the partial view if the user exists, otherwise empty.
+     */
+    Optional<UserView> findViewById(String id, Collection<String> fields);
+
+    /**
+     * Finds one page of users matching the criteria, ordered by registration date and id, both descending.
+     * Pages are addressed by keyset rather than offset, so every page costs the same regardless of its position.
+     *
+     * @param criteria The filters to apply.
+     * @param after    The position after which the page starts, or {@code null} for the first page.
+     * @param limit    The maximum number of users to return.
+     * @return The users of the page.
+     */
+    List<User> findPage(UserSearchCriteria criteria, UserCursor after, int limit);
+
+    /**
+     * Streams all users in ascending id order from a MongoDB cursor.
+     * Only one cursor batch is held in memory at a time. The stream must be closed to release the cursor.
+     *
+     * @param afterId   Only users with an id greater than this one are returned, or {@code null} to start at the beginning.
+     * @param batchSize The number of documents fetched per cursor batch.
+     * @return The stream of users.
+     */
+    Stream<User> streamAfter(String afterId, int batchSize);
+
+    /**
+     * Streams the normalized email of every user from a MongoDB cursor.
+     * The query is covered by the {@code email_normalized_unique} index, so no document is read.
+     * The stream must be closed to release the cursor.
+     *
+     * @param batchSize The number of emails fetched per cursor batch.
+     * @return The stream of normalized emails, in no particular order.
+     */
+    Stream<String> streamNormalizedEmails(int batchSize);
+
+    /**
+     * Tells whether the unique {@code email_normalized_unique} index exists, which registrations
+     * with {@code user.registration.duplicate-check=index} rely on to reject duplicate emails.
+     *
+     * @return {@code true} if duplicate normalized emails are rejected by the storage
+     */
+    boolean hasUniqueEmailIndex();
+
+    /**
+     * Finds users whose welcome notification has been pending since before the given time,
+     * see {@link User#getWelcomePendingSince()}.
+     *
+     * @param pendingBefore Only users marked before this time are returned.
+     * @param limit         The maximum number of users to return.
+     * @return The users found, in no particular order.
+     */
+    List<User> findWelcomePending(LocalDateTime pendingBefore, int limit);
+
+    /**
+     * Removes the pending welcome notification marker of the given users, without changing their version.
+     *
+     * @param ids The unique identifiers of the users.
+     */
+    void clearWelcomePending(Collection<String> ids);
+}
@@ -0,0 +1,183 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.dto.UserCursor;
+import com.example.usermanagement.dto.UserSearchCriteria;
+import com.example.usermanagement.dto.UserView;
+import com.example.usermanagement.model.User;
+import com.mongodb.ErrorCategory;
+import com.mongodb.ReadPreference;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * {@link MongoTemplate} based implementation of {@link UserRepositoryCustom}.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructs the fragment with the given {@link MongoTemplate}.
+     *
+     * @param mongoTemplate the template used to talk to MongoDB
+     */
+    public UserRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Integer> insertAllUnordered(List<User> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        operations.insert(users);
+        try {
+            operations.execute();
+            return List.of();
+        } catch (BulkOperationException ex) {
+            List<Integer> duplicates = new ArrayList<>();
+            for (BulkWriteError error : ex.getErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY
+                        || !error.getMessage().contains(User.EMAIL_INDEX)) {
+                    throw ex;
+                }
+                duplicates.add(error.getIndex());
+            }
+            return duplicates;
+        }
+    }
+
+    @Override
+    public Optional<User> findById(String id, ReadPreference readPreference) {
+        Query query = Query.query(Criteria.where("id").is(id)).withReadPreference(readPreference);
+        return Optional.ofNullable(mongoTemplate.findOne(query, User.class));
+    }
+
+    @Override
+    public List<User> findAllById(Collection<String> ids, ReadPreference readPreference) {
+        Query query = Query.query(Criteria.where("id").in(ids)).withReadPreference(readPreference);
+        return mongoTemplate.find(query, User.class);
+    }
+
+    @Override
+    public Optional<Long> findVersionById(String id) {
+        Query query = Query.query(Criteria.where("id").is(id));
+        query.fields().include("version");
+        Document document = mongoTemplate.findOne(query, Document.class, mongoTemplate.getCollectionName(User.class));
+        if (document == null) {
+            return Optional.empty();
+        }
+        Number version = document.get("version", Number.class);
+        return Optional.of(version == null ? 0L : version.longValue());
+    }
+
+    @Override
+    public Optional<UserView> findViewById(String id, Collection<String> fields) {
+        Query query = Query.query(Criteria.where("id").is(id));
+        fields.forEach(query.fields()::include);
+        if (!fields.contains("id")) {
+            query.fields().exclude("id");
+        }
+        return Optional.ofNullable(mongoTemplate.findOne(query, UserView.class, mongoTemplate.getCollectionName(User.class)));
+    }
+
+    @Override
+    public List<User> findPage(UserSearchCriteria criteria, UserCursor after, int limit) {
+        List<Criteria> filters = new ArrayList<>();
+        if (criteria.getCountry() != null) {
+            filters.add(Criteria.where("country").is(criteria.getCountry()));
+        }
+        if (criteria.getNotificationPreference() != null) {
+            filters.add(Criteria.where("notificationPreference").is(criteria.getNotificationPreference()));
+        }
+        if (criteria.getMinAge() != null || criteria.getMaxAge() != null) {
+            Criteria age = Criteria.where("age");
+            if (criteria.getMinAge() != null) {
+                age.gte(criteria.getMinAge());
+            }
+            if (criteria.getMaxAge() != null) {
+                age.lte(criteria.getMaxAge());
+            }
+            filters.add(age);
+        }
+        if (criteria.getRegisteredFrom() != null || criteria.getRegisteredTo() != null) {
+            Criteria registrationDate = Criteria.where("registrationDate");
+            if (criteria.getRegisteredFrom() != null) {
+                registrationDate.gte(criteria.getRegisteredFrom());
+            }
+            if (criteria.getRegisteredTo() != null) {
+                registrationDate.lte(criteria.getRegisteredTo());
+            }
+            filters.add(registrationDate);
+        }
+        if (after != null) {
+            // Strictly after the cursor in (registrationDate desc, id desc) order
+            filters.add(new Criteria().orOperator(
+                    Criteria.where("registrationDate").lt(after.registrationDate()),
+                    Criteria.where("registrationDate").is(after.registrationDate()).and("id").lt(after.id())));
+        }
+
+        Query query = new Query();
+        if (!filters.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(filters));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "registrationDate", "id")).limit(limit);
+        return mongoTemplate.find(query, User.class);
+    }
+
+    @Override
+    public Stream<User> streamAfter(String afterId, int batchSize) {
+        Query query = new Query();
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("id").gt(afterId));
+        }
+        query.with(Sort.by(Sort.Direction.ASC, "id")).cursorBatchSize(batchSize);
+        return mongoTemplate.stream(query, User.class);
+    }
+
+    @Override
+    public Stream<String> streamNormalizedEmails(int batchSize) {
+        Query query = Query.query(Criteria.where("normalizedEmail").exists(true))
+                .withHint(User.EMAIL_INDEX)
+                .cursorBatchSize(batchSize);
+        query.fields().include("normalizedEmail").exclude("_id");
+        return mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(User.class))
+                .map(document -> document.getString("normalizedEmail"));
+    }
+
+    @Override
+    public boolean hasUniqueEmailIndex() {
+        return mongoTemplate.indexOps(User.class).getIndexInfo().stream()
+                .anyMatch(index -> index.isUnique() && User.EMAIL_INDEX.equals(index.getName()));
+    }
+
+    @Override
+    public List<User> findWelcomePending(LocalDateTime pendingBefore, int limit) {
+        Query query = Query.query(Criteria.where("welcomePendingSince").lte(pendingBefore)).limit(limit);
+        return mongoTemplate.find(query, User.class);
+    }
+
+    @Override
+    public void clearWelcomePending(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(Query.query(Criteria.where("id").in(ids)), new Update().unset("welcomePendingSince"),
+                User.class);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.usermanagement.repository;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Snapshot file of the {@link InMemoryUserRepository}, written and read through memory-mapped windows.
+ *
+ * The file starts with a magic number and the user count, followed by one length-prefixed record per
+ * user. Strings are stored as length-prefixed UTF-8, with a length of -1 for {@code null}.
+ * Snapshots are written to a temporary file that then replaces the previous snapshot atomically,
+ * so a crash while writing leaves the previous snapshot intact.
+ */
+final class UserSnapshot {
+
+    private static final int MAGIC = 0x55534E31;
+
+    /**
+     * Size of the file regions mapped at once.
+     */
+    private static final int WINDOW = 16 << 20;
+
+    private UserSnapshot() {
+    }
+
+    /**
+     * Writes the users to the snapshot file, replacing the previous snapshot.
+     *
+     * @param path  the snapshot file
+     * @param users the users to write
+     * @throws IOException if the snapshot cannot be written
+     */
+    static void write(Path path, Collection<CompactUser> users) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Window out = new Window(channel, FileChannel.MapMode.READ_WRITE);
+            out.require(8).putInt(MAGIC).putInt(users.size());
+            for (CompactUser user : users) {
+                byte[][] strings = {bytes(user.id()), bytes(user.name()), bytes(user.country()), bytes(user.email()),
+                        bytes(user.phone()), bytes(user.notificationPreference())};
+                int size = Integer.BYTES + 2 * Long.BYTES;
+                for (byte[] string : strings) {
+                    size += Integer.BYTES + (string == null ? 0 : string.length);
+                }
+                MappedByteBuffer buffer = out.require(Integer.BYTES + size);
+                buffer.putInt(size);
+                for (byte[] string : strings) {
+                    if (string == null) {
+                        buffer.putInt(-1);
+                    } else {
+                        buffer.putInt(string.length).put(string);
+                    }
+                }
+                buffer.putInt(user.age()).putLong(user.registrationMillis()).putLong(user.version());
+            }
+            long length = out.position();
+            out.force();
+            channel.truncate(length);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the users of a snapshot file.
+     *
+     * @param path   the snapshot file
+     * @param intern returns the canonical instance of a low-cardinality value
+     * @return the users, in the order they were written
+     * @throws IOException if the file cannot be read or is not a complete snapshot
+     */
+    static List<CompactUser> read(Path path, UnaryOperator<String> intern) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Window in = new Window(channel, FileChannel.MapMode.READ_ONLY);
+            MappedByteBuffer header = in.require(8);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a user snapshot: " + path);
+            }
+            int count = header.getInt();
+            List<CompactUser> users = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int size = in.require(Integer.BYTES).getInt();
+                MappedByteBuffer buffer = in.require(size);
+                String id = string(buffer);
+                String name = string(buffer);
+                String country = intern.apply(string(buffer));
+                String email = string(buffer);
+                String phone = string(buffer);
+                String notificationPreference = intern.apply(string(buffer));
+                users.add(new CompactUser(id, name, buffer.getInt(), country, email, phone, notificationPreference,
+                        buffer.getLong(), buffer.getLong()));
+            }
+            return users;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sequential access to a file through a sliding memory-mapped region.
+     */
+    private static final class Window {
+
+        private final FileChannel channel;
+        private final FileChannel.MapMode mode;
+        private MappedByteBuffer buffer;
+        private long start;
+
+        Window(FileChannel channel, FileChannel.MapMode mode) {
+            this.channel = channel;
+            this.mode = mode;
+        }
+
+        /**
+         * Returns the mapped region positioned at the current offset, remapping it so that at least
+         * {@code bytes} bytes can be accessed without crossing its end.
+         */
+        MappedByteBuffer require(int bytes) throws IOException {
+            if (buffer != null && buffer.remaining() >= bytes) {
+                return buffer;
+            }
+            long position = position();
+            long size = Math.max(WINDOW, bytes);
+            if (mode == FileChannel.MapMode.READ_ONLY) {
+                long available = channel.size() - position;
+                if (available < bytes) {
+                    throw new IOException("Truncated user snapshot");
+                }
+                size = Math.min(size, available);
+            } else {
+                force();
+            }
+            buffer = channel.map(mode, position, size);
+            start = position;
+            return buffer;
+        }
+
+        long position() {
+            return buffer == null ? 0 : start + buffer.position();
+        }
+
+        void force() {
+            if (buffer != null) {
+                buffer.force();
+            }
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.config.RegistrationProperties;
+import com.example.usermanagement.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter of the normalized emails of registered users, so that duplicate checks can skip the
+ * database query for emails that are definitely not registered, which is the case for most registrations.
+ *
+ * The filter is built by a streaming scan of the {@code users} collection once the application is ready,
+ * and rebuilt every {@code user.registration.email-filter.rebuild-interval} to pick up emails registered
+ * through other instances. Registrations through this instance are added as they happen, and those through
+ * other instances too when the {@link UserChangeStreamListener} is enabled. Until the first
+ * build completes, and when the filter is disabled, every email is reported as possibly registered.
+ * An email registered through another instance since the last build may be reported as absent, so the
+ * {@link UserService} only consults the filter while the unique email index is known to exist: the index then
+ * rejects such a duplicate, and the filter only ever saves queries.
+ *
+ * Checks are counted under {@code user.email-filter.checks} by result, and the size, fill and estimated
+ * false-positive rate of the filter are published as {@code user.email-filter.*} gauges.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class EmailBloomFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailBloomFilter.class);
+
+    private static final String METRIC_NAME = "user.email-filter";
+
+    private final RegistrationProperties.EmailFilter properties;
+    private final UserRepository userRepository;
+    private final Counter absent;
+    private final Counter maybePresent;
+    private final Counter warming;
+    private final Timer rebuilds;
+    private volatile Bits bits;
+    private volatile Bits rebuilding;
+
+    /**
+     * Constructs the filter and registers its metrics. The filter is empty until it is first built.
+     *
+     * @param properties     the registration settings
+     * @param userRepository the repository the filter is built from
+     * @param registry       the registry the filter metrics are published to
+     */
+    @Autowired
+    public EmailBloomFilter(RegistrationProperties properties, UserRepository userRepository, MeterRegistry registry) {
+        this.properties = properties.getEmailFilter();
+        this.userRepository = userRepository;
+        this.absent = checkCounter(registry, "absent");
+        this.maybePresent = checkCounter(registry, "maybe_present");
+        this.warming = checkCounter(registry, "warming");
+        this.rebuilds = Timer.builder(METRIC_NAME + ".rebuild")
+                .description("Duration of email filter builds")
+                .register(registry);
+        Gauge.builder(METRIC_NAME + ".ready", this, filter -> filter.isReady() ? 1 : 0)
+                .description("Whether the email filter has been built")
+                .register(registry);
+        Gauge.builder(METRIC_NAME + ".bits", this, filter -> filter.bits == null ? 0 : filter.bits.size)
+                .description("Size of the email filter")
+                .baseUnit("bits")
+                .register(registry);
+        Gauge.builder(METRIC_NAME + ".emails", this, filter -> filter.bits == null ? 0 : filter.bits.insertions.sum())
+                .description("Emails added to the email filter since it was built")
+                .register(registry);
+        Gauge.builder(METRIC_NAME + ".false-positive-rate", this,
+                        filter -> filter.bits == null ? 1 : filter.bits.falsePositiveRate())
+                .description("Estimated false-positive rate of the email filter, from its fill ratio")
+                .register(registry);
+    }
+
+    private static Counter checkCounter(MeterRegistry registry, String result) {
+        return Counter.builder(METRIC_NAME + ".checks")
+                .description("Email filter checks by result")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Tells whether an email may be registered.
+     *
+     * @param normalizedEmail the normalized email
+     * @return {@code false} if the email is definitely not registered, {@code true} if it may be,
+     * or if the filter is disabled or not built yet
+     */
+    public boolean mightContain(String normalizedEmail) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        Bits current = bits;
+        if (current == null) {
+            warming.increment();
+            return true;
+        }
+        if (current.mightContain(hash(normalizedEmail))) {
+            maybePresent.increment();
+            return true;
+        }
+        absent.increment();
+        return false;
+    }
+
+    /**
+     * Adds the email of a registered user. Must be called for every registration, so that
+     * later duplicate checks of the email query the database.
+     *
+     * @param normalizedEmail the normalized email
+     */
+    public void add(String normalizedEmail) {
+        if (normalizedEmail == null) {
+            return;
+        }
+        long hash = hash(normalizedEmail);
+        Bits current = bits;
+        if (current != null) {
+            current.put(hash);
+        }
+        Bits next = rebuilding;
+        if (next != null) {
+            next.put(hash);
+        }
+    }
+
+    /**
+     * Adds the email set by a change made through any instance, as reported by the {@link UserChangeStreamListener}.
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        add(event.normalizedEmail());
+    }
+
+    /**
+     * Rebuilds the filter in the background when changes may have been missed.
+     *
+     * @param event the notice of missed changes
+     */
+    @EventListener
+    public void onUserChangesMissed(UserChangesMissedEvent event) {
+        warmUp();
+    }
+
+    /**
+     * Tells whether the filter has been built and is consulted by duplicate checks.
+     *
+     * @return {@code true} once the first build has completed, unless the filter is disabled
+     */
+    public boolean isReady() {
+        return properties.isEnabled() && bits != null;
+    }
+
+    /**
+     * Builds the filter in the background once the application is ready, so that startup is not delayed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Thread thread = new Thread(this::rebuild, "email-filter-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Builds a new filter from the {@code users} collection and replaces the current one.
+     * Emails added while the scan runs go to both filters. Failures are logged and leave the current filter in place.
+     */
+    @Scheduled(fixedDelayString = "${user.registration.email-filter.rebuild-interval:6h}",
+            initialDelayString = "${user.registration.email-filter.rebuild-interval:6h}")
+    public synchronized void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Bits next = new Bits(properties.getExpectedEmails(), properties.getFalsePositiveRate());
+        rebuilding = next;
+        long start = System.nanoTime();
+        try (Stream<String> emails = userRepository.streamNormalizedEmails(properties.getScanBatchSize())) {
+            emails.forEach(email -> next.put(hash(email)));
+            bits = next;
+            long elapsed = System.nanoTime() - start;
+            rebuilds.record(elapsed, TimeUnit.NANOSECONDS);
+            logger.info("Built the email filter from {} emails in {} ms ({} bits, {} hashes)",
+                    next.insertions.sum(), elapsed / 1_000_000, next.size, next.hashes);
+        } catch (RuntimeException e) {
+            logger.error("Could not build the email filter", e);
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    /**
+     * Hashes an email to 64 bits: FNV-1a over its characters, finalized with the MurmurHash3 mixer.
+     */
+    static long hash(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < email.length(); i++) {
+            hash ^= email.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Bit array of a Bloom filter, updated lock-free. The bit positions of an element are derived from
+     * two hashes by double hashing.
+     */
+    static final class Bits {
+
+        final long size;
+        final int hashes;
+        final LongAdder insertions = new LongAdder();
+        private final AtomicLongArray words;
+
+        /**
+         * Sizes the bit array for the expected number of elements and false-positive rate.
+         */
+        Bits(long expectedElements, double falsePositiveRate) {
+            long elements = Math.max(1, expectedElements);
+            double rate = Math.min(Math.max(falsePositiveRate, Double.MIN_VALUE), 0.5);
+            long optimalSize = (long) Math.ceil(-elements * Math.log(rate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE, Math.max(1, (optimalSize + 63) / 64)));
+            this.size = (long) words.length() * 64;
+            this.hashes = (int) Math.max(1, Math.round((double) size / elements * Math.log(2)));
+        }
+
+        void put(long hash) {
+            long first = hash;
+            long second = mix(hash ^ 0x9e3779b97f4a7c15L);
+            for (int i = 1; i <= hashes; i++) {
+                set(position(first + i * second));
+            }
+            insertions.increment();
+        }
+
+        boolean mightContain(long hash) {
+            long first = hash;
+            long second = mix(hash ^ 0x9e3779b97f4a7c15L);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = position(first + i * second);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Estimates the current false-positive rate as the fill ratio to the power of the number of hashes.
+         */
+        double falsePositiveRate() {
+            long setBits = 0;
+            for (int i = 0; i < words.length(); i++) {
+                setBits += Long.bitCount(words.get(i));
+            }
+            return Math.pow((double) setBits / size, hashes);
+        }
+
+        private long position(long combined) {
+            return (combined & Long.MAX_VALUE) % size;
+        }
+
+        private void set(long bit) {
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long word;
+            do {
+                word = words.get(index);
+                if ((word & mask) != 0) {
+                    return;
+                }
+            } while (!words.compareAndSet(index, word, word | mask));
+        }
+    }
+}
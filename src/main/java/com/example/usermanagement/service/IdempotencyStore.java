@@ -0,0 +1,165 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.config.ConditionalOnStorageEngine;
+import com.example.usermanagement.config.IdempotencyProperties;
+import com.example.usermanagement.config.StorageProperties;
+import com.example.usermanagement.model.IdempotencyRecord;
+import com.example.usermanagement.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Remembers idempotency keys and the responses of the requests made with them.
+ *
+ * Keys are held in a bounded in-memory cache, so that retries reaching the same instance are answered
+ * without a database round trip, and in the {@code idempotency_keys} collection, so that retries reaching
+ * another instance are deduplicated as well. If MongoDB is unavailable the store degrades to in-memory
+ * deduplication rather than failing the request.
+ */
+@Service
+@ConditionalOnProperty(name = "user.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnStorageEngine(StorageProperties.Engine.MONGO)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyRecordRepository repository;
+    private final Duration ttl;
+    private final Duration lockTimeout;
+    private final Cache<String, IdempotencyRecord> records;
+
+    /**
+     * Constructs the store.
+     *
+     * @param repository the repository persisting the keys
+     * @param properties the idempotency settings
+     */
+    @Autowired
+    public IdempotencyStore(IdempotencyRecordRepository repository, IdempotencyProperties properties) {
+        this.repository = repository;
+        this.ttl = properties.getTtl();
+        this.lockTimeout = properties.getLockTimeout();
+        this.records = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+    }
+
+    /**
+     * Claims a key for a new request, unless it is already known.
+     *
+     * @param key         the idempotency key
+     * @param requestHash the hash of the request
+     * @return empty if the key was claimed and the request should proceed, otherwise the existing record,
+     * which is either completed or still claimed by another request
+     */
+    public Optional<IdempotencyRecord> claim(String key, String requestHash) {
+        IdempotencyRecord claim = new IdempotencyRecord();
+        claim.setKey(key);
+        claim.setRequestHash(requestHash);
+        claim.setExpiresAt(claim.getCreatedAt().plus(ttl));
+
+        IdempotencyRecord known = records.asMap().putIfAbsent(key, claim);
+        if (known != null) {
+            return Optional.of(known);
+        }
+        try {
+            repository.insert(claim);
+            return Optional.empty();
+        } catch (DuplicateKeyException e) {
+            try {
+                return claimExisting(key, claim);
+            } catch (RuntimeException failure) {
+                // Another instance holds the key, so the request must not proceed; it may be retried
+                records.asMap().remove(key, claim);
+                throw failure;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not persist idempotency key, deduplicating in memory only: {}", e.toString());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Records the response of a request and releases its claim on the key. The response is persisted even if
+     * the claim has been evicted from the local cache meanwhile, so that retries get it replayed.
+     *
+     * @param key         the idempotency key
+     * @param requestHash the hash of the request
+     * @param status      the HTTP status of the response
+     * @param contentType the content type of the response, or {@code null}
+     * @param body        the response body
+     */
+    public void complete(String key, String requestHash, int status, String contentType, byte[] body) {
+        IdempotencyRecord completed = new IdempotencyRecord();
+        completed.setKey(key);
+        completed.setRequestHash(requestHash);
+        completed.setCompleted(true);
+        completed.setStatus(status);
+        completed.setContentType(contentType);
+        completed.setBody(body);
+        IdempotencyRecord claim = records.getIfPresent(key);
+        if (claim != null) {
+            completed.setCreatedAt(claim.getCreatedAt());
+        }
+        completed.setExpiresAt(completed.getCreatedAt().plus(ttl));
+        records.put(key, completed);
+        try {
+            repository.save(completed);
+        } catch (DataAccessException e) {
+            log.warn("Could not persist the response for an idempotency key: {}", e.toString());
+        }
+    }
+
+    /**
+     * Forgets a claimed key without recording a response, so that the request can be retried.
+     *
+     * @param key the idempotency key
+     */
+    public void release(String key) {
+        records.invalidate(key);
+        try {
+            repository.deleteById(key);
+        } catch (DataAccessException e) {
+            log.warn("Could not release an idempotency key: {}", e.toString());
+        }
+    }
+
+    /**
+     * Resolves a key that another instance has already stored. A completed record is cached locally;
+     * a claim older than the lock timeout is taken over with a conditional update, so that only one
+     * request takes it over.
+     */
+    private Optional<IdempotencyRecord> claimExisting(String key, IdempotencyRecord claim) {
+        Optional<IdempotencyRecord> existing = repository.findById(key);
+        if (existing.isEmpty()) {
+            // Expired meanwhile; fails with a DuplicateKeyException if another request claimed it first
+            repository.insert(claim);
+            return Optional.empty();
+        }
+        if (existing.get().isCompleted()) {
+            records.put(key, existing.get());
+            return existing;
+        }
+        LocalDateTime abandonedBefore = LocalDateTime.now().minus(lockTimeout);
+        if (existing.get().getCreatedAt().isBefore(abandonedBefore) && repository.takeOver(claim, abandonedBefore)) {
+            // Abandoned by a request that never completed
+            return Optional.empty();
+        }
+        records.invalidate(key);
+        return existing;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.model.NotificationOutboxEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@link NotificationSender} stub that logs notifications instead of delivering them.
+ * Handles every channel. Used until a real sender is configured; disable it with
+ * {@code user.notifications.sender=none}.
+ */
+@Component
+@ConditionalOnProperty(name = "user.notifications.sender", havingValue = "logging", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LoggingNotificationSender implements NotificationSender {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingNotificationSender.class);
+
+    @Override
+    public boolean supports(String channel) {
+        return true;
+    }
+
+    @Override
+    public void send(String channel, List<NotificationOutboxEntry> notifications) {
+        log.info("Sending {} welcome notification(s) over {}", notifications.size(), channel);
+        if (log.isDebugEnabled()) {
+            notifications.forEach(notification ->
+                    log.debug("Welcome {} to {} <{}>", channel, notification.getName(), notification.getRecipient()));
+        }
+    }
+}
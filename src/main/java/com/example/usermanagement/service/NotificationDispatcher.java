@@ -0,0 +1,332 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.config.ConditionalOnStorageEngine;
+import com.example.usermanagement.config.NotificationProperties;
+import com.example.usermanagement.config.StorageProperties;
+import com.example.usermanagement.model.NotificationOutboxEntry;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.NotificationOutboxRepository;
+import com.example.usermanagement.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Delivers a welcome notification to every registered user, over the channel of their notification preference.
+ *
+ * On registration the users are handed to a writer thread, which writes their entries to the notification outbox
+ * in batches and puts them on a bounded in-memory queue; the registering request neither writes to the outbox nor
+ * waits for delivery. The outbox entry is written after the user, so the user is inserted with a pending
+ * notification marker ({@link User#getWelcomePendingSince()}): the sweep writes the entries of users still marked
+ * a lease after their registration, e.g. because the instance stopped, the hand-off queue was full or the outbox
+ * write failed, and removes the marker once the entry exists. Worker threads drain the queue in batches, group
+ * them by channel and hand them to the matching {@link NotificationSender}. Delivered entries are marked
+ * as sent; failed ones are scheduled for a retry with exponential backoff, up to
+ * {@code user.notifications.max-attempts}.
+ *
+ * A periodic sweep claims due entries from the outbox: retries, entries that did not fit into the full
+ * queue, and entries that were queued by an instance that stopped before delivering them. Delivery is
+ * therefore at least once. The outcome of a failed attempt is only recorded while the entry is still claimed by
+ * this instance.
+ */
+@Service
+@ConditionalOnProperty(name = "user.notifications.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnStorageEngine(StorageProperties.Engine.MONGO)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    static final String METRIC_NAME = "user.notifications";
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final UserRepository userRepository;
+    private final List<NotificationSender> senders;
+    private final NotificationProperties properties;
+    private final MeterRegistry registry;
+    private final BlockingQueue<User> registered;
+    private final BlockingQueue<NotificationOutboxEntry> queue;
+    private final Counter deferred;
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    /**
+     * Constructs the dispatcher. The workers are started once the bean is initialized.
+     *
+     * @param outboxRepository the repository holding the outbox entries
+     * @param userRepository   the repository holding the users marked with a pending notification
+     * @param senders          the available senders, in order of preference
+     * @param properties       the notification settings
+     * @param registry         the registry the delivery metrics are published to
+     */
+    @Autowired
+    public NotificationDispatcher(NotificationOutboxRepository outboxRepository, UserRepository userRepository,
+                                  List<NotificationSender> senders, NotificationProperties properties,
+                                  MeterRegistry registry) {
+        this.outboxRepository = outboxRepository;
+        this.userRepository = userRepository;
+        this.senders = senders;
+        this.properties = properties;
+        this.registry = registry;
+        this.registered = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.deferred = Counter.builder(METRIC_NAME)
+                .description("Welcome notifications by outcome")
+                .tag("channel", "any")
+                .tag("outcome", "deferred")
+                .register(registry);
+        registry.gauge(METRIC_NAME + ".queued", queue, BlockingQueue::size);
+    }
+
+    /**
+     * Starts the outbox writer and the worker threads.
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(properties.getWorkers() + 1, runnable -> {
+            Thread thread = new Thread(runnable, "notification-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        workers.execute(() -> drain(registered, this::writeOutbox));
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            workers.execute(() -> drain(queue, this::dispatch));
+        }
+    }
+
+    /**
+     * Stops the worker threads. Queued entries are left in the outbox and delivered after their lease expires;
+     * the entries of users not yet written are recovered by the sweep of another instance.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Hands the registered users to the outbox writer, without blocking the registering request.
+     * When the hand-off queue is full, the users keep their pending marker and their notifications are
+     * recovered by a later sweep.
+     *
+     * @param event the registration event
+     */
+    @EventListener
+    public void onUsersRegistered(UsersRegisteredEvent event) {
+        for (User user : event.users()) {
+            if (!registered.offer(user)) {
+                deferred.increment();
+            }
+        }
+    }
+
+    /**
+     * Writes an outbox entry for each registered user and queues it for delivery.
+     * Failures are logged rather than thrown, as the users are already registered; their notifications are
+     * recovered by a later sweep.
+     *
+     * @param users the registered users
+     */
+    void writeOutbox(List<User> users) {
+        LocalDateTime leasedUntil = LocalDateTime.now().plus(properties.getLease());
+        List<NotificationOutboxEntry> entries = new ArrayList<>(users.size());
+        for (User user : users) {
+            entries.add(newEntry(user, leasedUntil));
+        }
+        List<NotificationOutboxEntry> written;
+        try {
+            written = outboxRepository.insertAbsent(entries);
+        } catch (RuntimeException e) {
+            log.error("Could not write {} welcome notification(s) to the outbox, they are recovered by a later sweep",
+                    entries.size(), e);
+            return;
+        }
+        written.forEach(this::enqueue);
+    }
+
+    /**
+     * Recovers the notifications of users still marked as pending, then claims due entries from the outbox,
+     * as many as fit into the queue.
+     */
+    @Scheduled(fixedDelayString = "${user.notifications.sweep-interval:30s}",
+            initialDelayString = "${user.notifications.sweep-interval:30s}")
+    public void sweep() {
+        try {
+            recoverPending();
+        } catch (RuntimeException e) {
+            log.warn("Could not recover pending welcome notifications", e);
+        }
+        int capacity = queue.remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+        try {
+            outboxRepository.claimDue(properties.getLease(), capacity).forEach(this::enqueue);
+        } catch (RuntimeException e) {
+            log.warn("Could not sweep the notification outbox", e);
+        }
+    }
+
+    /**
+     * Delivers a batch of entries, grouped by channel, and records the outcome in the outbox.
+     *
+     * @param batch the entries to deliver
+     */
+    void dispatch(List<NotificationOutboxEntry> batch) {
+        Map<String, List<NotificationOutboxEntry>> byChannel = new LinkedHashMap<>();
+        batch.forEach(entry -> byChannel.computeIfAbsent(entry.getChannel(), channel -> new ArrayList<>()).add(entry));
+
+        byChannel.forEach((channel, entries) -> {
+            NotificationSender sender = senderFor(channel);
+            if (sender == null) {
+                failed(channel, entries, "No sender for channel " + channel, false);
+                return;
+            }
+            try {
+                sender.send(channel, entries);
+            } catch (RuntimeException e) {
+                log.warn("Delivery of {} {} notification(s) failed: {}", entries.size(), channel, e.toString());
+                failed(channel, entries, e.toString(), true);
+                return;
+            }
+            outboxRepository.markSent(entries.stream().map(NotificationOutboxEntry::getId).toList());
+            counter(channel, "sent").increment(entries.size());
+        });
+    }
+
+    /**
+     * Writes the missing outbox entries of users marked as pending for longer than the lease, and removes the
+     * marker of those users. Most of them already have their entry, written on registration; the others become
+     * due immediately.
+     */
+    void recoverPending() {
+        LocalDateTime now = LocalDateTime.now();
+        List<User> users;
+        do {
+            users = userRepository.findWelcomePending(now.minus(properties.getLease()), properties.getBatchSize());
+            if (users.isEmpty()) {
+                return;
+            }
+            List<NotificationOutboxEntry> entries = new ArrayList<>(users.size());
+            users.forEach(user -> entries.add(newEntry(user, now)));
+            int recovered = outboxRepository.insertAbsent(entries).size();
+            if (recovered > 0) {
+                log.info("Recovered {} welcome notification(s) missing from the outbox", recovered);
+            }
+            userRepository.clearWelcomePending(users.stream().map(User::getId).toList());
+        } while (users.size() == properties.getBatchSize());
+    }
+
+    /**
+     * Hands the elements of a queue to a consumer in batches, until the dispatcher stops.
+     */
+    private <T> void drain(BlockingQueue<T> source, Consumer<List<T>> consumer) {
+        List<T> batch = new ArrayList<>(properties.getBatchSize());
+        while (running) {
+            try {
+                T first = source.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                source.drainTo(batch, properties.getBatchSize() - 1);
+                consumer.accept(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // The entries are redelivered once their lease expires
+                log.error("Could not record the delivery of {} notification(s)", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void enqueue(NotificationOutboxEntry entry) {
+        // Under backpressure the entry stays in the outbox and is claimed by a sweep after its lease
+        if (!queue.offer(entry)) {
+            deferred.increment();
+        }
+    }
+
+    private void failed(String channel, List<NotificationOutboxEntry> entries, String error, boolean retryable) {
+        LocalDateTime now = LocalDateTime.now();
+        List<LocalDateTime> claimedUntil = new ArrayList<>(entries.size());
+        for (NotificationOutboxEntry entry : entries) {
+            claimedUntil.add(entry.getNextAttemptAt());
+            entry.setAttempts(entry.getAttempts() + 1);
+            entry.setLastError(error);
+            if (retryable && entry.getAttempts() < properties.getMaxAttempts()) {
+                entry.setStatus(NotificationOutboxEntry.Status.PENDING);
+                entry.setNextAttemptAt(now.plus(backoff(entry.getAttempts())));
+                counter(channel, "retried").increment();
+            } else {
+                entry.setStatus(NotificationOutboxEntry.Status.FAILED);
+                counter(channel, "failed").increment();
+            }
+        }
+        int recorded = outboxRepository.recordFailures(entries, claimedUntil);
+        if (recorded < entries.size()) {
+            log.debug("{} of {} failed {} notification(s) were claimed again or delivered meanwhile",
+                    entries.size() - recorded, entries.size(), channel);
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        return properties.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 16));
+    }
+
+    private NotificationSender senderFor(String channel) {
+        for (NotificationSender sender : senders) {
+            if (sender.supports(channel)) {
+                return sender;
+            }
+        }
+        return null;
+    }
+
+    private Counter counter(String channel, String outcome) {
+        return registry.counter(METRIC_NAME, "channel", channel, "outcome", outcome);
+    }
+
+    private static NotificationOutboxEntry newEntry(User user, LocalDateTime leasedUntil) {
+        NotificationOutboxEntry entry = new NotificationOutboxEntry();
+        entry.setUserId(user.getId());
+        entry.setName(user.getName());
+        String channel = user.getNotificationPreference() == null
+                ? "email" : user.getNotificationPreference().toLowerCase(Locale.ROOT);
+        entry.setChannel(channel);
+        entry.setRecipient("sms".equals(channel) ? user.getPhone() : user.getEmail());
+        entry.setNextAttemptAt(leasedUntil);
+        return entry;
+    }
+}
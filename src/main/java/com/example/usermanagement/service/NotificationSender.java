@@ -0,0 +1,30 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.model.NotificationOutboxEntry;
+
+import java.util.List;
+
+/**
+ * Delivers notifications over one or more channels, e.g. an email gateway.
+ * Implementations are picked up as beans by the {@link NotificationDispatcher}; the first sender
+ * that supports the channel of a notification is used.
+ */
+public interface NotificationSender {
+
+    /**
+     * Tells whether this sender delivers notifications over the given channel.
+     *
+     * @param channel the channel, e.g. "email" or "sms"
+     * @return {@code true} if the channel is supported
+     */
+    boolean supports(String channel);
+
+    /**
+     * Delivers a batch of notifications that all use the given channel.
+     * Throwing an exception marks the whole batch for a retry.
+     *
+     * @param channel       the channel of the notifications
+     * @param notifications the notifications to deliver
+     */
+    void send(String channel, List<NotificationOutboxEntry> notifications);
+}
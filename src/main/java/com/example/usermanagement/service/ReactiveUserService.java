@@ -0,0 +1,110 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.config.RegistrationProperties;
+import com.example.usermanagement.exception.DuplicateEmailException;
+import com.example.usermanagement.exception.UserNotFoundException;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.ReactiveUserRepository;
+import com.example.usermanagement.repository.UserRepositoryCustom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reactive counterpart of {@link UserService}, active when the application runs as a reactive web application.
+ * It applies the same registration rules, but never blocks the calling thread.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserService.class);
+
+    /**
+     * Interval between two checks of the unique email index while it is missing.
+     */
+    private static final long EMAIL_INDEX_RECHECK_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ReactiveUserRepository userRepository;
+    private final RegistrationProperties.DuplicateCheck duplicateCheck;
+    private volatile boolean emailIndexVerified;
+    private volatile long nextEmailIndexCheck;
+
+    /**
+     * Constructs a new {@link ReactiveUserService} instance.
+     *
+     * @param userRepository         the reactive repository to interact with user data
+     * @param registrationProperties the registration settings
+     */
+    @Autowired
+    public ReactiveUserService(ReactiveUserRepository userRepository, RegistrationProperties registrationProperties) {
+        this.userRepository = userRepository;
+        this.duplicateCheck = registrationProperties.getDuplicateCheck();
+        this.nextEmailIndexCheck = System.nanoTime();
+    }
+
+    /**
+     * Registers a new user in the system.
+     * Duplicate emails are detected as configured by {@code user.registration.duplicate-check}; index mode
+     * looks the email up as well while the unique email index is missing.
+     *
+     * @param user The user entity to be registered.
+     * @return A Mono emitting the saved user entity, or a {@link DuplicateEmailException} if the email is already registered.
+     */
+    public Mono<User> registerUser(User user) {
+        Mono<User> insert = userRepository.insert(user)
+                .onErrorMap(e -> e instanceof DuplicateKeyException duplicate
+                                && UserRepositoryCustom.isDuplicateEmail(duplicate),
+                        e -> new DuplicateEmailException("Email already exists: " + user.getEmail()));
+        Mono<User> lookupThenInsert = userRepository.findByNormalizedEmail(user.getNormalizedEmail())
+                .flatMap(existing -> Mono.<User>error(new DuplicateEmailException("Email already exists: " + user.getEmail())))
+                .switchIfEmpty(insert);
+        return relyOnEmailIndex().flatMap(index -> index ? insert : lookupThenInsert);
+    }
+
+    /**
+     * Tells whether duplicate emails can be left to the unique email index, as {@link UserService} does:
+     * in index mode once the index is known to exist, checking again every minute while it is missing.
+     */
+    private Mono<Boolean> relyOnEmailIndex() {
+        if (duplicateCheck != RegistrationProperties.DuplicateCheck.INDEX) {
+            return Mono.just(false);
+        }
+        if (emailIndexVerified) {
+            return Mono.just(true);
+        }
+        long now = System.nanoTime();
+        if (now - nextEmailIndexCheck < 0) {
+            return Mono.just(false);
+        }
+        nextEmailIndexCheck = now + EMAIL_INDEX_RECHECK_NANOS;
+        return userRepository.hasUniqueEmailIndex()
+                .onErrorResume(e -> {
+                    logger.warn("Could not check the unique email index", e);
+                    return Mono.just(false);
+                })
+                .doOnNext(present -> {
+                    emailIndexVerified = present;
+                    if (!present) {
+                        logger.error("The unique email index is missing, registrations look emails up until it is created");
+                    }
+                });
+    }
+
+    /**
+     * Retrieves a user by their unique identifier.
+     *
+     * @param id the unique identifier of the user
+     * @return a Mono emitting the {@link User} with the given ID, or a {@link UserNotFoundException} if there is none
+     */
+    public Mono<User> getUserById(String id) {
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException("User not found with ID: " + id)));
+    }
+}
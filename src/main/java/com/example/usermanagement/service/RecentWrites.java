@@ -0,0 +1,54 @@
+package com.example.usermanagement.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Remembers the ids of recently written users for a fixed window.
+ *
+ * Used to send lookups of those users to the primary while secondaries may not have replicated
+ * the write yet. The window is tracked per application instance.
+ */
+class RecentWrites {
+
+    /**
+     * Upper bound on the remembered ids, reached only if registrations outpace the window by far.
+     * Ids evicted early fall back to the configured read preference.
+     */
+    private static final int MAX_ENTRIES = 100_000;
+
+    private final Cache<String, Boolean> ids;
+
+    /**
+     * Creates the tracker.
+     *
+     * @param window how long an id is remembered after it was written
+     */
+    RecentWrites(Duration window) {
+        this.ids = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(MAX_ENTRIES)
+                .build();
+    }
+
+    /**
+     * Records a write of the given user.
+     *
+     * @param id the id of the written user
+     */
+    void record(String id) {
+        ids.put(id, Boolean.TRUE);
+    }
+
+    /**
+     * Tells whether the given user was written within the window.
+     *
+     * @param id the id of the user
+     * @return {@code true} if the user was written recently
+     */
+    boolean contains(String id) {
+        return ids.getIfPresent(id) != null;
+    }
+}
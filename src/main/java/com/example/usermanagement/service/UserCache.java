@@ -0,0 +1,198 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.config.UserCacheProperties;
+import com.example.usermanagement.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of {@link User} lookups by id.
+ *
+ * Entries are evicted by size and by age. Ids that did not match any user are cached as well,
+ * with their own, shorter time to live. Hit, miss and eviction counters are published to the
+ * {@link MeterRegistry} under the {@code cache.*} meters with the tag {@code cache=users}.
+ * With {@code user.change-stream.enabled}, entries of users modified through other instances are
+ * removed as well, see {@link UserChangeStreamListener}.
+ *
+ * An invalidation is never undone by a lookup that read the database before it: loads run atomically
+ * with respect to invalidations of the same id, and results loaded outside the cache are only stored if
+ * their id was not invalidated since their stamp was taken, see {@link #stamp(String)}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserCache {
+
+    /**
+     * Number of invalidation counters the ids are spread over.
+     */
+    private static final int STAMP_STRIPES = 1024;
+
+    private final boolean enabled;
+    private final Cache<String, Optional<User>> cache;
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+
+    /**
+     * Constructs the cache from the {@code user.cache.*} settings and registers its metrics.
+     *
+     * @param properties    the cache settings
+     * @param meterRegistry the registry the cache metrics are published to
+     */
+    @Autowired
+    public UserCache(UserCacheProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Ticker.systemTicker());
+    }
+
+    UserCache(UserCacheProperties properties, MeterRegistry meterRegistry, Ticker ticker) {
+        this.enabled = properties.isEnabled();
+        long ttlNanos = properties.getTtl().toNanos();
+        long negativeTtlNanos = properties.getNegativeTtl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfter(new Expiry<String, Optional<User>>() {
+                    @Override
+                    public long expireAfterCreate(String id, Optional<User> user, long currentTime) {
+                        return user.isPresent() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String id, Optional<User> user, long currentTime, long currentDuration) {
+                        return expireAfterCreate(id, user, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String id, Optional<User> user, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    /**
+     * Returns the cached lookup result for the given id, loading and caching it on a miss.
+     * When the cache is disabled, every call goes to the loader. An invalidation of the id while it is
+     * loaded waits for the load and then removes its result.
+     *
+     * @param id     the unique identifier of the user
+     * @param loader the lookup performed on a miss; an empty result is cached as a negative entry
+     * @return the user, or an empty Optional if no user exists with the given id
+     */
+    public Optional<User> get(String id, Function<String, Optional<User>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        return cache.get(id, loader);
+    }
+
+    /**
+     * Returns the invalidation stamp of an id, to be taken before reading the user from the database
+     * when the result is cached with {@link #putIfNotInvalidated(String, Optional, long)}.
+     *
+     * @param id the unique identifier of the user
+     * @return the stamp
+     */
+    public long stamp(String id) {
+        return stamps.get(stripe(id));
+    }
+
+    /**
+     * Caches a lookup result loaded outside the cache, unless the id was invalidated since the stamp was
+     * taken or another result is already cached.
+     *
+     * @param id    the unique identifier of the user
+     * @param user  the user, or an empty Optional if no user exists with the given id
+     * @param stamp the stamp of the id taken before the user was read
+     */
+    public void putIfNotInvalidated(String id, Optional<User> user, long stamp) {
+        if (!enabled) {
+            return;
+        }
+        // An invalidation increments the stamp before removing the entry, so it removes what is stored here
+        cache.asMap().compute(id, (key, current) ->
+                current == null && stamps.get(stripe(key)) == stamp ? user : current);
+    }
+
+    /**
+     * Returns the user cached for the given id without loading it. The probe is not counted as a hit or miss.
+     *
+     * @param id the unique identifier of the user
+     * @return the cached user, or an empty Optional if the user is not cached or is cached as not found
+     */
+    public Optional<User> getIfCached(String id) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Optional<User> cached = cache.policy().getIfPresentQuietly(id);
+        return cached == null ? Optional.empty() : cached;
+    }
+
+    /**
+     * Removes the entry for the given id, found or not found.
+     * Must be called by every path that creates or modifies a user.
+     *
+     * @param id the unique identifier of the user
+     */
+    public void invalidate(String id) {
+        stamps.incrementAndGet(stripe(id));
+        cache.invalidate(id);
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < STAMP_STRIPES; i++) {
+            stamps.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    /**
+     * Removes the entry of a user modified through any instance, as reported by the {@link UserChangeStreamListener}.
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.id());
+    }
+
+    /**
+     * Removes all entries when changes may have been missed.
+     *
+     * @param event the notice of missed changes
+     */
+    @EventListener
+    public void onUserChangesMissed(UserChangesMissedEvent event) {
+        invalidateAll();
+    }
+
+    /**
+     * Returns a snapshot of the hit, miss and eviction counters.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static int stripe(String id) {
+        int hash = id.hashCode();
+        return (hash ^ (hash >>> 16)) & (STAMP_STRIPES - 1);
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.config.ChangeStreamProperties;
+import com.example.usermanagement.config.ConditionalOnStorageEngine;
+import com.example.usermanagement.config.StorageProperties;
+import com.example.usermanagement.model.ChangeStreamToken;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.ChangeStreamTokenRepository;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the {@code users} collection through a MongoDB change stream, so that the local caches of
+ * every instance drop users modified through any instance. This is what makes long
+ * {@code user.cache.ttl} values safe with several instances.
+ *
+ * Every insert, update, replace and delete is published as a {@link UserChangedEvent}, which the
+ * {@link UserCache} and the {@link EmailBloomFilter} listen to. The resume token of the last processed
+ * change is kept in the {@code change_stream_tokens} collection under the collection name and
+ * {@code user.change-stream.node-id}, so that the stream resumes where it stopped after an error or a
+ * restart. When it cannot resume, because the token has left the oplog or the collection was dropped,
+ * a {@link UserChangesMissedEvent} clears the caches and the stream restarts from the current time.
+ *
+ * Change streams require a replica set, so the listener is only active with {@code user.change-stream.enabled=true};
+ * a single-node replica set ({@code mongod --replSet rs0} followed by {@code rs.initiate()}) is enough locally.
+ * Processed changes are counted under {@code user.change-stream.events} by operation type.
+ */
+@Component
+@ConditionalOnProperty(name = "user.change-stream.enabled", havingValue = "true")
+@ConditionalOnStorageEngine(StorageProperties.Engine.MONGO)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserChangeStreamListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserChangeStreamListener.class);
+
+    private static final String METRIC_NAME = "user.change-stream.events";
+
+    /**
+     * Server error codes meaning that the stream cannot be resumed from the stored token.
+     */
+    private static final Set<Integer> NOT_RESUMABLE = Set.of(
+            260, // InvalidResumeToken
+            280, // ChangeStreamFatalError
+            286  // ChangeStreamHistoryLost
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final ChangeStreamTokenRepository tokenRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeStreamProperties properties;
+    private final MeterRegistry registry;
+    private final String collectionName;
+    private final String tokenId;
+    private volatile boolean running;
+    private Thread thread;
+    private BsonDocument resumeToken;
+    private BsonDocument savedToken;
+
+    /**
+     * Constructs the listener.
+     *
+     * @param mongoTemplate   the template whose client opens the change stream
+     * @param tokenRepository stores the resume token of this instance
+     * @param eventPublisher  publishes the change events to the local caches
+     * @param properties      the change stream settings
+     * @param registry        the registry the processed changes are counted in
+     */
+    @Autowired
+    public UserChangeStreamListener(MongoTemplate mongoTemplate, ChangeStreamTokenRepository tokenRepository,
+                                    ApplicationEventPublisher eventPublisher, ChangeStreamProperties properties,
+                                    MeterRegistry registry) {
+        this.mongoTemplate = mongoTemplate;
+        this.tokenRepository = tokenRepository;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.registry = registry;
+        this.collectionName = mongoTemplate.getCollectionName(User.class);
+        String nodeId = properties.getNodeId();
+        this.tokenId = collectionName + ":" + (nodeId == null || nodeId.isBlank() ? hostName() : nodeId);
+    }
+
+    /**
+     * Starts watching once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        thread = new Thread(this::watch, "user-change-stream");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching, after saving the resume token of the last processed change.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(properties.getMaxAwaitTime().toMillis() * 2 + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Processes changes until stopped, reopening the stream after errors.
+     */
+    private void watch() {
+        resumeToken = loadToken();
+        while (running) {
+            boolean resumed = resumeToken != null;
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open()) {
+                logger.info("Watching collection {} for changes{}", collectionName, resumed ? " from the saved token" : "");
+                long nextSave = System.nanoTime() + properties.getTokenSaveInterval().toNanos();
+                while (running) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change != null && !handle(change)) {
+                        restart();
+                        break;
+                    }
+                    BsonDocument token = cursor.getResumeToken();
+                    if (token != null) {
+                        resumeToken = token;
+                    }
+                    if (change == null || System.nanoTime() - nextSave >= 0) {
+                        saveToken();
+                        nextSave = System.nanoTime() + properties.getTokenSaveInterval().toNanos();
+                    }
+                }
+                saveToken();
+            } catch (MongoServerException e) {
+                if (resumeToken != null && NOT_RESUMABLE.contains(e.getCode())) {
+                    logger.warn("Cannot resume the change stream of {}: {}", collectionName, e.getMessage());
+                    restart();
+                } else {
+                    retryLater(e);
+                }
+            } catch (RuntimeException e) {
+                retryLater(e);
+            }
+        }
+    }
+
+    /**
+     * Opens the change stream, resuming after the last processed change if there is one.
+     * Only the fields the caches need are sent, with the document key and resume token.
+     */
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(collectionName)
+                .watch(List.of(Aggregates.project(Projections.include("operationType", "documentKey",
+                        "fullDocument.normalizedEmail", "updateDescription.updatedFields.normalizedEmail"))))
+                .batchSize(properties.getBatchSize())
+                .maxAwaitTime(properties.getMaxAwaitTime().toMillis(), TimeUnit.MILLISECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+        return stream.cursor();
+    }
+
+    /**
+     * Publishes a change to the local caches.
+     *
+     * @param change the change
+     * @return {@code false} if the stream was invalidated, e.g. by a dropped collection, and must be restarted
+     */
+    boolean handle(ChangeStreamDocument<Document> change) {
+        OperationType type = change.getOperationType();
+        registry.counter(METRIC_NAME, "operation", change.getOperationTypeString()).increment();
+        if (type != OperationType.INSERT && type != OperationType.UPDATE
+                && type != OperationType.REPLACE && type != OperationType.DELETE) {
+            logger.warn("The change stream of {} was interrupted by a {} event", collectionName, change.getOperationTypeString());
+            return false;
+        }
+        String id = id(change.getDocumentKey());
+        if (id != null) {
+            eventPublisher.publishEvent(new UserChangedEvent(id, normalizedEmail(change)));
+        }
+        return true;
+    }
+
+    /**
+     * Starts over from the current time, clearing the caches since changes may have been missed.
+     */
+    private void restart() {
+        resumeToken = null;
+        savedToken = null;
+        try {
+            tokenRepository.deleteById(tokenId);
+        } catch (RuntimeException e) {
+            logger.warn("Could not delete the resume token {}", tokenId, e);
+        }
+        eventPublisher.publishEvent(new UserChangesMissedEvent());
+    }
+
+    /**
+     * Waits before reopening the stream. Without a token to resume from, changes may be missed
+     * in the meantime, so the caches are cleared.
+     */
+    private void retryLater(RuntimeException e) {
+        logger.error("The change stream of {} failed, retrying in {}", collectionName, properties.getRetryBackoff(), e);
+        if (resumeToken == null) {
+            eventPublisher.publishEvent(new UserChangesMissedEvent());
+        }
+        try {
+            Thread.sleep(properties.getRetryBackoff().toMillis());
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private BsonDocument loadToken() {
+        try {
+            return tokenRepository.findById(tokenId)
+                    .map(token -> BsonDocument.parse(token.getResumeToken()))
+                    .orElse(null);
+        } catch (RuntimeException e) {
+            logger.warn("Could not load the resume token {}, starting from the current time", tokenId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Saves the resume token if it changed since it was last saved. Failures are logged; a later save catches up.
+     */
+    private void saveToken() {
+        BsonDocument token = resumeToken;
+        if (token == null || token.equals(savedToken)) {
+            return;
+        }
+        ChangeStreamToken entity = new ChangeStreamToken();
+        entity.setId(tokenId);
+        entity.setResumeToken(token.toJson());
+        entity.setUpdatedAt(LocalDateTime.now());
+        try {
+            tokenRepository.save(entity);
+            savedToken = token;
+        } catch (RuntimeException e) {
+            logger.warn("Could not save the resume token {}", tokenId, e);
+        }
+    }
+
+    private static String id(BsonDocument documentKey) {
+        BsonValue id = documentKey == null ? null : documentKey.get("_id");
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : null;
+    }
+
+    /**
+     * Returns the normalized email set by an insert, replace or update, if any.
+     */
+    private static String normalizedEmail(ChangeStreamDocument<Document> change) {
+        if (change.getFullDocument() != null) {
+            return change.getFullDocument().getString("normalizedEmail");
+        }
+        if (change.getUpdateDescription() != null && change.getUpdateDescription().getUpdatedFields() != null) {
+            BsonValue email = change.getUpdateDescription().getUpdatedFields().get("normalizedEmail");
+            return email != null && email.isString() ? email.asString().getValue() : null;
+        }
+        return null;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+}
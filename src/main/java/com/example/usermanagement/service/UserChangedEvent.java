@@ -0,0 +1,12 @@
+package com.example.usermanagement.service;
+
+/**
+ * Published by the {@link UserChangeStreamListener} for every user inserted, updated, replaced or
+ * deleted in MongoDB, by any instance. Local caches of the user must drop it.
+ * Listeners run on the change stream thread, so they should hand off slow work.
+ *
+ * @param id              the id of the user
+ * @param normalizedEmail the new normalized email of the user if it was set by the change, otherwise {@code null}
+ */
+public record UserChangedEvent(String id, String normalizedEmail) {
+}
@@ -0,0 +1,9 @@
+package com.example.usermanagement.service;
+
+/**
+ * Published by the {@link UserChangeStreamListener} when changes to users may have been missed, for
+ * example because the stream could not be resumed or the collection was dropped. Local caches of
+ * users must be cleared entirely.
+ */
+public record UserChangesMissedEvent() {
+}
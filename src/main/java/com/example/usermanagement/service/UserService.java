@@ -1,54 +1,255 @@
 package com.example.usermanagement.service;
 
+import com.example.usermanagement.config.LookupProperties;
+import com.example.usermanagement.config.NotificationProperties;
+import com.example.usermanagement.config.RegistrationProperties;
+import com.example.usermanagement.dto.BulkRegistrationResult;
+import com.example.usermanagement.dto.UserBatch;
+import com.example.usermanagement.dto.UserCursor;
+import com.example.usermanagement.dto.UserPage;
+import com.example.usermanagement.dto.UserSearchCriteria;
+import com.example.usermanagement.dto.UserView;
 import com.example.usermanagement.exception.DuplicateEmailException;
 import com.example.usermanagement.exception.UserNotFoundException;
 import com.example.usermanagement.model.User;
 import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.repository.UserRepositoryCustom;
+import com.mongodb.ReadPreference;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
  * Service class responsible for business logic related to {@link User} entities.
  * This class interacts with the {@link UserRepository} to perform CRUD operations
  * and handle user-specific business logic.
+ *
+ * Registrations are announced with a {@link UsersRegisteredEvent}, e.g. for the {@link NotificationDispatcher}.
+ * While welcome notifications are enabled, users are inserted with {@link User#getWelcomePendingSince()} set, so that
+ * the notification is recovered from the user if its outbox entry is never written.
  */
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
+    /**
+     * Interval between two checks of the unique email index while it is missing.
+     */
+    private static final long EMAIL_INDEX_RECHECK_NANOS = TimeUnit.MINUTES.toNanos(1);
+
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final EmailBloomFilter emailFilter;
+    private final SingleFlight<String, Optional<User>> lookups;
+    private final RegistrationProperties.DuplicateCheck duplicateCheck;
+    private final ReadPreference readPreference;
+    private final RecentWrites recentWrites;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean welcomeNotifications;
+    private volatile boolean emailIndexVerified;
+    private volatile long nextEmailIndexCheck;
 
     /**
      * Constructs a new {@link UserService} instance with the given {@link UserRepository}.
      *
-     * @param userRepository the repository to interact with user data
+     * @param userRepository         the repository to interact with user data
+     * @param userCache              the read-through cache of lookups by id
+     * @param emailFilter            the filter of registered emails consulted by duplicate checks
+     * @param registrationProperties the registration settings
+     * @param lookupProperties       the lookup settings
+     * @param notificationProperties the welcome notification settings
+     * @param eventPublisher         publishes a {@link UsersRegisteredEvent} for every registration
      */
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, UserCache userCache, EmailBloomFilter emailFilter,
+                       RegistrationProperties registrationProperties, LookupProperties lookupProperties,
+                       NotificationProperties notificationProperties, ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.emailFilter = emailFilter;
+        this.lookups = lookupProperties.isCoalesce() ? new SingleFlight<>() : null;
+        this.duplicateCheck = registrationProperties.getDuplicateCheck();
+        this.eventPublisher = eventPublisher;
+        this.welcomeNotifications = notificationProperties.isEnabled();
+        this.nextEmailIndexCheck = System.nanoTime();
+        String readPreferenceName = lookupProperties.getReadPreference();
+        if (readPreferenceName == null || readPreferenceName.isBlank()) {
+            this.readPreference = null;
+            this.recentWrites = null;
+        } else {
+            this.readPreference = ReadPreference.valueOf(readPreferenceName);
+            this.recentWrites = new RecentWrites(lookupProperties.getPrimaryReadWindow());
+        }
     }
 
     /**
      * Registers a new user in the system.
-     * Checks if the email already exists before saving.
+     * Depending on {@code user.registration.duplicate-check}, the email is either looked up before
+     * inserting or left to the unique email index. In both modes a duplicate-key error raised by the
+     * email index, for example by a concurrent registration, is reported as a {@link DuplicateEmailException};
+     * other duplicate keys, such as an id, are not.
+     * While the unique email index is known to exist, the lookup is skipped when the {@link EmailBloomFilter} reports
+     * the email as definitely not registered. Without the index, the lookup is the only duplicate check and is always
+     * made, in both modes, as the filter may miss emails registered through other instances, see {@link #emailIndexExists()}.
      *
      * @param user The user entity to be registered.
      * @return The saved user entity.
      * @throws DuplicateEmailException If the email is already registered.
      */
     public User registerUser(User user) {
-        Optional<User> existingUser = userRepository.findByEmail(user.getEmail());
+        if (needsEmailLookup(user.getNormalizedEmail())) {
+            Optional<User> existingUser = userRepository.findByNormalizedEmail(user.getNormalizedEmail());
+
+            if (existingUser.isPresent()) {
+                throw new DuplicateEmailException("Email already exists: " + user.getEmail());
+            }
+        }
 
-        if (existingUser.isPresent()) {
+        markWelcomePending(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.insert(user);
+        } catch (DuplicateKeyException e) {
+            if (!UserRepositoryCustom.isDuplicateEmail(e)) {
+                throw e;
+            }
+            emailFilter.add(user.getNormalizedEmail());
             throw new DuplicateEmailException("Email already exists: " + user.getEmail());
         }
+        emailFilter.add(savedUser.getNormalizedEmail());
+        recordWrite(savedUser.getId());
+        userCache.invalidate(savedUser.getId());
+        eventPublisher.publishEvent(new UsersRegisteredEvent(List.of(savedUser)));
+        return savedUser;
+    }
 
-        return userRepository.save(user);
+    /**
+     * Tells whether a registration must look its email up before inserting. In index mode duplicates are left to the
+     * unique email index, and in query mode the lookup is skipped for emails the {@link EmailBloomFilter} has never seen,
+     * but both only once the index is known to exist: the index is what rejects the duplicates the filter misses.
+     */
+    private boolean needsEmailLookup(String normalizedEmail) {
+        if (!emailIndexExists()) {
+            return true;
+        }
+        return duplicateCheck != RegistrationProperties.DuplicateCheck.INDEX && emailFilter.mightContain(normalizedEmail);
+    }
+
+    /**
+     * Tells whether the unique email index is known to exist. While it is missing, for example because
+     * {@code user.mongo.ensure-indexes} is off or the index could not be built, registrations look every email up
+     * first, and the index is checked again every minute.
+     */
+    private boolean emailIndexExists() {
+        if (emailIndexVerified) {
+            return true;
+        }
+        long now = System.nanoTime();
+        if (now - nextEmailIndexCheck < 0) {
+            return false;
+        }
+        nextEmailIndexCheck = now + EMAIL_INDEX_RECHECK_NANOS;
+        try {
+            emailIndexVerified = userRepository.hasUniqueEmailIndex();
+        } catch (DataAccessException e) {
+            logger.warn("Could not check the unique email index", e);
+        }
+        if (!emailIndexVerified) {
+            logger.error("The unique email index is missing, registrations look emails up until it is created");
+        }
+        return emailIndexVerified;
+    }
+
+    /**
+     * Registers a chunk of users in two database round trips.
+     * All normalized emails of the chunk are checked with a single {@code $in} query, and the remaining users
+     * are written with a single unordered bulk insert. While the unique email index is known to exist, emails the
+     * {@link EmailBloomFilter} reports as definitely not registered are left out of the query, which is skipped if none
+     * remain; without the index, all emails are queried. Emails repeated within the chunk, or
+     * rejected by the unique email index during the insert, are reported as duplicates.
+     *
+     * @param users The user entities to be registered.
+     * @return One result per user, in the same order as {@code users}.
+     */
+    public List<BulkRegistrationResult> registerUsers(List<User> users) {
+        Set<String> emails = new HashSet<>(users.size() * 2);
+        boolean filterEmails = emailIndexExists();
+        for (User user : users) {
+            if (!filterEmails || emailFilter.mightContain(user.getNormalizedEmail())) {
+                emails.add(user.getNormalizedEmail());
+            }
+        }
+
+        Set<String> takenEmails = new HashSet<>();
+        if (!emails.isEmpty()) {
+            userRepository.findByNormalizedEmailIn(emails).forEach(user -> takenEmails.add(user.getNormalizedEmail()));
+        }
+
+        List<BulkRegistrationResult> results = new ArrayList<>(users.size());
+        List<User> toInsert = new ArrayList<>(users.size());
+        List<Integer> insertPositions = new ArrayList<>(users.size());
+        for (User user : users) {
+            if (!takenEmails.add(user.getNormalizedEmail())) {
+                results.add(BulkRegistrationResult.duplicate(user.getEmail()));
+                continue;
+            }
+            // Ids are assigned up front so that they can be reported without reading the documents back
+            user.setId(new ObjectId().toHexString());
+            // Bulk inserts bypass the version initialization of the repository
+            user.setVersion(0L);
+            markWelcomePending(user);
+            insertPositions.add(results.size());
+            toInsert.add(user);
+            results.add(BulkRegistrationResult.created(user.getId(), user.getEmail()));
+        }
+
+        Set<Integer> rejectedPositions = new HashSet<>(userRepository.insertAllUnordered(toInsert));
+        List<User> created = new ArrayList<>(toInsert.size());
+        for (int i = 0; i < toInsert.size(); i++) {
+            User user = toInsert.get(i);
+            emailFilter.add(user.getNormalizedEmail());
+            if (rejectedPositions.contains(i)) {
+                results.set(insertPositions.get(i), BulkRegistrationResult.duplicate(user.getEmail()));
+                continue;
+            }
+            recordWrite(user.getId());
+            userCache.invalidate(user.getId());
+            created.add(user);
+        }
+        if (!created.isEmpty()) {
+            eventPublisher.publishEvent(new UsersRegisteredEvent(created));
+        }
+        return results;
     }
 
     /**
      * Retrieves a user by their unique identifier.
+     * Lookups go through the {@link UserCache}, which also remembers ids that did not match any user.
+     * On a cache miss, concurrent lookups of the same id share one repository query
+     * unless {@code user.lookup.coalesce} is disabled.
+     * With {@code user.lookup.read-preference} set, the query is routed accordingly, except for users
+     * registered within {@code user.lookup.primary-read-window}, which are always read from the primary.
+     * Users registered through another instance are not known to be recent, so a user that the secondary
+     * does not have is looked up again on the primary before the miss is cached.
      * If no user is found, a {@link UserNotFoundException} is thrown.
      *
      * @param id the unique identifier of the user
@@ -56,7 +257,213 @@ public class UserService {
      * @throws UserNotFoundException if no user is found with the given ID
      */
     public User getUserById(String id) {
-        return userRepository.findById(id)
+        return userCache.get(id, this::loadUser)
+                .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + id));
+    }
+
+    /**
+     * Retrieves many users by their unique identifiers with at most one database query.
+     * Users held by the {@link UserCache} are answered from memory; the remaining ids are resolved
+     * with a single {@code $in} query, which is sent to the primary if one of them was registered within
+     * {@code user.lookup.primary-read-window}; ids the secondary does not have are queried again on the
+     * primary. The loaded users and the unknown ids are cached as by
+     * {@link #getUserById(String)}.
+     *
+     * @param ids the unique identifiers of the users; repeated ids are resolved once
+     * @return the users found in request order, and the ids that did not match any user
+     */
+    public UserBatch getUsersByIds(List<String> ids) {
+        Set<String> uniqueIds = new LinkedHashSet<>(ids);
+        Map<String, User> found = new HashMap<>(uniqueIds.size() * 2);
+        List<String> toLoad = new ArrayList<>();
+        for (String id : uniqueIds) {
+            Optional<User> cached = userCache.getIfCached(id);
+            if (cached.isPresent()) {
+                found.put(id, cached.get());
+            } else {
+                toLoad.add(id);
+            }
+        }
+
+        if (!toLoad.isEmpty()) {
+            long[] stamps = new long[toLoad.size()];
+            for (int i = 0; i < stamps.length; i++) {
+                stamps[i] = userCache.stamp(toLoad.get(i));
+            }
+            Map<String, User> loaded = new HashMap<>(toLoad.size() * 2);
+            findAllById(toLoad).forEach(user -> loaded.put(user.getId(), user));
+            for (int i = 0; i < stamps.length; i++) {
+                String id = toLoad.get(i);
+                User user = loaded.get(id);
+                userCache.putIfNotInvalidated(id, Optional.ofNullable(user), stamps[i]);
+                if (user != null) {
+                    found.put(id, user);
+                }
+            }
+        }
+
+        List<User> users = new ArrayList<>(found.size());
+        List<String> missingIds = new ArrayList<>(uniqueIds.size() - found.size());
+        for (String id : uniqueIds) {
+            User user = found.get(id);
+            if (user == null) {
+                missingIds.add(id);
+            } else {
+                users.add(user);
+            }
+        }
+        return new UserBatch(users, missingIds);
+    }
+
+    /**
+     * Retrieves the version of a user, for conditional requests.
+     * A user held by the {@link UserCache} is answered from memory; otherwise only the version
+     * is read from MongoDB, through a projection.
+     *
+     * @param id the unique identifier of the user
+     * @return the version of the user
+     * @throws UserNotFoundException if no user is found with the given ID
+     */
+    public long getUserVersion(String id) {
+        Optional<User> cached = userCache.getIfCached(id);
+        if (cached.isPresent()) {
+            Long version = cached.get().getVersion();
+            return version == null ? 0L : version;
+        }
+        return userRepository.findVersionById(id)
+                .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + id));
+    }
+
+    /**
+     * Retrieves the selected fields of a user.
+     * A user already held by the {@link UserCache} is projected in memory; otherwise the
+     * selection is pushed down to MongoDB as a projection, and the result is not cached.
+     *
+     * @param id     the unique identifier of the user
+     * @param fields the {@link User} property names to return, see {@link UserView#FIELDS}
+     * @return the partial view of the user with the given ID
+     * @throws UserNotFoundException if no user is found with the given ID
+     */
+    public UserView getUserView(String id, Set<String> fields) {
+        Optional<User> cached = userCache.getIfCached(id);
+        if (cached.isPresent()) {
+            return UserView.of(cached.get(), fields);
+        }
+        return userRepository.findViewById(id, fields)
                 .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + id));
     }
+
+    /**
+     * Lists users matching the criteria, one keyset-addressed page at a time.
+     * One extra user is fetched to tell whether another page follows.
+     *
+     * @param criteria the filters to apply
+     * @param after    the cursor returned with the previous page, or {@code null} for the first page
+     * @param pageSize the maximum number of users on the page
+     * @return the page, with a cursor for the next page if there is one
+     */
+    public UserPage listUsers(UserSearchCriteria criteria, UserCursor after, int pageSize) {
+        List<User> users = userRepository.findPage(criteria, after, pageSize + 1);
+        if (users.size() <= pageSize) {
+            return new UserPage(users, null);
+        }
+        List<User> page = users.subList(0, pageSize);
+        return new UserPage(page, UserCursor.after(page.get(pageSize - 1)).encode());
+    }
+
+    /**
+     * Streams all users in ascending id order, for exports.
+     * The stream reads from a database cursor and must be closed by the caller.
+     *
+     * @param afterId   resume after this id, or {@code null} to start at the beginning
+     * @param batchSize the number of users fetched per cursor batch
+     * @return the stream of users
+     */
+    public Stream<User> streamUsers(String afterId, int batchSize) {
+        return userRepository.streamAfter(afterId, batchSize);
+    }
+
+    /**
+     * Loads a user from the repository, joining an in-flight query for the same id if there is one.
+     *
+     * @param id the unique identifier of the user
+     * @return the user, or an empty Optional if no user exists with the given id
+     */
+    private Optional<User> loadUser(String id) {
+        if (recentWrites != null && recentWrites.contains(id)) {
+            // Not coalesced: an in-flight query may have been sent to a secondary that lags behind the write
+            return userRepository.findById(id, ReadPreference.primary());
+        }
+        if (lookups == null) {
+            return findById(id);
+        }
+        return lookups.execute(id, this::findById);
+    }
+
+    /**
+     * Queries a user with the configured lookup read preference.
+     * A user that a secondary does not have is looked up again on the primary, as it may have been
+     * registered through another instance and not be replicated yet.
+     *
+     * @param id the unique identifier of the user
+     * @return the user, or an empty Optional if no user exists with the given id
+     */
+    private Optional<User> findById(String id) {
+        if (readPreference == null) {
+            return userRepository.findById(id);
+        }
+        Optional<User> user = userRepository.findById(id, readPreference);
+        if (user.isEmpty() && readPreference.isSecondaryOk()) {
+            return userRepository.findById(id, ReadPreference.primary());
+        }
+        return user;
+    }
+
+    /**
+     * Queries users with the configured lookup read preference, or from the primary if one of them
+     * was registered recently. Users that a secondary does not have are queried again on the primary.
+     *
+     * @param ids the unique identifiers of the users
+     * @return the users found, in no particular order
+     */
+    private List<User> findAllById(List<String> ids) {
+        if (recentWrites != null && ids.stream().anyMatch(recentWrites::contains)) {
+            return userRepository.findAllById(ids, ReadPreference.primary());
+        }
+        if (readPreference == null) {
+            return userRepository.findAllById(ids);
+        }
+        List<User> users = userRepository.findAllById(ids, readPreference);
+        if (users.size() < ids.size() && readPreference.isSecondaryOk()) {
+            // As in findById: the missing users may not be replicated to the secondary yet
+            Set<String> foundIds = new HashSet<>(users.size() * 2);
+            users.forEach(user -> foundIds.add(user.getId()));
+            List<String> missingIds = ids.stream().filter(id -> !foundIds.contains(id)).toList();
+            users = new ArrayList<>(users);
+            users.addAll(userRepository.findAllById(missingIds, ReadPreference.primary()));
+        }
+        return users;
+    }
+
+    /**
+     * Marks the welcome notification of a user about to be inserted as pending, if welcome notifications are enabled.
+     *
+     * @param user the user to insert
+     */
+    private void markWelcomePending(User user) {
+        if (welcomeNotifications) {
+            user.setWelcomePendingSince(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Remembers a registration so that lookups of the user are read from the primary for a while.
+     *
+     * @param id the id of the registered user
+     */
+    private void recordWrite(String id) {
+        if (recentWrites != null) {
+            recentWrites.record(id);
+        }
+    }
 }
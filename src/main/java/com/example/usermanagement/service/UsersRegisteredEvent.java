@@ -0,0 +1,14 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.model.User;
+
+import java.util.List;
+
+/**
+ * Published by {@link UserService} after users have been registered.
+ * Listeners run on the registering thread, so they should hand off slow work.
+ *
+ * @param users the newly stored users, with their ids assigned
+ */
+public record UsersRegisteredEvent(List<User> users) {
+}
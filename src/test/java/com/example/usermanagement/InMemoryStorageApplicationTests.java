@@ -0,0 +1,39 @@
+package com.example.usermanagement;
+
+import com.example.usermanagement.repository.InMemoryUserRepository;
+import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.service.IdempotencyStore;
+import com.mongodb.client.MongoClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the in-memory storage engine runs without any MongoDB bean.
+ */
+@SpringBootTest(properties = "user.storage.engine=MEMORY")
+@ActiveProfiles("test")
+class InMemoryStorageApplicationTests {
+
+	@Autowired
+	private ApplicationContext context;
+
+	/**
+	 * Tests that the engine is selected whatever the case of its name, and that no MongoDB client, template
+	 * or MongoDB-backed bean is created.
+	 */
+	@Test
+	void contextLoadsWithoutMongo() {
+		assertInstanceOf(InMemoryUserRepository.class, context.getBean(UserRepository.class));
+		assertTrue(context.getBeansOfType(MongoClient.class).isEmpty());
+		assertTrue(context.getBeansOfType(MongoTemplate.class).isEmpty());
+		assertTrue(context.getBeansOfType(IdempotencyStore.class).isEmpty());
+	}
+
+}
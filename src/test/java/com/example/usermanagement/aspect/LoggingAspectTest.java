@@ -0,0 +1,59 @@
+package com.example.usermanagement.aspect;
+
+import com.example.usermanagement.config.PayloadLoggingProperties;
+import com.example.usermanagement.exception.UserNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link LoggingAspect}.
+ * Applies the aspect to a minimal controller through an AspectJ proxy and checks the recorded timers.
+ */
+public class LoggingAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GreetingController controller;
+
+    /**
+     * Proxies a test controller with the aspect.
+     */
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new GreetingController());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new LoggingAspect(meterRegistry, new PayloadLoggingProperties()));
+        controller = factory.getProxy();
+    }
+
+    /**
+     * Tests that successful and failing calls are recorded under separate outcomes.
+     */
+    @Test
+    void testRecordsSuccessAndErrorTimers() {
+        controller.greet("John");
+        controller.greet("John");
+        assertThrows(UserNotFoundException.class, () -> controller.greet(null));
+
+        assertEquals(2, meterRegistry.get(LoggingAspect.TIMER_NAME)
+                .tag("endpoint", "GreetingController.greet").tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get(LoggingAspect.TIMER_NAME)
+                .tag("endpoint", "GreetingController.greet").tag("outcome", "error").timer().count());
+    }
+
+    @RestController
+    static class GreetingController {
+
+        public String greet(String name) {
+            if (name == null) {
+                throw new UserNotFoundException("User not found");
+            }
+            return "Hello " + name;
+        }
+    }
+}
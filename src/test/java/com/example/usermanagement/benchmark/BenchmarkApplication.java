@@ -0,0 +1,106 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.UserManagementServiceApplication;
+import com.example.usermanagement.repository.InMemoryUserRepository;
+import com.example.usermanagement.repository.UserRepository;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs the full application on a random port for benchmarks, on the {@link InMemoryUserRepository}
+ * with a {@link SimulatedLatency simulated round trip} per call, so that no MongoDB server is needed.
+ *
+ * The simulated repository latency is taken from {@code benchmark.repository-latency} (default 5ms).
+ * Rate limiting and load shedding are disabled.
+ */
+public final class BenchmarkApplication implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkApplication(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Starts the application.
+     *
+     * @param properties additional application properties, overriding the benchmark defaults
+     * @return the running application
+     */
+    public static BenchmarkApplication start(Map<String, Object> properties) {
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("server.port", 0);
+        defaults.put("user.storage.engine", "memory");
+        // All load comes from one client, and overload behaviour is what the benchmarks measure
+        defaults.put("user.rate-limit.enabled", false);
+        defaults.put("user.load-shedding.enabled", false);
+        defaults.put("logging.level.root", "WARN");
+        defaults.put("benchmark.repository-latency",
+                System.getProperty("benchmark.repository-latency", "5ms"));
+        defaults.putAll(properties);
+        // Passed as command line arguments so that they take precedence over application.properties
+        String[] args = defaults.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                UserManagementServiceApplication.class, LatencyConfiguration.class)
+                .run(args);
+        return new BenchmarkApplication(context);
+    }
+
+    /**
+     * Returns the base URI of the running application, e.g. {@code http://localhost:54321}.
+     *
+     * @return the base URI
+     */
+    public URI baseUri() {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return URI.create("http://localhost:" + port);
+    }
+
+    /**
+     * Returns a bean of the running application.
+     *
+     * @param type the bean type
+     * @param <T>  the bean type
+     * @return the bean
+     */
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    /**
+     * Wraps the in-memory repository with the simulated latency.
+     */
+    @TestConfiguration(proxyBeanMethods = false)
+    static class LatencyConfiguration {
+
+        @Bean
+        static BeanPostProcessor repositoryLatency(Environment environment) {
+            Duration latency = Binder.get(environment).bind("benchmark.repository-latency", Duration.class)
+                    .orElse(Duration.ZERO);
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof UserRepository repository ? SimulatedLatency.of(repository, latency) : bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.usermanagement.benchmark;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntPredicate;
+import java.util.function.LongFunction;
+
+/**
+ * HTTP load generator for the benchmarks.
+ *
+ * A fixed number of client threads send requests for a warm-up period and then for a measured
+ * period. Only the measured requests are recorded. Latencies are kept per thread and per
+ * operation type and merged at the end, so recording does not contend between threads.
+ *
+ * Without a target rate the generator runs closed-loop: each client sends its next request as
+ * soon as the previous one completes. With a target rate each client follows a fixed schedule and
+ * latency is measured from the scheduled start, so that queueing delay is not hidden when the
+ * server falls behind (coordinated omission).
+ */
+public final class LoadGenerator {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    /**
+     * One request of a load scenario.
+     *
+     * @param type           the operation type the latency is reported under
+     * @param request        the request to send
+     * @param expectedStatus decides whether the response status counts as a success
+     */
+    public record Operation(String type, HttpRequest request, IntPredicate expectedStatus) {}
+
+    /**
+     * Runs a closed-loop scenario consisting of a single operation type.
+     *
+     * @param name           the scenario name used in the report
+     * @param concurrency    the number of concurrent client threads
+     * @param warmup         how long to send requests before recording
+     * @param duration       how long to record
+     * @param requests       creates the request for a global sequence number
+     * @param expectedStatus decides whether a response status counts as a success
+     * @return the recorded results
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public Result run(String name, int concurrency, Duration warmup, Duration duration,
+                      LongFunction<HttpRequest> requests, IntPredicate expectedStatus) throws InterruptedException {
+        return runMix(name, concurrency, 0, warmup, duration,
+                n -> new Operation(name, requests.apply(n), expectedStatus)).get(name);
+    }
+
+    /**
+     * Runs a scenario mixing several operation types.
+     *
+     * @param name        the scenario name used for the client threads
+     * @param concurrency the number of concurrent client threads
+     * @param targetRate  the total requests per second to schedule, or 0 to run closed-loop
+     * @param warmup      how long to send requests before recording
+     * @param duration    how long to record
+     * @param operations  creates the operation for a global sequence number
+     * @return the recorded results per operation type, plus an {@code all} entry when there are several types
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public Map<String, Result> runMix(String name, int concurrency, double targetRate, Duration warmup, Duration duration,
+                                      LongFunction<Operation> operations) throws InterruptedException {
+        AtomicLong sequence = new AtomicLong();
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        long intervalNanos = targetRate > 0 ? (long) (concurrency * 1_000_000_000.0 / targetRate) : 0;
+        List<Map<String, Recorder>> recorders = new ArrayList<>(concurrency);
+        CountDownLatch done = new CountDownLatch(concurrency);
+
+        for (int i = 0; i < concurrency; i++) {
+            Map<String, Recorder> threadRecorders = new LinkedHashMap<>();
+            // Spread the schedules of the clients evenly over one interval
+            long firstStart = start + (intervalNanos * i) / concurrency;
+            Thread worker = new Thread(() -> {
+                try {
+                    long scheduled = firstStart;
+                    while (true) {
+                        long now = System.nanoTime();
+                        if (intervalNanos > 0) {
+                            if (scheduled > now) {
+                                LockSupport.parkNanos(scheduled - now);
+                            }
+                        } else {
+                            scheduled = now;
+                        }
+                        if (scheduled >= measureUntil) {
+                            break;
+                        }
+                        Operation operation = operations.apply(sequence.getAndIncrement());
+                        boolean ok;
+                        try {
+                            ok = operation.expectedStatus().test(
+                                    client.send(operation.request(), HttpResponse.BodyHandlers.discarding()).statusCode());
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        if (scheduled >= measureFrom) {
+                            threadRecorders.computeIfAbsent(operation.type(), type -> new Recorder())
+                                    .record(System.nanoTime() - scheduled, ok);
+                        }
+                        scheduled += intervalNanos;
+                    }
+                } finally {
+                    synchronized (recorders) {
+                        recorders.add(threadRecorders);
+                    }
+                    done.countDown();
+                }
+            }, name + "-client-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        done.await();
+
+        Map<String, Recorder> merged = new LinkedHashMap<>();
+        Recorder all = new Recorder();
+        for (Map<String, Recorder> threadRecorders : recorders) {
+            threadRecorders.forEach((type, recorder) -> {
+                merged.computeIfAbsent(type, t -> new Recorder()).addAll(recorder);
+                all.addAll(recorder);
+            });
+        }
+        Map<String, Result> results = new LinkedHashMap<>();
+        merged.forEach((type, recorder) -> results.put(type, recorder.toResult(type, concurrency, duration)));
+        if (merged.size() > 1) {
+            results.put("all", all.toResult(name + " (all)", concurrency, duration));
+        }
+        return results;
+    }
+
+    /**
+     * Latencies and error count of one operation type.
+     *
+     * @param name        the operation or scenario name
+     * @param concurrency the number of concurrent client threads
+     * @param latencies   the sorted request latencies in nanoseconds
+     * @param errors      the number of failed or unexpected responses
+     * @param duration    the measured period
+     */
+    public record Result(String name, int concurrency, long[] latencies, long errors, Duration duration) {
+
+        /**
+         * Returns the number of completed requests per second.
+         *
+         * @return the throughput
+         */
+        public double throughput() {
+            return latencies.length / (duration.toNanos() / 1_000_000_000.0);
+        }
+
+        /**
+         * Returns a latency percentile in milliseconds.
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return the latency at that percentile
+         */
+        public double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1_000_000.0;
+        }
+
+        /**
+         * Formats the result as a single report line.
+         *
+         * @return the report line
+         */
+        public String summary() {
+            return String.format("%-32s c=%-5d %10.0f req/s  p50=%8.2fms  p99=%8.2fms  p999=%8.2fms  errors=%d",
+                    name, concurrency, throughput(),
+                    percentileMillis(50), percentileMillis(99), percentileMillis(99.9), errors);
+        }
+    }
+
+    /**
+     * Growable per-thread buffer of latencies with an error count.
+     */
+    private static final class Recorder {
+
+        private long[] values = new long[1024];
+        private int size;
+        private long errors;
+
+        void record(long latency, boolean ok) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = latency;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void addAll(Recorder other) {
+            for (int i = 0; i < other.size; i++) {
+                record(other.values[i], true);
+            }
+            errors += other.errors;
+        }
+
+        Result toResult(String name, int concurrency, Duration duration) {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return new Result(name, concurrency, sorted, errors, duration);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.service.UserService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares full {@code getUserById} responses with field-selected ones.
+ *
+ * Reports the response payload size and the latency and throughput of the full document, the
+ * named {@code summary} view and an explicit {@code fields=} selection. The cache is disabled so
+ * that every selected read goes through the repository projection.
+ *
+ * Run with {@code mvn -Pbenchmark test -Dtest=ProjectionBenchmark}.
+ * Tunables: {@code benchmark.concurrency} (default 64), {@code benchmark.duration} (default 10s),
+ * {@code benchmark.repository-latency} (default 5ms).
+ */
+@Tag("benchmark")
+public class ProjectionBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 64);
+    private static final Duration DURATION = Duration.parse("PT" + System.getProperty("benchmark.duration", "10s"));
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+
+    @Test
+    void compareFullAndProjectedReads() throws Exception {
+        try (BenchmarkApplication app = BenchmarkApplication.start(Map.of("user.cache.enabled", false))) {
+            UserService userService = app.getBean(UserService.class);
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < 1_000; i++) {
+                ids.add(userService.registerUser(VirtualThreadsBenchmark.user("projection-" + i + "@example.com")).getId());
+            }
+            URI base = app.baseUri();
+            Map<String, String> variants = Map.of(
+                    "full", "",
+                    "view=summary", "?view=summary",
+                    "fields=id,name", "?fields=id,name");
+
+            List<String> report = new ArrayList<>();
+            LoadGenerator load = new LoadGenerator();
+            for (Map.Entry<String, String> variant : variants.entrySet()) {
+                int bytes = payloadSize(base.resolve("/users/getUserById/" + ids.get(0) + variant.getValue()));
+                LoadGenerator.Result result = load.run(variant.getKey(), CONCURRENCY, WARMUP, DURATION,
+                        n -> HttpRequest.newBuilder(base.resolve(
+                                "/users/getUserById/" + ids.get((int) (n % ids.size())) + variant.getValue())).GET().build(),
+                        status -> status == 200);
+                report.add(result.summary() + String.format("  payload=%d bytes", bytes));
+                assertEquals(0, result.errors());
+            }
+            System.out.println("\n=== Projection benchmark ===");
+            report.forEach(System.out::println);
+        }
+    }
+
+    private static int payloadSize(URI uri) throws Exception {
+        HttpResponse<byte[]> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertTrue(response.statusCode() == 200, "unexpected status " + response.statusCode());
+        return response.body().length;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.repository.InMemoryUserRepository;
+import com.example.usermanagement.repository.UserRepository;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Adds a simulated round trip to every call of a {@link UserRepository}, so that the benchmarks can run
+ * against the {@link InMemoryUserRepository} while blocking the calling thread like a call to MongoDB does.
+ */
+public final class SimulatedLatency {
+
+    private SimulatedLatency() {
+    }
+
+    /**
+     * Wraps a repository so that every call first waits for the given latency.
+     *
+     * @param repository the repository to delegate to
+     * @param latency    the simulated round trip time of every repository call
+     * @return the wrapped repository, or {@code repository} itself for a zero latency
+     */
+    public static UserRepository of(UserRepository repository, Duration latency) {
+        long latencyNanos = latency.toNanos();
+        if (latencyNanos <= 0) {
+            return repository;
+        }
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    if (method.getDeclaringClass() != Object.class) {
+                        LockSupport.parkNanos(latencyNanos);
+                    }
+                    try {
+                        return method.invoke(repository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
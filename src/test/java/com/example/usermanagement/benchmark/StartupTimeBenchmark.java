@@ -0,0 +1,183 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.UserManagementServiceApplication;
+import com.example.usermanagement.config.StorageProperties;
+import com.example.usermanagement.repository.InMemoryUserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the cold start of the application: the time from launching a new JVM to the first
+ * successful {@code GET /users/getUserById/{id}}.
+ *
+ * Every run starts a separate JVM on the in-memory storage engine, loading one user from a snapshot, so
+ * that no MongoDB server is needed. The variants compared are
+ * <ul>
+ *     <li>{@code default}: the application as built, from the test class path</li>
+ *     <li>{@code lazy}: the same with the {@code fast-startup} profile, i.e. lazy initialization and no springdoc</li>
+ *     <li>{@code aot-cds}: the jar extracted to {@code target/fast-startup} by the {@code fast-startup} Maven profile,
+ *     with its AOT-generated bean definitions and AppCDS archive. Only run when that directory exists. AOT fixes
+ *     the beans at build time, so build it with the same settings:
+ *     {@code mvn -Pfast-startup package -DskipTests -Dspring-boot.aot.jvmArguments="-Duser.storage.engine=memory"}</li>
+ * </ul>
+ * The minimum, median and maximum per variant are reported on the console and in {@code target/startup-time/},
+ * next to the output of every run.
+ *
+ * Run with {@code mvn -Pbenchmark test -Dtest=StartupTimeBenchmark}. Tunables:
+ * <ul>
+ *     <li>{@code startup.runs} runs per variant (default 5)</li>
+ *     <li>{@code startup.timeout} maximum time to wait for the first lookup (default 60s)</li>
+ *     <li>{@code startup.jvm-args} additional JVM options of every run, separated by spaces, e.g. {@code -Xmx512m}</li>
+ * </ul>
+ */
+@Tag("benchmark")
+public class StartupTimeBenchmark {
+
+    private static final int RUNS = Integer.getInteger("startup.runs", 5);
+    private static final Duration TIMEOUT = Duration.parse("PT" + System.getProperty("startup.timeout", "60s"));
+    private static final String JVM_ARGS = System.getProperty("startup.jvm-args", "");
+    private static final Path FAST_STARTUP_DIRECTORY = Path.of("target", "fast-startup");
+    private static final Path REPORT_DIRECTORY = Path.of("target", "startup-time");
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void measureTimeToFirstLookup() throws Exception {
+        Path snapshot = temp.resolve("users.snapshot");
+        String id = writeSnapshot(snapshot);
+        Files.createDirectories(REPORT_DIRECTORY);
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("runs=%d timeout=%s jvm-args=[%s] java=%s",
+                RUNS, TIMEOUT, JVM_ARGS, System.getProperty("java.version")));
+        String classpath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+        report.add(measure("default", snapshot, id, null, List.of(
+                "-cp", classpath, UserManagementServiceApplication.class.getName())));
+        report.add(measure("lazy", snapshot, id, null, List.of(
+                "-cp", classpath, UserManagementServiceApplication.class.getName(),
+                "--spring.profiles.active=fast-startup")));
+        String jar = findJar();
+        if (jar != null && Files.exists(FAST_STARTUP_DIRECTORY.resolve("application.jsa"))) {
+            // Launched like the training run, from the extracted directory, as the archive is only used with the same class path
+            report.add(measure("aot-cds", snapshot, id, FAST_STARTUP_DIRECTORY.toFile(), List.of(
+                    "-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=true", "-jar", jar,
+                    "--spring.profiles.active=fast-startup")));
+        } else {
+            report.add("[aot-cds] skipped, build it with mvn -Pfast-startup package");
+        }
+
+        System.out.println("\n=== Time to first getUserById ===");
+        report.forEach(System.out::println);
+        Path file = REPORT_DIRECTORY.resolve("startup-time-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".txt");
+        Files.write(file, report);
+        System.out.println("Report written to " + file.toAbsolutePath());
+    }
+
+    /**
+     * Starts the variant {@link #RUNS} times and summarizes its times to the first lookup.
+     */
+    private String measure(String variant, Path snapshot, String id, File directory, List<String> launch)
+            throws Exception {
+        long[] millis = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            int port = freePort();
+            List<String> command = new ArrayList<>();
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            if (!JVM_ARGS.isBlank()) {
+                command.addAll(Arrays.asList(JVM_ARGS.trim().split("\\s+")));
+            }
+            command.addAll(launch);
+            command.addAll(List.of(
+                    "--server.port=" + port,
+                    "--user.storage.engine=memory",
+                    "--user.storage.snapshot-path=" + snapshot.toAbsolutePath(),
+                    "--user.registration.email-filter.enabled=false"));
+            Path log = REPORT_DIRECTORY.resolve(variant + "-" + (run + 1) + ".log").toAbsolutePath();
+            millis[run] = timeToFirstLookup(command, directory, log, URI.create("http://localhost:" + port + "/users/getUserById/" + id));
+        }
+        Arrays.sort(millis);
+        return String.format("[%s] min %d ms, median %d ms, max %d ms", variant, millis[0], millis[RUNS / 2], millis[RUNS - 1]);
+    }
+
+    /**
+     * Launches the application and polls the lookup until it succeeds, then stops the application.
+     */
+    private long timeToFirstLookup(List<String> command, File directory, Path log, URI lookup) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(lookup).timeout(Duration.ofSeconds(5)).GET().build();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(directory)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long deadline = start + TIMEOUT.toNanos();
+            while (System.nanoTime() - deadline < 0) {
+                assertTrue(process.isAlive(), () -> "the application exited, see " + log.toAbsolutePath());
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (IOException notListeningYet) {
+                    // The server is not accepting connections yet
+                }
+                Thread.sleep(5);
+            }
+            throw new AssertionError("No successful lookup within " + TIMEOUT + ", see " + log.toAbsolutePath());
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Writes a snapshot holding one user for the in-memory engine to load at startup.
+     *
+     * @return the id of the user
+     */
+    private static String writeSnapshot(Path snapshot) {
+        StorageProperties properties = new StorageProperties();
+        properties.setSnapshotPath(snapshot.toString());
+        InMemoryUserRepository repository = new InMemoryUserRepository(properties);
+        String id = repository.insert(VirtualThreadsBenchmark.user("startup@example.com")).getId();
+        repository.close();
+        return id;
+    }
+
+    private static String findJar() {
+        File[] jars = FAST_STARTUP_DIRECTORY.toFile().listFiles((directory, name) -> name.endsWith(".jar"));
+        return jars == null || jars.length == 0 ? null : jars[0].getName();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.service.UserService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * End-to-end load test of the registration and lookup endpoints.
+ *
+ * Every variant starts the full {@link BenchmarkApplication} on the in-memory storage engine,
+ * seeds it with users and then drives a mix of {@code GET /users/getUserById/{id}} and
+ * {@code POST /users/createUser} requests. A share of the registrations reuse an existing email
+ * and must be rejected. Latency percentiles and throughput are reported per operation type, on the
+ * console and in {@code target/load-test/}.
+ *
+ * Run with {@code mvn -Pbenchmark test -Dtest=UserLoadTest}. Tunables:
+ * <ul>
+ *     <li>{@code load.read-ratio} share of requests that are lookups (default 0.9)</li>
+ *     <li>{@code load.duplicate-ratio} share of registrations that reuse an existing email (default 0.1)</li>
+ *     <li>{@code load.concurrency} number of client threads (default 64)</li>
+ *     <li>{@code load.rate} total requests per second, 0 for closed-loop (default 0)</li>
+ *     <li>{@code load.duration} and {@code load.warmup} (default 20s and 5s)</li>
+ *     <li>{@code load.seed-users} users registered before the run (default 10000)</li>
+ *     <li>{@code load.variants} configurations to compare, separated by {@code ;}. Each is a name,
+ *     optionally followed by {@code :} and comma-separated application properties, e.g.
+ *     {@code cached;uncached:user.cache.enabled=false,user.lookup.coalesce=false}</li>
+ *     <li>{@code benchmark.repository-latency} simulated repository round trip (default 5ms)</li>
+ * </ul>
+ */
+@Tag("benchmark")
+public class UserLoadTest {
+
+    private static final double READ_RATIO = Double.parseDouble(System.getProperty("load.read-ratio", "0.9"));
+    private static final double DUPLICATE_RATIO = Double.parseDouble(System.getProperty("load.duplicate-ratio", "0.1"));
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 64);
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "0"));
+    private static final Duration DURATION = Duration.parse("PT" + System.getProperty("load.duration", "20s"));
+    private static final Duration WARMUP = Duration.parse("PT" + System.getProperty("load.warmup", "5s"));
+    private static final int SEEDED_USERS = Integer.getInteger("load.seed-users", 10_000);
+    private static final String VARIANTS = System.getProperty("load.variants",
+            "cached;uncached:user.cache.enabled=false,user.lookup.coalesce=false");
+
+    @Test
+    void runLoad() throws Exception {
+        List<String> report = new ArrayList<>();
+        report.add(String.format("read-ratio=%s duplicate-ratio=%s concurrency=%d rate=%s duration=%s warmup=%s"
+                        + " seed-users=%d repository-latency=%s",
+                READ_RATIO, DUPLICATE_RATIO, CONCURRENCY, RATE > 0 ? RATE + "/s" : "closed-loop", DURATION, WARMUP,
+                SEEDED_USERS, System.getProperty("benchmark.repository-latency", "5ms")));
+        List<Long> unexpected = new ArrayList<>();
+        for (String variant : VARIANTS.split(";")) {
+            String[] parts = variant.split(":", 2);
+            Map<String, Object> properties = parts.length > 1 ? parseProperties(parts[1]) : Map.of();
+            report.add("");
+            report.add("[" + parts[0].trim() + "] " + properties);
+            for (LoadGenerator.Result result : runVariant(parts[0].trim(), properties).values()) {
+                report.add(result.summary());
+                unexpected.add(result.errors());
+            }
+        }
+        System.out.println("\n=== Load test ===");
+        report.forEach(System.out::println);
+        writeReport(report);
+        assertEquals(0, unexpected.stream().mapToLong(Long::longValue).sum(), "unexpected responses");
+    }
+
+    private Map<String, LoadGenerator.Result> runVariant(String name, Map<String, Object> properties) throws Exception {
+        try (BenchmarkApplication app = BenchmarkApplication.start(properties)) {
+            List<String> ids = seed(app.getBean(UserService.class));
+            URI base = app.baseUri();
+            return new LoadGenerator().runMix(name, CONCURRENCY, RATE, WARMUP, DURATION, n -> {
+                // Derived from the sequence number so that every variant sees the same request mix
+                SplittableRandom random = new SplittableRandom(n);
+                if (random.nextDouble() < READ_RATIO) {
+                    return new LoadGenerator.Operation("getUserById",
+                            HttpRequest.newBuilder(base.resolve("/users/getUserById/" + ids.get(random.nextInt(ids.size()))))
+                                    .GET().build(),
+                            status -> status == 200);
+                }
+                if (random.nextDouble() < DUPLICATE_RATIO) {
+                    return new LoadGenerator.Operation("createUser (duplicate)",
+                            createUser(base, seedEmail(random.nextInt(SEEDED_USERS))),
+                            status -> status == 409);
+                }
+                return new LoadGenerator.Operation("createUser",
+                        createUser(base, "load-" + name + "-" + n + "@example.com"),
+                        status -> status == 201);
+            });
+        }
+    }
+
+    private static HttpRequest createUser(URI base, String email) {
+        return HttpRequest.newBuilder(base.resolve("/users/createUser"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"John Doe\",\"age\":25,\"country\":\"France\","
+                        + "\"email\":\"" + email + "\",\"phone\":\"1234567890\"}"))
+                .build();
+    }
+
+    private static List<String> seed(UserService userService) {
+        List<User> users = new ArrayList<>(SEEDED_USERS);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            users.add(VirtualThreadsBenchmark.user(seedEmail(i)));
+        }
+        List<String> ids = new ArrayList<>(SEEDED_USERS);
+        userService.registerUsers(users).forEach(result -> ids.add(result.getId()));
+        return ids;
+    }
+
+    private static String seedEmail(int index) {
+        return "seed-" + index + "@example.com";
+    }
+
+    private static Map<String, Object> parseProperties(String properties) {
+        Map<String, Object> parsed = new LinkedHashMap<>();
+        for (String property : properties.split(",")) {
+            String[] keyValue = property.split("=", 2);
+            if (keyValue.length == 2) {
+                parsed.put(keyValue[0].trim(), keyValue[1].trim());
+            }
+        }
+        return parsed;
+    }
+
+    private static void writeReport(List<String> report) throws IOException {
+        Path directory = Path.of("target", "load-test");
+        Files.createDirectories(directory);
+        Path file = directory.resolve("load-test-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".txt");
+        Files.write(file, report);
+        System.out.println("Report written to " + file.toAbsolutePath());
+    }
+}
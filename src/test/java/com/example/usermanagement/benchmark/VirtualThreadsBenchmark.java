@@ -0,0 +1,99 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.service.UserService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares platform-thread and virtual-thread request execution under high concurrency.
+ *
+ * The application runs against the in-memory storage engine with a {@link SimulatedLatency simulated round trip},
+ * which blocks the request thread like a MongoDB call does. Caching and lookup coalescing are disabled so that
+ * every request reaches the repository. The virtual-thread mode is only measured on Java 21 or later.
+ *
+ * Run with {@code mvn -Pbenchmark test -Dtest=VirtualThreadsBenchmark} (on Java 21 add {@code -Pvirtual-threads}).
+ * Tunables: {@code benchmark.concurrency} (default 1000), {@code benchmark.duration} (default 10s),
+ * {@code benchmark.repository-latency} (default 5ms).
+ */
+@Tag("benchmark")
+public class VirtualThreadsBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 1000);
+    private static final Duration DURATION = Duration.parse("PT" + System.getProperty("benchmark.duration", "10s"));
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final int SEEDED_USERS = 10_000;
+
+    @Test
+    void compareThreadModels() throws Exception {
+        List<String> report = new ArrayList<>();
+        runMode("platform", false, report);
+        if (Runtime.version().feature() >= 21) {
+            runMode("virtual", true, report);
+        } else {
+            report.add("virtual threads skipped: running on Java " + Runtime.version().feature());
+        }
+        System.out.println("\n=== Thread model benchmark ===");
+        report.forEach(System.out::println);
+    }
+
+    private void runMode(String mode, boolean virtualThreads, List<String> report) throws Exception {
+        try (BenchmarkApplication app = BenchmarkApplication.start(Map.of(
+                "spring.threads.virtual.enabled", virtualThreads,
+                "user.cache.enabled", false,
+                "user.lookup.coalesce", false))) {
+            List<String> ids = seed(app.getBean(UserService.class));
+            URI base = app.baseUri();
+            LoadGenerator load = new LoadGenerator();
+
+            LoadGenerator.Result reads = load.run(mode + " getUserById", CONCURRENCY, WARMUP, DURATION,
+                    n -> HttpRequest.newBuilder(base.resolve("/users/getUserById/" + ids.get((int) (n % ids.size()))))
+                            .GET().build(),
+                    status -> status == 200);
+            LoadGenerator.Result writes = load.run(mode + " createUser", CONCURRENCY, WARMUP, DURATION,
+                    n -> HttpRequest.newBuilder(base.resolve("/users/createUser"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(registrationJson(mode + "-" + n)))
+                            .build(),
+                    status -> status == 201);
+            report.add(reads.summary());
+            report.add(writes.summary());
+            assertEquals(0, reads.errors(), "getUserById errors");
+            assertEquals(0, writes.errors(), "createUser errors");
+        }
+    }
+
+    private static List<String> seed(UserService userService) {
+        List<String> ids = new ArrayList<>(SEEDED_USERS);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            users.add(user("seed-" + i + "@example.com"));
+        }
+        userService.registerUsers(users).forEach(result -> ids.add(result.getId()));
+        return ids;
+    }
+
+    static User user(String email) {
+        User user = new User();
+        user.setName("John Doe");
+        user.setAge(25);
+        user.setCountry("France");
+        user.setEmail(email);
+        user.setPhone("1234567890");
+        return user;
+    }
+
+    static String registrationJson(String suffix) {
+        return "{\"name\":\"John Doe\",\"age\":25,\"country\":\"France\",\"email\":\"john-" + suffix
+                + "@example.com\",\"phone\":\"1234567890\"}";
+    }
+}
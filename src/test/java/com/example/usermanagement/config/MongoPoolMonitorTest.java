@@ -0,0 +1,59 @@
+package com.example.usermanagement.config;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test class for {@link MongoPoolMonitor}.
+ */
+public class MongoPoolMonitorTest {
+
+    private static final ServerId SERVER = new ServerId(new ClusterId(), new ServerAddress("localhost", 27017));
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MongoPoolMonitor monitor = new MongoPoolMonitor(registry);
+
+    /**
+     * Tests that waiting and checked-out counts follow the pool events and that wait times are recorded per outcome
+     * and averaged.
+     */
+    @Test
+    void testTracksCheckoutsAndWaitTimes() {
+        ConnectionId connection = new ConnectionId(SERVER);
+
+        monitor.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(SERVER, 1));
+        monitor.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(SERVER, 2));
+        assertEquals(2, monitor.waitingCount());
+
+        monitor.connectionCheckedOut(new ConnectionCheckedOutEvent(connection, 1, TimeUnit.MILLISECONDS.toNanos(3)));
+        monitor.connectionCheckOutFailed(new ConnectionCheckOutFailedEvent(SERVER, 2,
+                ConnectionCheckOutFailedEvent.Reason.TIMEOUT, TimeUnit.SECONDS.toNanos(2)));
+        assertEquals(0, monitor.waitingCount());
+        assertEquals(1, monitor.checkedOutCount());
+        assertTrue(monitor.recentWaitNanos() > TimeUnit.MILLISECONDS.toNanos(3));
+
+        monitor.connectionCheckedIn(new ConnectionCheckedInEvent(connection, 1));
+        assertEquals(0, monitor.checkedOutCount());
+
+        Timer success = registry.get(MongoPoolMonitor.CHECKOUT_TIMER).tag("outcome", "success").timer();
+        Timer timeout = registry.get(MongoPoolMonitor.CHECKOUT_TIMER).tag("outcome", "timeout").timer();
+        assertEquals(1, success.count());
+        assertEquals(3, success.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, timeout.count());
+        assertEquals(2000, timeout.totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+}
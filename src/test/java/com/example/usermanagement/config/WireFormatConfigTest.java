@@ -0,0 +1,145 @@
+package com.example.usermanagement.config;
+
+import com.example.usermanagement.controller.UserController;
+import com.example.usermanagement.dto.UserRegistrationDTO;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit test class for {@link WireFormatConfig}.
+ * Runs {@link UserController} with the message converters the configuration produces.
+ */
+public class WireFormatConfigTest {
+
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory()).findAndRegisterModules();
+
+    @Mock
+    private UserService userService;
+
+    private List<HttpMessageConverter<?>> converters;
+    private MockMvc mockMvc;
+
+    /**
+     * Initializes the converters and MockMvc.
+     */
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ObjectProvider<Jackson2ObjectMapperBuilder> builder = mock(ObjectProvider.class);
+        when(builder.getIfAvailable(any())).thenAnswer(invocation -> Jackson2ObjectMapperBuilder.json());
+        converters = new ArrayList<>(List.of(new StringHttpMessageConverter(), new MappingJackson2HttpMessageConverter()));
+        new WireFormatConfig(builder).extendMessageConverters(converters);
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserController(userService, new ListingProperties(), new LookupProperties()))
+                .setMessageConverters(converters.toArray(new HttpMessageConverter<?>[0]))
+                .build();
+    }
+
+    /**
+     * Tests that the CBOR converter is added after the JSON converter, so that JSON stays the default.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testJsonStaysDefault() throws Exception {
+        assertInstanceOf(MappingJackson2CborHttpMessageConverter.class, converters.get(2));
+        when(userService.getUserById("1")).thenReturn(user());
+
+        mockMvc.perform(get("/users/getUserById/1").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    /**
+     * Tests that the JSON and CBOR representations of a user have different entity tags, so that a cached
+     * JSON copy is not revalidated as the CBOR one, and that each is served in the format its tag names.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testEntityTagPerFormat() throws Exception {
+        when(userService.getUserById("1")).thenReturn(user());
+        when(userService.getUserVersion("1")).thenReturn(0L);
+
+        mockMvc.perform(get("/users/getUserById/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-0-cbor\""))
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+        mockMvc.perform(get("/users/getUserById/1").header("Accept", "application/cbor;q=0.5, application/json"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-0-json\""))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/users/getUserById/1")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header("If-None-Match", "\"1-0-json\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-0-cbor\""));
+        mockMvc.perform(get("/users/getUserById/1")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header("If-None-Match", "\"1-0-cbor\""))
+                .andExpect(status().isNotModified());
+    }
+
+    /**
+     * Tests that a registration can be sent and answered in CBOR.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testRegisterUserInCbor() throws Exception {
+        when(userService.registerUser(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setId("1");
+            return user;
+        });
+        byte[] request = cborMapper.writeValueAsBytes(
+                new UserRegistrationDTO("John Doe", 25, "France", "john@example.com", "1234567890"));
+
+        MvcResult result = mockMvc.perform(post("/users/createUser")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(request))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        User created = cborMapper.readValue(result.getResponse().getContentAsByteArray(), User.class);
+        assertEquals("1", created.getId());
+        assertEquals("john@example.com", created.getEmail());
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId("1");
+        user.setName("John Doe");
+        user.setEmail("john@example.com");
+        return user;
+    }
+}
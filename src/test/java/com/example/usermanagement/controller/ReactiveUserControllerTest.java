@@ -0,0 +1,109 @@
+package com.example.usermanagement.controller;
+
+import com.example.usermanagement.dto.UserRegistrationDTO;
+import com.example.usermanagement.exception.DuplicateEmailException;
+import com.example.usermanagement.exception.GlobalExceptionHandler;
+import com.example.usermanagement.exception.UserNotFoundException;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.service.ReactiveUserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test class for {@link ReactiveUserController}.
+ * Uses {@link WebTestClient} bound to the controller and the shared {@link GlobalExceptionHandler},
+ * to check that routes, validation and error mapping match the servlet controller.
+ */
+public class ReactiveUserControllerTest {
+
+    private WebTestClient webTestClient;
+
+    @Mock
+    private ReactiveUserService userService;
+
+    /**
+     * Binds the controller and the exception handler to a WebTestClient.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        webTestClient = WebTestClient.bindToController(new ReactiveUserController(userService))
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    /**
+     * Tests that a valid registration returns 201 Created with the saved user.
+     */
+    @Test
+    void testRegisterUser_Success() {
+        when(userService.registerUser(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setId("1");
+            return Mono.just(user);
+        });
+
+        webTestClient.post().uri("/users/createUser?notification=sms")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRegistrationDTO("John Doe", 25, "France", "john@example.com", "1234567890"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("1")
+                .jsonPath("$.notificationPreference").isEqualTo("sms");
+    }
+
+    /**
+     * Tests that invalid input, including a country other than France, returns 400 Bad Request with field errors.
+     */
+    @Test
+    void testRegisterUser_InvalidInput() {
+        webTestClient.post().uri("/users/createUser")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRegistrationDTO("", 15, "USA", "invalidemail", ""))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.country").isEqualTo("User must reside in France");
+    }
+
+    /**
+     * Tests that a duplicate email is reported as 409 Conflict through the exception handler.
+     */
+    @Test
+    void testRegisterUser_DuplicateEmail() {
+        when(userService.registerUser(any(User.class)))
+                .thenReturn(Mono.error(new DuplicateEmailException("Email already exists: john@example.com")));
+
+        webTestClient.post().uri("/users/createUser")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRegistrationDTO("John Doe", 25, "France", "john@example.com", "1234567890"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Tests that a missing user returns 404 Not Found.
+     */
+    @Test
+    void testGetUserById_NotFound() {
+        when(userService.getUserById("99"))
+                .thenReturn(Mono.error(new UserNotFoundException("User not found with ID: 99")));
+
+        webTestClient.get().uri("/users/getUserById/99")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.message").isEqualTo("User not found with ID: 99");
+    }
+}
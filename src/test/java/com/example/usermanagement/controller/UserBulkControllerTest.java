@@ -0,0 +1,222 @@
+package com.example.usermanagement.controller;
+
+import com.example.usermanagement.config.BulkRegistrationProperties;
+import com.example.usermanagement.dto.BulkRegistrationResult;
+import com.example.usermanagement.dto.UserRegistrationDTO;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit test class for {@link UserBulkController}.
+ * Verifies per-item validation, chunking and result ordering for both JSON array and NDJSON bodies.
+ */
+public class UserBulkControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private UserService userService;
+
+    private ObjectMapper objectMapper;
+
+    /**
+     * Builds the controller with a real bean validator and a chunk size of two.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        objectMapper = new ObjectMapper();
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        BulkRegistrationProperties properties = new BulkRegistrationProperties();
+        properties.setChunkSize(2);
+        properties.setMaxItems(4);
+        UserBulkController controller = new UserBulkController(userService, validator, objectMapper, properties);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        when(userService.registerUsers(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            return users.stream()
+                    .map(user -> user.getEmail().startsWith("taken")
+                            ? BulkRegistrationResult.duplicate(user.getEmail())
+                            : BulkRegistrationResult.created("id-" + user.getEmail(), user.getEmail()))
+                    .toList();
+        });
+    }
+
+    /**
+     * Tests that a JSON array is registered in chunks and that invalid items are reported in place.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testRegisterUsers_JsonArray() throws Exception {
+        List<UserRegistrationDTO> userDTOs = List.of(
+                new UserRegistrationDTO("John Doe", 25, "France", "john@example.com", "1234567890"),
+                new UserRegistrationDTO("", 15, "USA", "invalidemail", ""),
+                new UserRegistrationDTO("Jane Doe", 30, "France", "taken@example.com", "1234567890"),
+                new UserRegistrationDTO("Jim Doe", 40, "France", "jim@example.com", "1234567890"));
+
+        mockMvc.perform(post("/users/bulkCreateUsers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDTOs)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.duplicates").value(1))
+                .andExpect(jsonPath("$.invalid").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[1].status").value("INVALID"))
+                .andExpect(jsonPath("$.results[1].errors.country").value("User must reside in France"))
+                .andExpect(jsonPath("$.results[2].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.results[3].index").value(3))
+                .andExpect(jsonPath("$.results[3].id").value("id-jim@example.com"));
+
+        verify(userService, times(2)).registerUsers(anyList());
+    }
+
+    /**
+     * Tests that an NDJSON body is read line by line and registered.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testRegisterUsers_Ndjson() throws Exception {
+        String body = objectMapper.writeValueAsString(
+                new UserRegistrationDTO("John Doe", 25, "France", "john@example.com", "1234567890")) + "\n"
+                + objectMapper.writeValueAsString(
+                new UserRegistrationDTO("Jane Doe", 30, "France", "jane@example.com", "1234567890")) + "\n";
+
+        mockMvc.perform(post("/users/bulkCreateUsers")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body)
+                        .param("notification", "sms"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.results[1].email").value("jane@example.com"));
+
+        verify(userService).registerUsers(argThat(users ->
+                users.size() == 2 && users.stream().allMatch(user -> "sms".equals(user.getNotificationPreference()))));
+    }
+
+    /**
+     * Tests that a malformed NDJSON line stops the stream after the earlier chunks are registered,
+     * and that the response reports them and the unreadable line.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testRegisterUsers_NdjsonMalformedLine() throws Exception {
+        String body = objectMapper.writeValueAsString(
+                new UserRegistrationDTO("John Doe", 25, "France", "john@example.com", "1234567890")) + "\n"
+                + objectMapper.writeValueAsString(
+                new UserRegistrationDTO("Jane Doe", 30, "France", "jane@example.com", "1234567890")) + "\n"
+                + "{\"name\": \"Jim Doe\", \"age\": \n"
+                + objectMapper.writeValueAsString(
+                new UserRegistrationDTO("Joe Doe", 35, "France", "joe@example.com", "1234567890")) + "\n";
+
+        mockMvc.perform(post("/users/bulkCreateUsers")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.invalid").value(1))
+                .andExpect(jsonPath("$.truncated").value(true))
+                .andExpect(jsonPath("$.results[1].id").value("id-jane@example.com"))
+                .andExpect(jsonPath("$.results[2].index").value(2))
+                .andExpect(jsonPath("$.results[2].status").value("INVALID"))
+                .andExpect(jsonPath("$.results[2].errors.body").exists());
+    }
+
+    /**
+     * Tests that a null array element is reported as an invalid item.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testRegisterUsers_NullItem() throws Exception {
+        String body = "[" + objectMapper.writeValueAsString(
+                new UserRegistrationDTO("John Doe", 25, "France", "john@example.com", "1234567890")) + ", null]";
+
+        mockMvc.perform(post("/users/bulkCreateUsers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.results[1].status").value("INVALID"))
+                .andExpect(jsonPath("$.results[1].errors.item").value("must not be null"));
+    }
+
+    /**
+     * Tests that arrays over the maximum are rejected without registering anything,
+     * and that streams stop at the maximum.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testRegisterUsers_TooManyItems() throws Exception {
+        List<UserRegistrationDTO> userDTOs = IntStream.range(0, 5)
+                .mapToObj(i -> new UserRegistrationDTO("John Doe", 25, "France", "john" + i + "@example.com", "1234567890"))
+                .toList();
+
+        mockMvc.perform(post("/users/bulkCreateUsers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDTOs)))
+                .andExpect(status().isBadRequest());
+
+        String oversized = objectMapper.writeValueAsString(userDTOs);
+        mockMvc.perform(post("/users/bulkCreateUsers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(oversized.substring(0, oversized.length() - 1) + ", {\"name\": tail of a huge body"))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("At most 4 users can be registered per request"));
+        verify(userService, never()).registerUsers(anyList());
+
+        StringBuilder body = new StringBuilder();
+        for (UserRegistrationDTO dto : userDTOs) {
+            body.append(objectMapper.writeValueAsString(dto)).append('\n');
+        }
+        mockMvc.perform(post("/users/bulkCreateUsers")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(4))
+                .andExpect(jsonPath("$.truncated").value(true))
+                .andExpect(jsonPath("$.results[4].status").value("INVALID"));
+    }
+
+    /**
+     * Tests that a JSON body that is not a complete array of items is rejected without registering anything.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testRegisterUsers_MalformedJsonArray() throws Exception {
+        String item = objectMapper.writeValueAsString(
+                new UserRegistrationDTO("John Doe", 25, "France", "john@example.com", "1234567890"));
+
+        for (String body : List.of(item, "[" + item, "[" + item + ", {\"name\": }]")) {
+            mockMvc.perform(post("/users/bulkCreateUsers")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isBadRequest());
+        }
+        verify(userService, never()).registerUsers(anyList());
+    }
+}
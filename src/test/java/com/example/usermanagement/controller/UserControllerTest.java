@@ -1,19 +1,26 @@
 package com.example.usermanagement.controller;
 
+import com.example.usermanagement.config.ListingProperties;
+import com.example.usermanagement.config.LookupProperties;
+import com.example.usermanagement.dto.UserBatch;
+import com.example.usermanagement.dto.UserPage;
 import com.example.usermanagement.dto.UserRegistrationDTO;
+import com.example.usermanagement.dto.UserView;
+import com.example.usermanagement.exception.GlobalExceptionHandler;
 import com.example.usermanagement.model.User;
 import com.example.usermanagement.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -32,7 +39,6 @@ public class UserControllerTest {
     @Mock
     private UserService userService;
 
-    @InjectMocks
     private UserController userController;
 
     private ObjectMapper objectMapper;
@@ -44,6 +50,7 @@ public class UserControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        userController = new UserController(userService, new ListingProperties(), new LookupProperties());
         mockMvc = MockMvcBuilders.standaloneSetup(userController).build();
         objectMapper = new ObjectMapper();
     }
@@ -96,6 +103,34 @@ public class UserControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    /**
+     * Tests the user registration endpoint with a malformed body or an unsupported content type.
+     * Verifies that these are answered with 400 Bad Request and 415 Unsupported Media Type rather than 500.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testRegisterUser_MalformedBody() throws Exception {
+        mockMvc = MockMvcBuilders.standaloneSetup(userController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        mockMvc.perform(post("/users/createUser")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"John"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.message").value("Malformed request body"));
+
+        mockMvc.perform(post("/users/createUser")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("John"))
+                .andExpect(status().isUnsupportedMediaType())
+                .andExpect(jsonPath("$.status").value(415));
+
+        verifyNoInteractions(userService);
+    }
+
     /**
      * Tests the "getUserById" endpoint for a successful scenario.
      * Verifies that when a valid user ID is provided, the correct user details are returned with a status 200 OK.
@@ -115,10 +150,42 @@ public class UserControllerTest {
 
         mockMvc.perform(get("/users/getUserById/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-0-json\""))
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andExpect(header().string("Vary", "Accept"))
                 .andExpect(jsonPath("$.id").value("1"))
                 .andExpect(jsonPath("$.name").value("John Doe"));
     }
 
+    /**
+     * Tests the "getUserById" endpoint with an {@code If-None-Match} header.
+     * Verifies that a current entity tag is answered with 304 Not Modified from the version alone,
+     * and that a stale one gets the full user with the new entity tag.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testGetUserById_ConditionalRequest() throws Exception {
+        User user = new User();
+        user.setId("1");
+        user.setName("John Doe");
+        user.setVersion(3L);
+        when(userService.getUserVersion("1")).thenReturn(3L);
+        when(userService.getUserById("1")).thenReturn(user);
+
+        mockMvc.perform(get("/users/getUserById/1").header("If-None-Match", "\"1-2-json\", W/\"1-3-json\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1-3-json\""))
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(content().string(""));
+        verify(userService, never()).getUserById("1");
+
+        mockMvc.perform(get("/users/getUserById/1").header("If-None-Match", "\"1-2-json\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3-json\""))
+                .andExpect(jsonPath("$.name").value("John Doe"));
+    }
+
     /**
      * Tests the "getUserById" endpoint when a user is not found.
      * Verifies that when a non-existent user ID is provided, the response returns status 404 Not Found with a suitable message.
@@ -131,6 +198,152 @@ public class UserControllerTest {
 
         mockMvc.perform(get("/users/getUserById/99"))
                 .andExpect(status().isNotFound())
-                .andExpect(content().string("User not found"));
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.message").value("User not found"));
+    }
+
+    /**
+     * Tests the "getUserById" endpoint with a field selection.
+     * Verifies that the named summary projection is resolved and only the selected fields are returned.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testGetUserById_SummaryView() throws Exception {
+        UserView view = new UserView();
+        view.setId("1");
+        view.setName("John Doe");
+        view.setNotificationPreference("email");
+
+        when(userService.getUserView("1", UserView.SUMMARY)).thenReturn(view);
+
+        mockMvc.perform(get("/users/getUserById/1").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("John Doe"))
+                .andExpect(jsonPath("$.email").doesNotExist())
+                .andExpect(jsonPath("$.registrationDate").doesNotExist());
+    }
+
+    /**
+     * Tests the "getUserById" endpoint with an unknown field.
+     * Verifies that the response returns status 400 Bad Request without querying the service.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testGetUserById_UnknownField() throws Exception {
+        mockMvc = MockMvcBuilders.standaloneSetup(userController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        mockMvc.perform(get("/users/getUserById/1").param("fields", "name,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Bad Request"))
+                .andExpect(jsonPath("$.message").value("Unknown field: password"));
+
+        verify(userService, never()).getUserView(anyString(), anySet());
+    }
+
+    /**
+     * Tests the "getUserById" endpoint with an empty field selection.
+     * Verifies that the response returns status 400 Bad Request rather than a user without fields.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testGetUserById_EmptyFields() throws Exception {
+        mockMvc = MockMvcBuilders.standaloneSetup(userController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        mockMvc.perform(get("/users/getUserById/1").param("fields", ""))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("No fields selected"));
+        mockMvc.perform(get("/users/getUserById/1").param("fields", ",,"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("No fields selected"));
+
+        verify(userService, never()).getUserView(anyString(), anySet());
+    }
+
+    /**
+     * Tests the batch lookup endpoint.
+     * Verifies that the users are returned together with the ids that were not found.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testGetUsersByIds() throws Exception {
+        User user = new User();
+        user.setId("1");
+        user.setName("John Doe");
+
+        when(userService.getUsersByIds(List.of("1", "99"))).thenReturn(new UserBatch(List.of(user), List.of("99")));
+
+        mockMvc.perform(post("/users/getUsersByIds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"1\", \"99\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].id").value("1"))
+                .andExpect(jsonPath("$.missingIds[0]").value("99"));
+    }
+
+    /**
+     * Tests the batch lookup endpoint with more ids than allowed.
+     * Verifies that the response returns status 400 Bad Request without querying the service.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testGetUsersByIds_TooManyIds() throws Exception {
+        LookupProperties lookupProperties = new LookupProperties();
+        lookupProperties.setMaxBatchSize(1);
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserController(userService, new ListingProperties(), lookupProperties))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        mockMvc.perform(post("/users/getUsersByIds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"1\", \"2\"]"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(userService);
+    }
+
+    /**
+     * Tests the user listing endpoint.
+     * Verifies that the filters are bound from the query parameters and the next-page cursor is returned.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testListUsers() throws Exception {
+        User user = new User();
+        user.setId("1");
+        user.setName("John Doe");
+
+        when(userService.listUsers(argThat(criteria -> "France".equals(criteria.getCountry())
+                && Integer.valueOf(30).equals(criteria.getMinAge())), isNull(), eq(10)))
+                .thenReturn(new UserPage(List.of(user), "next"));
+
+        mockMvc.perform(get("/users").param("country", "France").param("minAge", "30").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value("1"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    /**
+     * Tests the user listing endpoint with a malformed cursor.
+     * Verifies that the response returns status 400 Bad Request.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testListUsers_InvalidCursor() throws Exception {
+        mockMvc = MockMvcBuilders.standaloneSetup(userController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        mockMvc.perform(get("/users").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
     }
 }
@@ -0,0 +1,93 @@
+package com.example.usermanagement.controller;
+
+import com.example.usermanagement.config.ExportProperties;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit test class for {@link UserExportController}.
+ * Verifies the NDJSON framing, the resume parameter and the optional gzip encoding.
+ */
+public class UserExportControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private UserService userService;
+
+    /**
+     * Builds the controller with the default export settings.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        UserExportController controller = new UserExportController(userService, new ObjectMapper(), new ExportProperties());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    /**
+     * Tests that users are written one JSON document per line, resuming after the given id.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testExportUsers_Ndjson() throws Exception {
+        when(userService.streamUsers("0", 1000)).thenReturn(Stream.of(user("1"), user("2")));
+
+        MvcResult result = mockMvc.perform(get("/users/export").param("afterId", "0"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("2", new ObjectMapper().readTree(lines[1]).get("id").asText());
+    }
+
+    /**
+     * Tests that the body is gzip-compressed when requested.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testExportUsers_Gzip() throws Exception {
+        when(userService.streamUsers(null, 50)).thenReturn(Stream.of(user("1")));
+
+        MvcResult result = mockMvc.perform(get("/users/export").param("gzip", "true").param("batchSize", "50"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals("1", new ObjectMapper().readTree(body.trim()).get("id").asText());
+        }
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("John Doe");
+        user.setEmail("john" + id + "@example.com");
+        user.setRegistrationDate(null);
+        return user;
+    }
+}
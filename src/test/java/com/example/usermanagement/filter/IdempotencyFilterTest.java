@@ -0,0 +1,262 @@
+package com.example.usermanagement.filter;
+
+import com.example.usermanagement.config.IdempotencyProperties;
+import com.example.usermanagement.config.ListingProperties;
+import com.example.usermanagement.config.LookupProperties;
+import com.example.usermanagement.controller.UserController;
+import com.example.usermanagement.exception.DuplicateEmailException;
+import com.example.usermanagement.exception.GlobalExceptionHandler;
+import com.example.usermanagement.model.IdempotencyRecord;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.IdempotencyRecordRepository;
+import com.example.usermanagement.service.IdempotencyStore;
+import com.example.usermanagement.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit test class for {@link IdempotencyFilter}.
+ * The filter runs in front of the real {@link UserController}, with the service and the key repository mocked.
+ */
+public class IdempotencyFilterTest {
+
+    private static final String BODY = "{\"name\":\"John Doe\",\"age\":25,\"country\":\"France\","
+            + "\"email\":\"john@example.com\",\"phone\":\"1234567890\"}";
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    private MockMvc mockMvc;
+
+    /**
+     * Initializes the mocks and MockMvc with the filter and the exception handler.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        IdempotencyFilter filter = new IdempotencyFilter(new IdempotencyStore(repository, new IdempotencyProperties()));
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserController(userService, new ListingProperties(), new LookupProperties()))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .addFilters(filter)
+                .build();
+    }
+
+    /**
+     * Tests that a retry with the same key gets the original response replayed without registering again.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testRetryIsReplayed() throws Exception {
+        User saved = new User();
+        saved.setId("1");
+        saved.setEmail("john@example.com");
+        when(userService.registerUser(any(User.class))).thenReturn(saved);
+
+        mockMvc.perform(createUser("key-1", BODY))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value("1"));
+        mockMvc.perform(createUser("key-1", BODY))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.id").value("1"));
+
+        verify(userService, times(1)).registerUser(any(User.class));
+        verify(repository, times(1)).insert(any(IdempotencyRecord.class));
+        verify(repository, times(1)).save(argThat(record -> record.isCompleted() && record.getStatus() == 201));
+    }
+
+    /**
+     * Tests that a registration through an encoded spelling of the createUser path is deduplicated as well.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testEncodedPathIsDeduplicated() throws Exception {
+        User saved = new User();
+        saved.setId("1");
+        when(userService.registerUser(any(User.class))).thenReturn(saved);
+
+        mockMvc.perform(post(URI.create("/users/%63reateUser"))
+                        .header(IdempotencyFilter.HEADER, "key-8")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isCreated());
+        mockMvc.perform(createUser("key-8", BODY))
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"));
+
+        verify(userService, times(1)).registerUser(any(User.class));
+    }
+
+    /**
+     * Tests that a duplicate email is answered with 409 Conflict, and the same on a retry.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testDuplicateEmailIsReplayedAsConflict() throws Exception {
+        when(userService.registerUser(any(User.class)))
+                .thenThrow(new DuplicateEmailException("Email already exists: john@example.com"));
+
+        mockMvc.perform(createUser("key-2", BODY)).andExpect(status().isConflict());
+        mockMvc.perform(createUser("key-2", BODY))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Email already exists: john@example.com"));
+
+        verify(userService, times(1)).registerUser(any(User.class));
+    }
+
+    /**
+     * Tests that reusing a key for a different request is rejected.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testKeyReusedForDifferentRequest() throws Exception {
+        when(userService.registerUser(any(User.class))).thenReturn(new User());
+
+        mockMvc.perform(createUser("key-3", BODY)).andExpect(status().isCreated());
+        mockMvc.perform(createUser("key-3", BODY.replace("John Doe", "Jane Doe")))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    /**
+     * Tests that a key completed by another instance is replayed from MongoDB.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testKeyCompletedElsewhereIsReplayed() throws Exception {
+        when(repository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("E11000"));
+        IdempotencyRecord recorded = new IdempotencyRecord();
+        recorded.setKey("key-4");
+        recorded.setCompleted(true);
+        recorded.setStatus(201);
+        recorded.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        recorded.setBody("{\"id\":\"7\"}".getBytes(StandardCharsets.UTF_8));
+        recorded.setExpiresAt(LocalDateTime.now().plusHours(1));
+        when(repository.findById("key-4")).thenAnswer(invocation -> {
+            // The hash of an identical request, as computed by the first instance
+            recorded.setRequestHash(lastClaimHash());
+            return Optional.of(recorded);
+        });
+
+        mockMvc.perform(createUser("key-4", BODY))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value("7"));
+        verify(userService, never()).registerUser(any(User.class));
+    }
+
+    /**
+     * Tests that a claim abandoned by another instance is taken over with a conditional update, and that
+     * a claim another request took over first is reported as in progress.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testAbandonedClaimIsTakenOverOnce() throws Exception {
+        when(repository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("E11000"));
+        IdempotencyRecord abandoned = new IdempotencyRecord();
+        abandoned.setKey("key-5");
+        abandoned.setCreatedAt(LocalDateTime.now().minusHours(1));
+        when(repository.findById(anyString())).thenAnswer(invocation -> {
+            abandoned.setRequestHash(lastClaimHash());
+            return Optional.of(abandoned);
+        });
+        when(repository.takeOver(any(IdempotencyRecord.class), any(LocalDateTime.class))).thenReturn(true, false);
+        when(userService.registerUser(any(User.class))).thenReturn(new User());
+
+        mockMvc.perform(createUser("key-5", BODY)).andExpect(status().isCreated());
+        mockMvc.perform(createUser("key-6", BODY)).andExpect(status().isConflict());
+
+        verify(userService, times(1)).registerUser(any(User.class));
+        verify(repository, never()).save(argThat(record -> !record.isCompleted()));
+    }
+
+    /**
+     * Tests that a key is released locally when resolving it against another instance fails,
+     * so that a retry is not answered as in progress.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testFailedClaimIsReleased() throws Exception {
+        when(repository.insert(any(IdempotencyRecord.class)))
+                .thenThrow(new DuplicateKeyException("E11000"))
+                .thenReturn(null);
+        when(repository.findById("key-7")).thenThrow(new DataAccessResourceFailureException("timeout"));
+        when(userService.registerUser(any(User.class))).thenReturn(new User());
+
+        assertThrows(Exception.class, () -> mockMvc.perform(createUser("key-7", BODY)));
+        mockMvc.perform(createUser("key-7", BODY)).andExpect(status().isCreated());
+
+        verify(userService, times(1)).registerUser(any(User.class));
+    }
+
+    /**
+     * Tests that a key claimed by another instance between the failed insert and the lookup is answered
+     * as in progress instead of failing the request.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testConcurrentClaimElsewhereIsConflict() throws Exception {
+        when(repository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("E11000"));
+        when(repository.findById("key-9")).thenReturn(Optional.empty());
+
+        mockMvc.perform(createUser("key-9", BODY)).andExpect(status().isConflict());
+
+        verify(userService, never()).registerUser(any(User.class));
+    }
+
+    /**
+     * Tests that a response is persisted even if the local claim was evicted, so that retries get it replayed.
+     */
+    @Test
+    void testCompletionPersistedWithoutLocalClaim() {
+        IdempotencyStore store = new IdempotencyStore(repository, new IdempotencyProperties());
+
+        store.complete("key-10", "hash", 201, MediaType.APPLICATION_JSON_VALUE, new byte[0]);
+
+        verify(repository).save(argThat(record -> record.isCompleted() && "hash".equals(record.getRequestHash())
+                && record.getExpiresAt() != null));
+    }
+
+    private String lastClaimHash() {
+        return mockingDetails(repository).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("insert"))
+                .map(invocation -> ((IdempotencyRecord) invocation.getArgument(0)).getRequestHash())
+                .reduce((first, second) -> second)
+                .orElseThrow();
+    }
+
+    private static MockHttpServletRequestBuilder createUser(String key, String body) {
+        return post("/users/createUser")
+                .header(IdempotencyFilter.HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.usermanagement.filter;
+
+import com.example.usermanagement.config.LoadSheddingProperties;
+import com.example.usermanagement.config.MongoPoolMonitor;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link LoadSheddingFilter}.
+ */
+public class LoadSheddingFilterTest {
+
+    private final MongoPoolMonitor poolMonitor = new MongoPoolMonitor(new SimpleMeterRegistry());
+    private LoadSheddingFilter filter;
+
+    /**
+     * Initializes a filter that admits one request at a time and one request waiting for a connection.
+     */
+    @BeforeEach
+    void setUp() {
+        LoadSheddingProperties properties = new LoadSheddingProperties();
+        properties.setMaxInFlight(1);
+        properties.setMaxPoolWaiters(1);
+        filter = new LoadSheddingFilter(properties, poolMonitor, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Tests that a request arriving while the maximum is in flight is rejected with 503 and Retry-After,
+     * and that the slot is released afterwards.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testShedsOverMaxInFlight() throws Exception {
+        AtomicInteger nestedStatus = new AtomicInteger();
+        // The nested request arrives while the outer one is still being processed
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws ServletException, IOException {
+                MockHttpServletResponse nested = new MockHttpServletResponse();
+                filter.doFilter(request(), nested, new MockFilterChain());
+                nestedStatus.set(nested.getStatus());
+                assertEquals("1", nested.getHeader("Retry-After"));
+            }
+        };
+
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        filter.doFilter(request(), outer, new MockFilterChain(servlet));
+
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, nestedStatus.get());
+        assertEquals(200, perform().getStatus());
+    }
+
+    /**
+     * Tests that requests are rejected while too many requests wait for a MongoDB connection.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testShedsWhenPoolIsExhausted() throws Exception {
+        ServerId server = new ServerId(new ClusterId(), new ServerAddress("localhost", 27017));
+        poolMonitor.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(server, 1));
+        assertEquals(200, perform().getStatus());
+
+        poolMonitor.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(server, 2));
+        assertEquals(503, perform().getStatus());
+    }
+
+    private MockHttpServletResponse perform() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/users/getUserById/1");
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.usermanagement.filter;
+
+import com.example.usermanagement.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link RateLimitFilter}.
+ * Limits refill too slowly to matter during a test, so only the burst capacity is exercised.
+ */
+public class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    /**
+     * Initializes a filter with a default limit of 3 requests and a limit of 1 request for createUser,
+     * and one issued API key.
+     */
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getApiKeys().add("api-key");
+        properties.getDefaultLimit().setCapacity(3);
+        properties.getDefaultLimit().setRefillPerSecond(0.001);
+        RateLimitProperties.Limit createUser = new RateLimitProperties.Limit();
+        createUser.setPath("/users/createUser");
+        createUser.setCapacity(1);
+        createUser.setRefillPerSecond(0.001);
+        properties.getEndpoints().put("create-user", createUser);
+        filter = new RateLimitFilter(properties, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Tests that each client gets its own bucket and that an exhausted one is answered with 429 and Retry-After.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testLimitsEachClient() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, perform("/users/getUserById/1", "10.0.0.1", null).getStatus());
+        }
+        MockHttpServletResponse limited = perform("/users/getUserById/1", "10.0.0.1", null);
+        assertEquals(429, limited.getStatus());
+        assertNotNull(limited.getHeader("Retry-After"));
+        assertTrue(limited.getContentAsString().contains("Rate limit exceeded"));
+
+        assertEquals(200, perform("/users/getUserById/1", "10.0.0.2", null).getStatus());
+        assertEquals(200, perform("/users/getUserById/1", "10.0.0.1", "api-key").getStatus());
+    }
+
+    /**
+     * Tests that an unknown API key does not give a client a fresh bucket.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testUnknownApiKeyIsLimitedByAddress() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, perform("/users/getUserById/1", "10.0.0.1", "made-up-" + i).getStatus());
+        }
+        assertEquals(429, perform("/users/getUserById/1", "10.0.0.1", "made-up-3").getStatus());
+        assertEquals(429, perform("/users/getUserById/1", "10.0.0.1", null).getStatus());
+        assertEquals(200, perform("/users/getUserById/1", "10.0.0.1", "api-key").getStatus());
+    }
+
+    /**
+     * Tests that the stricter createUser limit applies to its path only, and that other paths are not limited.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testEndpointLimit() throws Exception {
+        assertEquals(200, perform("/users/createUser", "10.0.0.1", null).getStatus());
+        assertEquals(429, perform("/users/createUser", "10.0.0.1", null).getStatus());
+        assertEquals(200, perform("/users/getUserById/1", "10.0.0.1", null).getStatus());
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, perform("/actuator/health", "10.0.0.1", null).getStatus());
+        }
+    }
+
+    /**
+     * Tests that the createUser limit also applies to encoded or parameterized spellings of its path,
+     * which are dispatched to the same endpoint.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testEndpointLimit_EncodedPath() throws Exception {
+        assertEquals(200, perform("/users/%63reateUser", "10.0.0.1", null).getStatus());
+        assertEquals(429, perform("/users/createUser;x=1", "10.0.0.1", null).getStatus());
+        assertEquals(429, perform("/users/createUser", "10.0.0.1", null).getStatus());
+    }
+
+    private MockHttpServletResponse perform(String path, String address, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(address);
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
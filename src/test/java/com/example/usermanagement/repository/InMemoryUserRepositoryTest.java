@@ -0,0 +1,270 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.config.StorageProperties;
+import com.example.usermanagement.dto.UserCursor;
+import com.example.usermanagement.dto.UserSearchCriteria;
+import com.example.usermanagement.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link InMemoryUserRepository}.
+ */
+public class InMemoryUserRepositoryTest {
+
+    private final InMemoryUserRepository repository = new InMemoryUserRepository(new StorageProperties());
+
+    /**
+     * Tests that concurrent registrations of the same email, in different letter cases, store exactly one user.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testInsert_EmailUniqueUnderConcurrency() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> registrations = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                String email = i % 2 == 0 ? "john@example.com" : "John@Example.com";
+                registrations.add(() -> {
+                    try {
+                        repository.insert(user(email));
+                        return true;
+                    } catch (DuplicateKeyException e) {
+                        return false;
+                    }
+                });
+            }
+            int created = 0;
+            for (Future<Boolean> result : executor.invokeAll(registrations)) {
+                created += result.get() ? 1 : 0;
+            }
+            assertEquals(1, created);
+            assertEquals(1, repository.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that an id conflict and an email conflict are reported as violations of different indexes,
+     * so that only the latter is taken for a registered email.
+     */
+    @Test
+    void testInsert_IdAndEmailConflictsAreDistinguished() {
+        User first = repository.insert(user("first@example.com"));
+
+        User sameId = user("second@example.com");
+        sameId.setId(first.getId());
+        DuplicateKeyException idConflict = assertThrows(DuplicateKeyException.class, () -> repository.insert(sameId));
+        assertFalse(UserRepositoryCustom.isDuplicateEmail(idConflict));
+
+        DuplicateKeyException emailConflict = assertThrows(DuplicateKeyException.class,
+                () -> repository.insert(user("First@example.com")));
+        assertTrue(UserRepositoryCustom.isDuplicateEmail(emailConflict));
+
+        User sameEmail = user("first@example.com");
+        sameEmail.setId("other");
+        assertEquals(List.of(0), repository.insertAllUnordered(List.of(sameEmail)));
+        assertThrows(DuplicateKeyException.class, () -> repository.insertAllUnordered(List.of(sameId)));
+        assertEquals(1, repository.count());
+    }
+
+    /**
+     * Tests that a save moves the user to its new email in the index, and that a stale version is rejected.
+     */
+    @Test
+    void testSave_UpdatesEmailIndexAndChecksVersion() {
+        User user = repository.insert(user("old@example.com"));
+        repository.insert(user("taken@example.com"));
+        assertEquals(0L, user.getVersion());
+
+        User stale = repository.findById(user.getId()).orElseThrow();
+        user.setEmail("New@example.com");
+        repository.save(user);
+
+        assertEquals(1L, user.getVersion());
+        assertTrue(repository.findByNormalizedEmail("old@example.com").isEmpty());
+        assertEquals(user.getId(), repository.findByEmail("New@example.com").orElseThrow().getId());
+        assertThrows(OptimisticLockingFailureException.class, () -> repository.save(stale));
+
+        user.setEmail("taken@example.com");
+        assertThrows(DuplicateKeyException.class, () -> repository.save(user));
+    }
+
+    /**
+     * Tests that the listing is ordered by registration date and id, both descending, and resumes after the cursor.
+     */
+    @Test
+    void testFindPage_KeysetOrder() {
+        for (int i = 0; i < 5; i++) {
+            User user = user("user" + i + "@example.com");
+            user.setRegistrationDate(LocalDateTime.of(2025, 1, 1 + i, 12, 0));
+            repository.insert(user);
+        }
+        UserSearchCriteria criteria = new UserSearchCriteria();
+
+        List<User> first = repository.findPage(criteria, null, 2);
+        List<User> second = repository.findPage(criteria, UserCursor.after(first.get(1)), 2);
+
+        assertEquals(List.of("user4@example.com", "user3@example.com"), first.stream().map(User::getEmail).toList());
+        assertEquals(List.of("user2@example.com", "user1@example.com"), second.stream().map(User::getEmail).toList());
+    }
+
+    /**
+     * Tests that the users written to a snapshot are loaded, with their email index, by a new engine.
+     *
+     * @param directory The temporary directory holding the snapshot.
+     */
+    @Test
+    void testSnapshot_RoundTrip(@TempDir Path directory) {
+        StorageProperties properties = new StorageProperties();
+        properties.setSnapshotPath(directory.resolve("users.snapshot").toString());
+        InMemoryUserRepository original = new InMemoryUserRepository(properties);
+        User user = user("Zoë@example.com");
+        user.setPhone(null);
+        user.setRegistrationDate(LocalDateTime.of(2025, 3, 1, 9, 30, 15, 123_456_789));
+        original.insert(user);
+        for (int i = 0; i < 100; i++) {
+            original.insert(user("user" + i + "@example.com"));
+        }
+        original.close();
+
+        InMemoryUserRepository reloaded = new InMemoryUserRepository(properties);
+
+        assertEquals(101, reloaded.count());
+        User loaded = reloaded.findByNormalizedEmail("zoë@example.com").orElseThrow();
+        assertEquals(user.getId(), loaded.getId());
+        assertEquals("Zoë@example.com", loaded.getEmail());
+        assertNull(loaded.getPhone());
+        assertEquals(LocalDateTime.of(2025, 3, 1, 9, 30, 15, 123_000_000), loaded.getRegistrationDate());
+        assertThrows(DuplicateKeyException.class, () -> reloaded.insert(user("user7@example.com")));
+    }
+
+    /**
+     * Tests that sorted and paged listings order users like MongoDB, with missing values first in ascending order.
+     */
+    @Test
+    void testFindAll_SortedAndPaged() {
+        int[] ages = {30, 20, 40, 20};
+        for (int i = 0; i < ages.length; i++) {
+            User user = user("user" + i + "@example.com");
+            user.setAge(ages[i]);
+            repository.insert(user);
+        }
+        User noAge = user("none@example.com");
+        noAge.setAge(null);
+        repository.insert(noAge);
+        Sort byAge = Sort.by(Sort.Order.asc("age"), Sort.Order.desc("email"));
+
+        assertEquals(List.of("none@example.com", "user3@example.com", "user1@example.com", "user0@example.com",
+                "user2@example.com"), repository.findAll(byAge).stream().map(User::getEmail).toList());
+        Page<User> page = repository.findAll(PageRequest.of(1, 2, byAge.reverse()));
+        assertEquals(List.of("user1@example.com", "user3@example.com"), page.map(User::getEmail).getContent());
+        assertEquals(5, page.getTotalElements());
+        assertEquals(3, page.getTotalPages());
+        assertThrows(IllegalArgumentException.class, () -> repository.findAll(Sort.by(Sort.Order.asc("name").ignoreCase())));
+    }
+
+    /**
+     * Tests that query by example matches the set properties of the probe, with the string matchers and
+     * ignored paths of its matcher.
+     */
+    @Test
+    void testFindAll_ByExample() {
+        for (String email : List.of("anna@example.com", "Anne@example.org", "bob@example.com")) {
+            repository.insert(user(email));
+        }
+        User german = user("hans@example.de");
+        german.setCountry("Germany");
+        repository.insert(german);
+
+        User probe = new User();
+        probe.setEmail("AN");
+        probe.setCountry("France");
+        ExampleMatcher startingWith = ExampleMatcher.matching()
+                .withIgnorePaths("normalizedEmail", "registrationDate")
+                .withMatcher("email", matcher -> matcher.startsWith().ignoreCase());
+        Example<User> example = Example.of(probe, startingWith);
+
+        assertEquals(List.of("Anne@example.org", "anna@example.com"),
+                repository.findAll(example, Sort.by("email")).stream().map(User::getEmail).toList());
+        assertEquals(2, repository.count(example));
+        assertTrue(repository.exists(example));
+        assertEquals(4, repository.count(Example.of(probe, ExampleMatcher.matchingAny()
+                .withIgnorePaths("email", "normalizedEmail", "registrationDate"))));
+        // Without ignored paths, the default registration date of the probe is matched as well, like with MongoDB
+        assertTrue(repository.findOne(Example.of(probe)).isEmpty());
+        assertThrows(IncorrectResultSizeDataAccessException.class, () -> repository.findOne(example));
+    }
+
+    /**
+     * Tests the fluent query: projections, conversion to interfaces and keyset scrolling.
+     */
+    @Test
+    void testFindBy_FluentQuery() {
+        for (int i = 0; i < 5; i++) {
+            repository.insert(user("user" + i + "@example.com"));
+        }
+        User probe = new User();
+        probe.setCountry("France");
+        Example<User> example = Example.of(probe, ExampleMatcher.matching()
+                .withIgnorePaths("notificationPreference", "registrationDate"));
+
+        User projected = repository.findBy(example, query -> query.sortBy(Sort.by("email")).project("email").firstValue());
+        assertEquals("user0@example.com", projected.getEmail());
+        assertNotNull(projected.getId());
+        assertNull(projected.getName());
+        assertEquals("user4@example.com", repository.findBy(example,
+                query -> query.sortBy(Sort.by("email").descending()).as(EmailOnly.class).firstValue()).getEmail());
+
+        List<String> scrolled = new ArrayList<>();
+        Window<User> window = repository.findBy(example, query -> query.sortBy(Sort.by("email")).limit(2)
+                .scroll(ScrollPosition.keyset()));
+        while (true) {
+            window.forEach(user -> scrolled.add(user.getEmail()));
+            if (!window.hasNext()) {
+                break;
+            }
+            ScrollPosition next = window.positionAt(window.size() - 1);
+            window = repository.findBy(example, query -> query.sortBy(Sort.by("email")).limit(2).scroll(next));
+        }
+        assertEquals(List.of("user0@example.com", "user1@example.com", "user2@example.com", "user3@example.com",
+                "user4@example.com"), scrolled);
+    }
+
+    interface EmailOnly {
+        String getEmail();
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setName("John Doe");
+        user.setAge(25);
+        user.setCountry("France");
+        user.setEmail(email);
+        user.setPhone("1234567890");
+        return user;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.config.RegistrationProperties;
+import com.example.usermanagement.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link EmailBloomFilter}.
+ */
+public class EmailBloomFilterTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    /**
+     * Tests that every email is reported as possibly registered until the filter is built.
+     */
+    @Test
+    void testMightContain_TrueUntilBuilt() {
+        EmailBloomFilter filter = new EmailBloomFilter(new RegistrationProperties(), userRepository, registry);
+
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContain("new@example.com"));
+        assertEquals(1, registry.get("user.email-filter.checks").tag("result", "warming").counter().count());
+    }
+
+    /**
+     * Tests that the built filter reports every registered and added email, and rejects nearly all others
+     * at the configured false-positive rate.
+     */
+    @Test
+    void testRebuild_NoFalseNegativesAndFewFalsePositives() {
+        RegistrationProperties properties = new RegistrationProperties();
+        properties.getEmailFilter().setExpectedEmails(10_000);
+        properties.getEmailFilter().setFalsePositiveRate(0.01);
+        when(userRepository.streamNormalizedEmails(anyInt()))
+                .thenReturn(IntStream.range(0, 10_000).mapToObj(i -> "user" + i + "@example.com"));
+        EmailBloomFilter filter = new EmailBloomFilter(properties, userRepository, registry);
+
+        filter.rebuild();
+        filter.add("added@example.com");
+
+        assertTrue(filter.isReady());
+        assertTrue(filter.mightContain("added@example.com"));
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i + "@example.com"));
+        }
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> filter.mightContain("other" + i + "@example.com"))
+                .count();
+        assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+        assertTrue(registry.get("user.email-filter.false-positive-rate").gauge().value() < 0.02);
+    }
+
+    /**
+     * Tests that a failed rebuild keeps the current filter.
+     */
+    @Test
+    void testRebuild_FailureKeepsCurrentFilter() {
+        when(userRepository.streamNormalizedEmails(anyInt()))
+                .thenReturn(Stream.of("john@example.com"))
+                .thenThrow(new IllegalStateException("MongoDB unavailable"));
+        EmailBloomFilter filter = new EmailBloomFilter(new RegistrationProperties(), userRepository, registry);
+
+        filter.rebuild();
+        filter.rebuild();
+
+        assertTrue(filter.isReady());
+        assertTrue(filter.mightContain("john@example.com"));
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.config.NotificationProperties;
+import com.example.usermanagement.model.NotificationOutboxEntry;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.NotificationOutboxRepository;
+import com.example.usermanagement.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link NotificationDispatcher}.
+ * The workers are not started unless a test needs them, so that batches are dispatched on the test thread.
+ */
+public class NotificationDispatcherTest {
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final RecordingSender sender = new RecordingSender();
+    private NotificationDispatcher dispatcher;
+
+    /**
+     * Initializes the mocks and a dispatcher with a single email sender.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(outboxRepository.insertAbsent(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        dispatcher = new NotificationDispatcher(outboxRepository, userRepository, List.of(sender),
+                new NotificationProperties(), new SimpleMeterRegistry());
+    }
+
+    /**
+     * Tests that a registration does not write to the outbox on the registering thread, and that the outbox
+     * writer then writes one entry per user, addressed over the preferred channel.
+     */
+    @Test
+    void testOnUsersRegistered_WritesOutboxEntries() {
+        User sms = user("1", "sms");
+        dispatcher.onUsersRegistered(new UsersRegisteredEvent(List.of(user("0", "email"), sms)));
+        verifyNoInteractions(outboxRepository);
+
+        dispatcher.start();
+        try {
+            verify(outboxRepository, timeout(5000)).insertAbsent(argThat((List<NotificationOutboxEntry> entries) ->
+                    entries.size() == 2
+                            && entries.get(0).getRecipient().equals("user0@example.com")
+                            && entries.get(1).getChannel().equals("sms")
+                            && entries.get(1).getRecipient().equals(sms.getPhone())
+                            && entries.get(1).getNextAttemptAt().isAfter(LocalDateTime.now())));
+        } finally {
+            dispatcher.stop();
+        }
+    }
+
+    /**
+     * Tests that the users still marked as pending a lease after their registration get their missing
+     * outbox entries, due immediately, and lose the marker.
+     */
+    @Test
+    void testRecoverPending_WritesMissingEntriesAndClearsMarker() {
+        User lost = user("0", "email");
+        User written = user("1", "sms");
+        when(userRepository.findWelcomePending(any(), anyInt())).thenReturn(List.of(lost, written));
+        when(outboxRepository.insertAbsent(anyList())).thenAnswer(invocation ->
+                ((List<NotificationOutboxEntry>) invocation.getArgument(0)).subList(0, 1));
+
+        dispatcher.recoverPending();
+
+        verify(userRepository).findWelcomePending(
+                argThat(before -> before.isBefore(LocalDateTime.now().minus(new NotificationProperties().getLease()))),
+                eq(new NotificationProperties().getBatchSize()));
+        verify(outboxRepository).insertAbsent(argThat((List<NotificationOutboxEntry> entries) -> entries.size() == 2
+                && entries.get(0).getUserId().equals("0")
+                && !entries.get(0).getNextAttemptAt().isAfter(LocalDateTime.now())));
+        verify(userRepository).clearWelcomePending(List.of("0", "1"));
+    }
+
+    /**
+     * Tests that a batch is delivered per channel and that delivered entries are marked as sent,
+     * while entries of an unsupported channel are marked as failed without a retry.
+     */
+    @Test
+    void testDispatch_GroupsByChannel() {
+        dispatcher.dispatch(List.of(entry("a", "email"), entry("b", "pigeon"), entry("c", "email")));
+
+        assertEquals(List.of(List.of("a", "c")), sender.batches);
+        verify(outboxRepository).markSent(List.of("a", "c"));
+        verify(outboxRepository).recordFailures(argThat((List<NotificationOutboxEntry> entries) -> entries.size() == 1
+                && entries.get(0).getStatus() == NotificationOutboxEntry.Status.FAILED), anyList());
+    }
+
+    /**
+     * Tests that a failed delivery is retried with backoff until the maximum number of attempts is reached,
+     * and that the outcome is recorded under the lease the entries were claimed with.
+     */
+    @Test
+    void testDispatch_RetriesWithBackoff() {
+        sender.fail = true;
+        NotificationOutboxEntry retried = entry("a", "email");
+        NotificationOutboxEntry exhausted = entry("b", "email");
+        exhausted.setAttempts(new NotificationProperties().getMaxAttempts() - 1);
+        LocalDateTime claimedUntil = retried.getNextAttemptAt();
+
+        dispatcher.dispatch(List.of(retried, exhausted));
+
+        verify(outboxRepository).recordFailures(List.of(retried, exhausted), List.of(claimedUntil, claimedUntil));
+
+        assertEquals(NotificationOutboxEntry.Status.PENDING, retried.getStatus());
+        assertEquals(1, retried.getAttempts());
+        assertTrue(retried.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertEquals(NotificationOutboxEntry.Status.FAILED, exhausted.getStatus());
+        verify(outboxRepository, never()).markSent(anyList());
+    }
+
+    private static User user(String id, String channel) {
+        User user = new User();
+        user.setId(id);
+        user.setName("John Doe");
+        user.setEmail("user" + id + "@example.com");
+        user.setPhone("123456789" + id);
+        user.setNotificationPreference(channel);
+        return user;
+    }
+
+    private static NotificationOutboxEntry entry(String id, String channel) {
+        NotificationOutboxEntry entry = new NotificationOutboxEntry();
+        entry.setId(id);
+        entry.setChannel(channel);
+        entry.setNextAttemptAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+        return entry;
+    }
+
+    /**
+     * Email-only sender that records the ids of every batch, or fails on demand.
+     */
+    private static class RecordingSender implements NotificationSender {
+
+        private final List<List<String>> batches = new ArrayList<>();
+        private boolean fail;
+
+        @Override
+        public boolean supports(String channel) {
+            return channel.equals("email");
+        }
+
+        @Override
+        public void send(String channel, List<NotificationOutboxEntry> notifications) {
+            if (fail) {
+                throw new IllegalStateException("gateway unavailable");
+            }
+            batches.add(notifications.stream().map(NotificationOutboxEntry::getId).toList());
+        }
+    }
+}
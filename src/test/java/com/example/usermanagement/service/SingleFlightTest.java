@@ -0,0 +1,116 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.exception.UserNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link SingleFlight}.
+ * Holds the first call open with a latch so that the other callers are guaranteed to overlap with it.
+ */
+public class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests that concurrent callers for the same key share one execution and its result.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testConcurrentCallersShareResult() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = callConcurrently(key -> {
+            executions.incrementAndGet();
+            await(release);
+            return "value-" + key;
+        }, release);
+
+        for (Future<String> result : results) {
+            assertEquals("value-1", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    /**
+     * Tests that concurrent callers for the same key receive the same exception instance.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testConcurrentCallersShareException() throws Exception {
+        UserNotFoundException failure = new UserNotFoundException("User not found with ID: 1");
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = callConcurrently(key -> {
+            executions.incrementAndGet();
+            await(release);
+            throw failure;
+        }, release);
+
+        for (Future<String> result : results) {
+            Exception thrown = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(failure, thrown.getCause());
+        }
+        assertEquals(1, executions.get());
+    }
+
+    /**
+     * Tests that a key is executed again once the previous call has completed.
+     */
+    @Test
+    void testSequentialCallsAreNotCached() {
+        singleFlight.execute("1", key -> "value-" + executions.incrementAndGet());
+
+        assertEquals("value-2", singleFlight.execute("1", key -> "value-" + executions.incrementAndGet()));
+    }
+
+    /**
+     * Starts all callers, waits until the first one is in flight and the others are queued behind it, then releases it.
+     */
+    private List<Future<String>> callConcurrently(Function<String, String> loader, CountDownLatch release)
+            throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(CALLERS);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> {
+                started.countDown();
+                return singleFlight.execute("1", loader);
+            }));
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // Give the callers time to reach execute() before the first call completes
+        Thread.sleep(100);
+        release.countDown();
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
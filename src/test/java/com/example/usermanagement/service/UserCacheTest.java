@@ -0,0 +1,143 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.config.UserCacheProperties;
+import com.example.usermanagement.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for {@link UserCache}.
+ * Uses a manual ticker so that expiration can be tested without sleeping.
+ */
+public class UserCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private SimpleMeterRegistry meterRegistry;
+    private UserCache userCache;
+
+    /**
+     * Creates a cache with a one minute TTL and a five second negative TTL.
+     */
+    @BeforeEach
+    void setUp() {
+        UserCacheProperties properties = new UserCacheProperties();
+        properties.setMaxEntries(100);
+        properties.setTtl(Duration.ofMinutes(1));
+        properties.setNegativeTtl(Duration.ofSeconds(5));
+        meterRegistry = new SimpleMeterRegistry();
+        userCache = new UserCache(properties, meterRegistry, nanos::get);
+    }
+
+    /**
+     * Tests that found users outlive negative entries and that hits and misses are counted.
+     */
+    @Test
+    void testFoundAndMissingEntriesExpireIndependently() {
+        User user = new User();
+        user.setId("1");
+
+        assertEquals(Optional.of(user), userCache.get("1", id -> load(user)));
+        assertEquals(Optional.empty(), userCache.get("2", id -> load(null)));
+        userCache.get("1", id -> load(user));
+        userCache.get("2", id -> load(null));
+        assertEquals(2, loads.get());
+
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+        userCache.get("1", id -> load(user));
+        userCache.get("2", id -> load(null));
+        assertEquals(3, loads.get());
+
+        assertEquals(3, userCache.stats().hitCount());
+        assertEquals(3, userCache.stats().missCount());
+        assertEquals(3.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    /**
+     * Tests that an invalidated entry is loaded again.
+     */
+    @Test
+    void testInvalidate() {
+        userCache.get("1", id -> load(null));
+        userCache.invalidate("1");
+        userCache.get("1", id -> load(null));
+
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Tests that an invalidation arriving while a lookup is loaded removes the loaded result,
+     * instead of being overwritten by it.
+     *
+     * @throws Exception If any exception occurs during the test execution.
+     */
+    @Test
+    void testInvalidateDuringLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread reader = new Thread(() -> userCache.get("1", id -> {
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return load(null);
+        }));
+        reader.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Thread invalidation = new Thread(() -> userCache.invalidate("1"));
+        invalidation.start();
+        release.countDown();
+        reader.join(5000);
+        invalidation.join(5000);
+
+        userCache.get("1", id -> load(null));
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Tests that a result read before an invalidation of its id is not cached.
+     */
+    @Test
+    void testPutIfNotInvalidated() {
+        User user = new User();
+        user.setId("1");
+
+        long stamp = userCache.stamp("1");
+        userCache.invalidate("1");
+        userCache.putIfNotInvalidated("1", Optional.of(user), stamp);
+        assertEquals(Optional.empty(), userCache.getIfCached("1"));
+
+        userCache.putIfNotInvalidated("1", Optional.of(user), userCache.stamp("1"));
+        assertEquals(Optional.of(user), userCache.getIfCached("1"));
+    }
+
+    /**
+     * Tests that probes of the cache are not counted as hits or misses.
+     */
+    @Test
+    void testGetIfCachedNotCounted() {
+        userCache.getIfCached("1");
+        userCache.get("1", id -> load(null));
+        userCache.getIfCached("1");
+
+        assertEquals(0, userCache.stats().hitCount());
+        assertEquals(1, userCache.stats().missCount());
+    }
+
+    private Optional<User> load(User user) {
+        loads.incrementAndGet();
+        return Optional.ofNullable(user);
+    }
+}
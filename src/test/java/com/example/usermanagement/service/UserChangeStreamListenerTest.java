@@ -0,0 +1,107 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.config.ChangeStreamProperties;
+import com.example.usermanagement.config.UserCacheProperties;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.ChangeStreamTokenRepository;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link UserChangeStreamListener}.
+ * Change events are decoded from the documents a replica set sends, so that the handler sees them
+ * exactly as the driver delivers them.
+ */
+public class UserChangeStreamListenerTest {
+
+    private static final Codec<ChangeStreamDocument<Document>> CODEC =
+            ChangeStreamDocument.createCodec(Document.class, MongoClientSettings.getDefaultCodecRegistry());
+
+    private static final String RESUME_TOKEN = "\"_id\": {\"_data\": \"8266F1C2A9000000012B0229296E04\"}, ";
+    private static final String NAMESPACE = "\"ns\": {\"db\": \"usermanagement\", \"coll\": \"users\"}, ";
+
+    private final List<Object> events = new ArrayList<>();
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private UserChangeStreamListener listener;
+
+    /**
+     * Initializes the listener without starting the stream.
+     */
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getCollectionName(User.class)).thenReturn("users");
+        listener = new UserChangeStreamListener(mongoTemplate, mock(ChangeStreamTokenRepository.class),
+                events::add, new ChangeStreamProperties(), registry);
+    }
+
+    /**
+     * Tests that inserts, updates and deletes are published with the user id and, when it changed, the email.
+     */
+    @Test
+    void testHandle_PublishesUserChanges() {
+        assertTrue(listener.handle(change("{" + RESUME_TOKEN + NAMESPACE + "\"operationType\": \"insert\", "
+                + "\"documentKey\": {\"_id\": {\"$oid\": \"65f1c2a9e4b0a1b2c3d4e5f6\"}}, "
+                + "\"fullDocument\": {\"_id\": {\"$oid\": \"65f1c2a9e4b0a1b2c3d4e5f6\"}, \"normalizedEmail\": \"john@example.com\"}}")));
+        assertTrue(listener.handle(change("{" + RESUME_TOKEN + NAMESPACE + "\"operationType\": \"update\", "
+                + "\"documentKey\": {\"_id\": {\"$oid\": \"65f1c2a9e4b0a1b2c3d4e5f6\"}}, "
+                + "\"updateDescription\": {\"updatedFields\": {\"normalizedEmail\": \"jane@example.com\"}, \"removedFields\": []}}")));
+        assertTrue(listener.handle(change("{" + RESUME_TOKEN + NAMESPACE + "\"operationType\": \"delete\", "
+                + "\"documentKey\": {\"_id\": {\"$oid\": \"65f1c2a9e4b0a1b2c3d4e5f6\"}}}")));
+
+        assertEquals(List.of(
+                new UserChangedEvent("65f1c2a9e4b0a1b2c3d4e5f6", "john@example.com"),
+                new UserChangedEvent("65f1c2a9e4b0a1b2c3d4e5f6", "jane@example.com"),
+                new UserChangedEvent("65f1c2a9e4b0a1b2c3d4e5f6", null)), events);
+        assertEquals(1, registry.get("user.change-stream.events").tag("operation", "delete").counter().count());
+    }
+
+    /**
+     * Tests that a dropped collection asks for the stream to be restarted.
+     */
+    @Test
+    void testHandle_DropRequiresRestart() {
+        assertFalse(listener.handle(change("{" + RESUME_TOKEN + NAMESPACE + "\"operationType\": \"drop\"}")));
+        assertTrue(events.isEmpty());
+    }
+
+    /**
+     * Tests that the user cache drops the changed user, and everything when changes were missed.
+     */
+    @Test
+    void testUserCache_InvalidatedByEvents() {
+        UserCache cache = new UserCache(new UserCacheProperties(), registry);
+        User user = new User();
+        user.setId("1");
+        cache.get("1", id -> Optional.of(user));
+        cache.get("2", id -> Optional.of(user));
+
+        cache.onUserChanged(new UserChangedEvent("1", null));
+        assertTrue(cache.getIfCached("1").isEmpty());
+        assertTrue(cache.getIfCached("2").isPresent());
+
+        cache.onUserChangesMissed(new UserChangesMissedEvent());
+        assertTrue(cache.getIfCached("2").isEmpty());
+    }
+
+    private static ChangeStreamDocument<Document> change(String json) {
+        return CODEC.decode(new BsonDocumentReader(BsonDocument.parse(json)), DecoderContext.builder().build());
+    }
+}
@@ -0,0 +1,397 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.config.LookupProperties;
+import com.example.usermanagement.config.NotificationProperties;
+import com.example.usermanagement.config.RegistrationProperties;
+import com.example.usermanagement.config.UserCacheProperties;
+import com.example.usermanagement.dto.BulkRegistrationResult;
+import com.example.usermanagement.dto.UserBatch;
+import com.example.usermanagement.dto.UserCursor;
+import com.example.usermanagement.dto.UserPage;
+import com.example.usermanagement.dto.UserSearchCriteria;
+import com.example.usermanagement.dto.UserView;
+import com.example.usermanagement.exception.DuplicateEmailException;
+import com.example.usermanagement.exception.UserNotFoundException;
+import com.example.usermanagement.model.User;
+import com.example.usermanagement.repository.UserRepository;
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for {@link UserService}.
+ * The repository is mocked so that the number and shape of database calls can be verified.
+ */
+public class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final List<Object> events = new ArrayList<>();
+
+    private UserService userService;
+
+    /**
+     * Initializes the mocks and a service that relies on the unique email index.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(userRepository.hasUniqueEmailIndex()).thenReturn(true);
+        userService = newUserService(RegistrationProperties.DuplicateCheck.INDEX);
+    }
+
+    /**
+     * Tests that in index mode registration is a single insert without a prior lookup,
+     * which also marks the welcome notification as pending.
+     */
+    @Test
+    void testRegisterUser_IndexMode_SingleInsert() {
+        User user = user("John@Example.com");
+        user.setId("1");
+        when(userRepository.insert(user)).thenReturn(user);
+
+        assertSame(user, userService.registerUser(user));
+        assertEquals("john@example.com", user.getNormalizedEmail());
+        assertNotNull(user.getWelcomePendingSince());
+        verify(userRepository, never()).findByNormalizedEmail(any());
+    }
+
+    /**
+     * Tests that index mode looks emails up while the unique email index is missing, as duplicates would not be rejected.
+     */
+    @Test
+    void testRegisterUser_IndexMode_FallsBackToQueryWithoutIndex() {
+        when(userRepository.hasUniqueEmailIndex()).thenReturn(false);
+        when(userRepository.findByNormalizedEmail("john@example.com")).thenReturn(Optional.of(user("john@example.com")));
+
+        assertThrows(DuplicateEmailException.class, () -> userService.registerUser(user("John@example.com")));
+        verify(userRepository, never()).insert(any(User.class));
+    }
+
+    /**
+     * Tests that a duplicate-key error from the unique email index is translated into a {@link DuplicateEmailException},
+     * and that one from another index is not.
+     */
+    @Test
+    void testRegisterUser_DuplicateKeyTranslated() {
+        when(userRepository.insert(any(User.class))).thenThrow(new DuplicateKeyException(
+                "E11000 duplicate key error collection: users index: email_normalized_unique dup key: { normalizedEmail: \"john@example.com\" }"));
+
+        assertThrows(DuplicateEmailException.class, () -> userService.registerUser(user("john@example.com")));
+
+        when(userRepository.insert(any(User.class))).thenThrow(new DuplicateKeyException(
+                "E11000 duplicate key error collection: users index: _id_ dup key: { _id: \"1\" }"));
+
+        assertThrows(DuplicateKeyException.class, () -> userService.registerUser(user("jane@example.com")));
+    }
+
+    /**
+     * Tests that in query mode an existing email is rejected before inserting.
+     */
+    @Test
+    void testRegisterUser_QueryMode_RejectsExistingEmail() {
+        userService = newUserService(RegistrationProperties.DuplicateCheck.QUERY);
+        when(userRepository.findByNormalizedEmail("john@example.com")).thenReturn(Optional.of(user("john@example.com")));
+
+        assertThrows(DuplicateEmailException.class, () -> userService.registerUser(user("JOHN@example.com")));
+        verify(userRepository, never()).insert(any(User.class));
+    }
+
+    /**
+     * Tests that in query mode the lookup is skipped for an email the built filter has never seen,
+     * and made again once the email is registered.
+     */
+    @Test
+    void testRegisterUser_QueryMode_SkipsLookupForNewEmail() {
+        RegistrationProperties properties = new RegistrationProperties();
+        properties.setDuplicateCheck(RegistrationProperties.DuplicateCheck.QUERY);
+        EmailBloomFilter emailFilter = emailFilter(properties);
+        when(userRepository.streamNormalizedEmails(anyInt())).thenReturn(Stream.of("taken@example.com"));
+        emailFilter.rebuild();
+        userService = new UserService(userRepository, new UserCache(new UserCacheProperties(), new SimpleMeterRegistry()),
+                emailFilter, properties, new LookupProperties(), new NotificationProperties(), events::add);
+        when(userRepository.insert(any(User.class))).thenAnswer(invocation -> {
+            User inserted = invocation.getArgument(0);
+            inserted.setId("1");
+            return inserted;
+        });
+
+        userService.registerUser(user("new@example.com"));
+        verify(userRepository, never()).findByNormalizedEmail(any());
+
+        when(userRepository.findByNormalizedEmail(anyString())).thenAnswer(
+                invocation -> Optional.of(user(invocation.getArgument(0))));
+        assertThrows(DuplicateEmailException.class, () -> userService.registerUser(user("NEW@example.com")));
+        assertThrows(DuplicateEmailException.class, () -> userService.registerUser(user("taken@example.com")));
+        verify(userRepository, times(2)).findByNormalizedEmail(any());
+    }
+
+    /**
+     * Tests that without the unique email index every email is looked up, even one the built filter has never seen,
+     * as the filter may miss emails registered through other instances and nothing else would reject them.
+     */
+    @Test
+    void testRegisterUser_WithoutIndex_IgnoresFilter() {
+        RegistrationProperties properties = new RegistrationProperties();
+        properties.setDuplicateCheck(RegistrationProperties.DuplicateCheck.QUERY);
+        EmailBloomFilter emailFilter = emailFilter(properties);
+        when(userRepository.streamNormalizedEmails(anyInt())).thenReturn(Stream.of("taken@example.com"));
+        emailFilter.rebuild();
+        when(userRepository.hasUniqueEmailIndex()).thenReturn(false);
+        userService = new UserService(userRepository, new UserCache(new UserCacheProperties(), new SimpleMeterRegistry()),
+                emailFilter, properties, new LookupProperties(), new NotificationProperties(), events::add);
+        when(userRepository.findByNormalizedEmail("elsewhere@example.com"))
+                .thenReturn(Optional.of(user("elsewhere@example.com")));
+        when(userRepository.findByNormalizedEmailIn(anyCollection())).thenReturn(List.of(user("elsewhere@example.com")));
+
+        assertThrows(DuplicateEmailException.class, () -> userService.registerUser(user("elsewhere@example.com")));
+        List<BulkRegistrationResult> results = userService.registerUsers(List.of(user("elsewhere@example.com")));
+
+        assertEquals(BulkRegistrationResult.Status.DUPLICATE, results.get(0).getStatus());
+        verify(userRepository).findByNormalizedEmailIn(argThat(emails -> emails.contains("elsewhere@example.com")));
+        verify(userRepository, never()).insert(any(User.class));
+    }
+
+    /**
+     * Tests that a chunk is registered with one duplicate query and one bulk insert, and that
+     * existing, repeated and index-rejected emails are all reported as duplicates.
+     * Only the created user is announced in the registration event.
+     */
+    @Test
+    void testRegisterUsers_ReportsDuplicates() {
+        when(userRepository.findByNormalizedEmailIn(anyCollection())).thenReturn(List.of(user("taken@example.com")));
+        when(userRepository.insertAllUnordered(anyList())).thenReturn(List.of(1));
+
+        List<BulkRegistrationResult> results = userService.registerUsers(List.of(
+                user("a@example.com"),
+                user("taken@example.com"),
+                user("A@example.com"),
+                user("raced@example.com")));
+
+        assertEquals(BulkRegistrationResult.Status.CREATED, results.get(0).getStatus());
+        assertNotNull(results.get(0).getId());
+        assertEquals(BulkRegistrationResult.Status.DUPLICATE, results.get(1).getStatus());
+        assertEquals(BulkRegistrationResult.Status.DUPLICATE, results.get(2).getStatus());
+        assertEquals(BulkRegistrationResult.Status.DUPLICATE, results.get(3).getStatus());
+        assertEquals("raced@example.com", results.get(3).getEmail());
+        verify(userRepository, times(1)).findByNormalizedEmailIn(anyCollection());
+        verify(userRepository, times(1)).insertAllUnordered(argThat(users -> users.size() == 2));
+        assertEquals(1, events.size());
+        List<User> registered = ((UsersRegisteredEvent) events.get(0)).users();
+        assertEquals(List.of("a@example.com"), registered.stream().map(User::getEmail).toList());
+    }
+
+    /**
+     * Tests that repeated lookups of the same id, found or not found, reach the repository only once.
+     */
+    @Test
+    void testGetUserById_CachesFoundAndMissingUsers() {
+        User user = user("john@example.com");
+        when(userRepository.findById("1")).thenReturn(Optional.of(user));
+        when(userRepository.findById("99")).thenReturn(Optional.empty());
+
+        assertSame(user, userService.getUserById("1"));
+        assertSame(user, userService.getUserById("1"));
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById("99"));
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById("99"));
+
+        verify(userRepository, times(1)).findById("1");
+        verify(userRepository, times(1)).findById("99");
+    }
+
+    /**
+     * Tests that registering a user evicts a cached "not found" entry for its id.
+     */
+    @Test
+    void testRegisterUser_InvalidatesCachedLookup() {
+        User user = user("john@example.com");
+        user.setId("1");
+        when(userRepository.findById("1")).thenReturn(Optional.empty(), Optional.of(user));
+        when(userRepository.insert(user)).thenReturn(user);
+
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById("1"));
+        userService.registerUser(user);
+
+        assertSame(user, userService.getUserById("1"));
+    }
+
+    /**
+     * Tests that lookups follow the configured read preference, except for a user registered
+     * within the primary read window, which is read from the primary.
+     */
+    @Test
+    void testGetUserById_ReadsOwnWriteFromPrimary() {
+        LookupProperties lookupProperties = new LookupProperties();
+        lookupProperties.setReadPreference("secondaryPreferred");
+        UserCacheProperties cacheProperties = new UserCacheProperties();
+        cacheProperties.setEnabled(false);
+        userService = new UserService(userRepository, new UserCache(cacheProperties, new SimpleMeterRegistry()),
+                emailFilter(new RegistrationProperties()), new RegistrationProperties(), lookupProperties, new NotificationProperties(), events::add);
+        User registered = user("new@example.com");
+        registered.setId("new");
+        User existing = user("old@example.com");
+        when(userRepository.insert(registered)).thenReturn(registered);
+        when(userRepository.findById("new", ReadPreference.primary())).thenReturn(Optional.of(registered));
+        when(userRepository.findById("old", ReadPreference.secondaryPreferred())).thenReturn(Optional.of(existing));
+
+        userService.registerUser(registered);
+
+        assertSame(registered, userService.getUserById("new"));
+        assertSame(existing, userService.getUserById("old"));
+        verify(userRepository, never()).findById(anyString());
+    }
+
+    /**
+     * Tests that a user the secondary does not have, e.g. registered through another instance, is looked up
+     * again on the primary before the lookup is answered or cached as a miss.
+     */
+    @Test
+    void testGetUserById_RetriesSecondaryMissOnPrimary() {
+        LookupProperties lookupProperties = new LookupProperties();
+        lookupProperties.setReadPreference("secondaryPreferred");
+        userService = new UserService(userRepository, new UserCache(new UserCacheProperties(), new SimpleMeterRegistry()),
+                emailFilter(new RegistrationProperties()), new RegistrationProperties(), lookupProperties, new NotificationProperties(), events::add);
+        User elsewhere = user("elsewhere@example.com");
+        elsewhere.setId("2");
+        when(userRepository.findById(anyString(), eq(ReadPreference.secondaryPreferred()))).thenReturn(Optional.empty());
+        when(userRepository.findById(anyString(), eq(ReadPreference.primary()))).thenReturn(Optional.empty());
+        when(userRepository.findById("2", ReadPreference.primary())).thenReturn(Optional.of(elsewhere));
+        when(userRepository.findAllById(anyCollection(), eq(ReadPreference.secondaryPreferred()))).thenReturn(List.of());
+        User batched = user("batched@example.com");
+        batched.setId("3");
+        when(userRepository.findAllById(List.of("3", "99"), ReadPreference.primary())).thenReturn(List.of(batched));
+
+        assertSame(elsewhere, userService.getUserById("2"));
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById("98"));
+        verify(userRepository).findById("98", ReadPreference.primary());
+
+        UserBatch batch = userService.getUsersByIds(List.of("3", "99"));
+
+        assertEquals(List.of(batched), batch.getUsers());
+        assertEquals(List.of("99"), batch.getMissingIds());
+    }
+
+    /**
+     * Tests that the version of a cached user is answered from memory and otherwise read through a projection.
+     */
+    @Test
+    void testGetUserVersion_UsesCacheOrProjection() {
+        User user = user("john@example.com");
+        user.setId("1");
+        user.setVersion(4L);
+        when(userRepository.findVersionById("1")).thenReturn(Optional.of(4L));
+        when(userRepository.findVersionById("99")).thenReturn(Optional.empty());
+
+        assertEquals(4L, userService.getUserVersion("1"));
+        assertThrows(UserNotFoundException.class, () -> userService.getUserVersion("99"));
+
+        when(userRepository.findById("1")).thenReturn(Optional.of(user));
+        userService.getUserById("1");
+        assertEquals(4L, userService.getUserVersion("1"));
+        verify(userRepository, times(1)).findVersionById("1");
+    }
+
+    /**
+     * Tests that a batch lookup answers cached users from memory, resolves the others with one query,
+     * keeps the request order and reports unknown ids instead of failing.
+     */
+    @Test
+    void testGetUsersByIds_SingleQueryInRequestOrder() {
+        User cached = user("cached@example.com");
+        cached.setId("1");
+        User loaded = user("loaded@example.com");
+        loaded.setId("2");
+        when(userRepository.findById("1")).thenReturn(Optional.of(cached));
+        userService.getUserById("1");
+        when(userRepository.findAllById(List.of("2", "99"))).thenReturn(List.of(loaded));
+
+        UserBatch batch = userService.getUsersByIds(List.of("2", "99", "1", "2"));
+
+        assertEquals(List.of(loaded, cached), batch.getUsers());
+        assertEquals(List.of("99"), batch.getMissingIds());
+        assertSame(loaded, userService.getUserById("2"));
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById("99"));
+        verify(userRepository, times(1)).findAllById(anyList());
+        verify(userRepository, never()).findById("2");
+    }
+
+    /**
+     * Tests that a field selection is pushed down to the repository unless the user is already cached.
+     */
+    @Test
+    void testGetUserView_UsesCacheOrProjection() {
+        User user = user("john@example.com");
+        user.setId("1");
+        UserView projected = new UserView();
+        projected.setName("John Doe");
+        when(userRepository.findViewById("1", UserView.SUMMARY)).thenReturn(Optional.of(projected));
+
+        assertSame(projected, userService.getUserView("1", UserView.SUMMARY));
+
+        when(userRepository.findById("1")).thenReturn(Optional.of(user));
+        userService.getUserById("1");
+        UserView fromCache = userService.getUserView("1", Set.of("email"));
+
+        assertEquals("john@example.com", fromCache.getEmail());
+        assertNull(fromCache.getName());
+        verify(userRepository, times(1)).findViewById(anyString(), anySet());
+    }
+
+    /**
+     * Tests that a page is trimmed to its size and that the cursor points after its last user.
+     */
+    @Test
+    void testListUsers_ReturnsCursorOfLastUser() {
+        UserSearchCriteria criteria = new UserSearchCriteria();
+        List<User> users = List.of(user("a@example.com"), user("b@example.com"), user("c@example.com"));
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setId("id-" + i);
+            users.get(i).setRegistrationDate(LocalDateTime.of(2025, 1, 3 - i, 12, 0));
+        }
+        when(userRepository.findPage(criteria, null, 3)).thenReturn(users);
+
+        UserPage page = userService.listUsers(criteria, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(new UserCursor(LocalDateTime.of(2025, 1, 2, 12, 0), "id-1"), UserCursor.decode(page.getNextCursor()));
+    }
+
+    private UserService newUserService(RegistrationProperties.DuplicateCheck duplicateCheck) {
+        RegistrationProperties properties = new RegistrationProperties();
+        properties.setDuplicateCheck(duplicateCheck);
+        UserCache userCache = new UserCache(new UserCacheProperties(), new SimpleMeterRegistry());
+        return new UserService(userRepository, userCache, emailFilter(properties), properties,
+                new LookupProperties(), new NotificationProperties(), events::add);
+    }
+
+    private EmailBloomFilter emailFilter(RegistrationProperties properties) {
+        return new EmailBloomFilter(properties, userRepository, new SimpleMeterRegistry());
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setName("John Doe");
+        user.setAge(25);
+        user.setCountry("France");
+        user.setEmail(email);
+        user.setPhone("1234567890");
+        return user;
+    }
+}